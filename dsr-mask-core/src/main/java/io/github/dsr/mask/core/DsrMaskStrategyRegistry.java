@@ -1,19 +1,35 @@
 package io.github.dsr.mask.core;
 
 import io.github.dsr.mask.core.registry.MaskStrategyRegistry;
+import io.github.dsr.mask.core.registry.StrategySnapshot;
 import io.github.dsr.mask.core.strategy.*;
 import io.github.dsr.mask.core.strategy.builtin.*;
 
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 
 /**
  * 默认的脱敏策略注册中心
+ * <p>
+ * 策略保存在不可变的 {@link StrategySnapshot} 中，注册时复制出新快照后整体发布，
+ * 读取时只读一次 volatile 字段，运行期间注册策略不影响正在脱敏的线程。
+ * 除内置策略外，还会注册通过 {@link ServiceLoader} 发现的策略
+ * （{@code META-INF/services/io.github.dsr.mask.core.strategy.MaskStrategy}），同类型时覆盖内置策略
  * @author haiji
  */
 public class DsrMaskStrategyRegistry implements MaskStrategyRegistry {
 
-    private static final Map<String, MaskStrategy> STRATEGY_MAP = new HashMap<>();
+    /**
+     * core 不依赖日志框架，使用 JDK 的日志门面，由应用桥接到实际的日志实现
+     */
+    private static final System.Logger LOGGER = System.getLogger(DsrMaskStrategyRegistry.class.getName());
+
+    /**
+     * 当前快照，只在持有锁时替换
+     */
+    private volatile StrategySnapshot snapshot = StrategySnapshot.EMPTY;
 
    public DsrMaskStrategyRegistry() {
        register(new PhoneMaskStrategy());
@@ -23,14 +39,34 @@ public class DsrMaskStrategyRegistry implements MaskStrategyRegistry {
        register(new NameMaskStrategy());
        register(new BankCardMaskStrategy());
        register(new AmountMaskStrategy());
+       registerDiscovered();
    }
 
+    /**
+     * 注册 ServiceLoader 发现的策略，单个策略加载失败时跳过
+     */
+    private void registerDiscovered() {
+        Iterator<MaskStrategy> providers = ServiceLoader.load(MaskStrategy.class).iterator();
+        while (true) {
+            try {
+                if (!providers.hasNext()) {
+                    return;
+                }
+                register(providers.next());
+            } catch (ServiceConfigurationError e) {
+                LOGGER.log(System.Logger.Level.WARNING, "Failed to load MaskStrategy", e);
+            }
+        }
+    }
+
     /**
      * 注册策略
      * @param strategy 策略
      */
     public void register(MaskStrategy strategy) {
-        STRATEGY_MAP.put(String.valueOf(strategy.strategy()), strategy);
+        synchronized (this) {
+            snapshot = snapshot.with(strategy);
+        }
     }
 
     /**
@@ -39,14 +75,19 @@ public class DsrMaskStrategyRegistry implements MaskStrategyRegistry {
      * @return 策略
      */
     public MaskStrategy get(String type) {
-        return STRATEGY_MAP.get(type);
+        return snapshot.get(type);
+    }
+
+    @Override
+    public StrategySnapshot snapshot() {
+        return snapshot;
     }
 
     /**
      * 获取策略Map
-     * @return 策略Map
+     * @return 当前快照的只读视图
      */
-    protected static Map<String, MaskStrategy> getStrategyMap() {
-        return STRATEGY_MAP;
+    protected Map<String, MaskStrategy> getStrategyMap() {
+        return snapshot.asMap();
     }
 }
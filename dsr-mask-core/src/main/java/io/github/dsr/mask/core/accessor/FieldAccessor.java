@@ -0,0 +1,214 @@
+package io.github.dsr.mask.core.accessor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * 基于 {@link MethodHandle} 的字段访问器
+ * <p>
+ * 在构建时把字段转换为类型固定的 getter / setter，运行期通过 {@code invokeExact} 调用；
+ * {@code int} / {@code long} / {@code double} 字段提供专用的读取方法，不会产生装箱，
+ * 不可写的字段在构建时即可确定（{@link #isWritable()}）。
+ * 句柄保存在实例字段中而不是常量，JIT 无法把它们折叠为直接的字段访问，
+ * 调用开销与 {@link Field#get(Object)} 相当，不以此作为性能优化
+ *
+ * @author haiji
+ */
+public final class FieldAccessor {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType OBJECT_GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType OBJECT_SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final String name;
+
+    private final Class<?> type;
+
+    private final ValueKind kind;
+
+    /**
+     * (Object)Object，基本类型会装箱
+     */
+    private final MethodHandle getter;
+
+    /**
+     * (Object)int / (Object)long / (Object)double，仅对应类型的字段存在
+     */
+    private final MethodHandle primitiveGetter;
+
+    /**
+     * (Object, Object)void，final 字段等不可写时为 null
+     */
+    private final MethodHandle setter;
+
+    private FieldAccessor(Field field) throws IllegalAccessException {
+        this.name = field.getName();
+        this.type = field.getType();
+        this.kind = ValueKind.of(type);
+
+        MethodHandle rawGetter = LOOKUP.unreflectGetter(field);
+        this.getter = rawGetter.asType(OBJECT_GETTER);
+        this.primitiveGetter = kind.isSpecialized()
+                ? rawGetter.asType(MethodType.methodType(type, Object.class))
+                : null;
+
+        MethodHandle rawSetter;
+        try {
+            rawSetter = LOOKUP.unreflectSetter(field).asType(OBJECT_SETTER);
+        } catch (IllegalAccessException e) {
+            // record 等受信任的 final 字段不允许写入
+            rawSetter = null;
+        }
+        this.setter = rawSetter;
+    }
+
+    /**
+     * 为已设置 {@code setAccessible(true)} 的字段创建访问器
+     *
+     * @param field 字段
+     * @return 访问器
+     * @throws IllegalAccessException 字段不可访问
+     */
+    public static FieldAccessor of(Field field) throws IllegalAccessException {
+        return new FieldAccessor(field);
+    }
+
+    /**
+     * 读取字段值，基本类型会装箱
+     */
+    public Object get(Object target) {
+        try {
+            return (Object) getter.invokeExact(target);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * 读取 {@code int} 字段
+     */
+    public int getInt(Object target) {
+        checkKind(ValueKind.INT);
+        try {
+            return (int) primitiveGetter.invokeExact(target);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * 读取 {@code long} 字段
+     */
+    public long getLong(Object target) {
+        checkKind(ValueKind.LONG);
+        try {
+            return (long) primitiveGetter.invokeExact(target);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * 读取 {@code double} 字段
+     */
+    public double getDouble(Object target) {
+        checkKind(ValueKind.DOUBLE);
+        try {
+            return (double) primitiveGetter.invokeExact(target);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * 写入字段值
+     *
+     * @throws UnsupportedOperationException 字段不可写
+     */
+    public void set(Object target, Object value) {
+        if (setter == null) {
+            throw new UnsupportedOperationException("Field " + name + " is not writable");
+        }
+        try {
+            setter.invokeExact(target, value);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    public boolean isWritable() {
+        return setter != null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public ValueKind getKind() {
+        return kind;
+    }
+
+    private void checkKind(ValueKind expected) {
+        if (kind != expected) {
+            throw new IllegalStateException("Field " + name + " is " + type.getName() + ", not " + expected);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException re) {
+            return re;
+        }
+        if (e instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(e);
+    }
+
+    /**
+     * 字段值的读取方式
+     */
+    public enum ValueKind {
+        /**
+         * 引用类型
+         */
+        OBJECT,
+        INT,
+        LONG,
+        DOUBLE,
+        /**
+         * 其它基本类型（boolean / byte / short / char / float），读取时装箱
+         */
+        OTHER_PRIMITIVE;
+
+        static ValueKind of(Class<?> type) {
+            if (!type.isPrimitive()) {
+                return OBJECT;
+            }
+            if (type == int.class) {
+                return INT;
+            }
+            if (type == long.class) {
+                return LONG;
+            }
+            if (type == double.class) {
+                return DOUBLE;
+            }
+            return OTHER_PRIMITIVE;
+        }
+
+        public boolean isSpecialized() {
+            return this == INT || this == LONG || this == DOUBLE;
+        }
+
+        public boolean isPrimitive() {
+            return this != OBJECT;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.dsr.mask.core.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 访问频率估计（Count-Min Sketch）
+ * <p>
+ * 每个 long 保存 16 个 4 位计数器，每个键映射到 4 个计数器，取最小值作为频率估计，最大为 15。
+ * 累计增加次数达到容量的 10 倍时所有计数器减半，使频率随时间衰减。
+ * 计数器通过 CAS 更新，在 {@link MaskResultCache} 的锁外并发增加也不会溢出到相邻的计数器
+ *
+ * @author haiji
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    /**
+     * 减半时清除每个计数器移入的最高位
+     */
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private static final int MAX_FREQUENCY = 15;
+
+    private final AtomicLongArray table;
+
+    private final int tableMask;
+
+    private final int sampleSize;
+
+    private final AtomicInteger additions = new AtomicInteger();
+
+    FrequencySketch(int maximumSize) {
+        int capacity = Math.max(maximumSize, 16);
+        int length = Integer.highestOneBit(capacity - 1) << 1;
+        this.table = new AtomicLongArray(length);
+        this.tableMask = length - 1;
+        this.sampleSize = capacity * 10;
+    }
+
+    /**
+     * 估计访问频率
+     *
+     * @param hash 键的哈希值
+     * @return 0~15
+     */
+    int frequency(int hash) {
+        int frequency = MAX_FREQUENCY;
+        for (long seed : SEEDS) {
+            long h = mix(hash, seed);
+            frequency = Math.min(frequency, (int) ((table.get(index(h)) >>> shift(h)) & MAX_FREQUENCY));
+        }
+        return frequency;
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @param hash 键的哈希值
+     */
+    void increment(int hash) {
+        boolean added = false;
+        for (long seed : SEEDS) {
+            long h = mix(hash, seed);
+            added |= incrementAt(index(h), shift(h));
+        }
+        // 只有恰好达到采样数的线程执行减半，减半期间其他线程的增加保留在计数中
+        if (added && additions.incrementAndGet() == sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * 计数器未达到最大值时加一
+     *
+     * @return 是否增加
+     */
+    private boolean incrementAt(int index, int shift) {
+        long mask = (long) MAX_FREQUENCY << shift;
+        long current;
+        do {
+            current = table.get(index);
+            if ((current & mask) == mask) {
+                return false;
+            }
+        } while (!table.compareAndSet(index, current, current + (1L << shift)));
+        return true;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length(); i++) {
+            table.getAndUpdate(i, value -> (value >>> 1) & RESET_MASK);
+        }
+        additions.addAndGet(-(sampleSize - (sampleSize >>> 1)));
+    }
+
+    private static long mix(int hash, long seed) {
+        long h = (hash + seed) * seed;
+        return h ^ (h >>> 29);
+    }
+
+    private int index(long h) {
+        return (int) h & tableMask;
+    }
+
+    private static int shift(long h) {
+        return (int) (h >>> 60) << 2;
+    }
+}
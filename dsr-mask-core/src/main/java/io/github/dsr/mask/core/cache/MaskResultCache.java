@@ -0,0 +1,307 @@
+package io.github.dsr.mask.core.cache;
+
+import io.github.dsr.mask.core.strategy.BoundMaskStrategy;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 有界的脱敏结果缓存
+ * <p>
+ * 以（已绑定参数的脱敏器，原始值）为键缓存脱敏结果，只用于声明了 {@code cacheable()} 的策略。
+ * 读取不加锁；写入时容量已满则随机抽样若干条目，选出估计频率最低的作为淘汰对象，
+ * 新键的频率高于它时才替换（TinyLFU 准入），偶发的一次性值不会挤掉热点值。
+ * <p>
+ * 全局实例的容量由系统属性 {@value #SIZE_PROPERTY} 指定，默认 {@value #DEFAULT_SIZE}，为 0 时不缓存。
+ * 缓存中保存的是原始值，原始值应当是不可变的（如 String、BigDecimal）
+ *
+ * @author haiji
+ */
+public final class MaskResultCache {
+
+    /**
+     * 全局缓存容量的系统属性
+     */
+    public static final String SIZE_PROPERTY = "dsr.mask.cache.size";
+
+    private static final int DEFAULT_SIZE = 10_000;
+
+    /**
+     * 淘汰时的抽样数
+     */
+    private static final int SAMPLE_SIZE = 8;
+
+    private final int maximumSize;
+
+    private final ConcurrentHashMap<Key, Node> data;
+
+    /**
+     * 所有条目，用于随机抽样，只在持有锁时修改
+     */
+    private final Node[] nodes;
+
+    private int size;
+
+    private final FrequencySketch sketch;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * @param maximumSize 最大条目数，为 0 时不缓存
+     */
+    public MaskResultCache(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Maximum size must not be negative: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.data = new ConcurrentHashMap<>(Math.min(maximumSize, 1024));
+        this.nodes = new Node[maximumSize];
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * 全局缓存
+     */
+    public static MaskResultCache shared() {
+        return Holder.SHARED;
+    }
+
+    /**
+     * 在脱敏器前加一层缓存，容量为 0 时返回原脱敏器
+     *
+     * @param masker 已绑定参数的脱敏器
+     * @return 带缓存的脱敏器
+     */
+    public <P, R> BoundMaskStrategy<P, R> wrap(BoundMaskStrategy<P, R> masker) {
+        if (maximumSize == 0) {
+            return masker;
+        }
+        Function<P, R> mask = masker::mask;
+        return origin -> origin == null ? masker.mask(null) : get(masker, origin, mask);
+    }
+
+    /**
+     * 在 {@code long} 脱敏器前加一层缓存，容量为 0 或脱敏器为 null 时原样返回
+     *
+     * @param masker 脱敏器
+     * @return 带缓存的脱敏器
+     */
+    public BoundMaskStrategy.OfLong wrap(BoundMaskStrategy.OfLong masker) {
+        if (maximumSize == 0 || masker == null) {
+            return masker;
+        }
+        Function<Long, String> mask = masker::mask;
+        return (value, out) -> out.append(get(masker, value, mask));
+    }
+
+    /**
+     * 在 {@code int} 脱敏器前加一层缓存，容量为 0 或脱敏器为 null 时原样返回
+     *
+     * @param masker 脱敏器
+     * @return 带缓存的脱敏器
+     */
+    public BoundMaskStrategy.OfInt wrap(BoundMaskStrategy.OfInt masker) {
+        if (maximumSize == 0 || masker == null) {
+            return masker;
+        }
+        Function<Integer, String> mask = masker::mask;
+        return (value, out) -> out.append(get(masker, value, mask));
+    }
+
+    /**
+     * 在 {@link BigDecimal} 脱敏器前加一层缓存，容量为 0 或脱敏器为 null 时原样返回
+     *
+     * @param masker 脱敏器
+     * @return 带缓存的脱敏器
+     */
+    public BoundMaskStrategy.OfDecimal wrap(BoundMaskStrategy.OfDecimal masker) {
+        if (maximumSize == 0 || masker == null) {
+            return masker;
+        }
+        Function<BigDecimal, String> mask = masker::mask;
+        return (value, out) -> {
+            if (value == null) {
+                masker.maskTo(null, out);
+            } else {
+                out.append(get(masker, value, mask));
+            }
+        };
+    }
+
+    /**
+     * 在字符序列脱敏器前加一层缓存，容量为 0 或脱敏器为 null 时原样返回。
+     * 字符序列可能是可变的，以 String 副本作为键
+     *
+     * @param masker 脱敏器
+     * @return 带缓存的脱敏器
+     */
+    public BoundMaskStrategy.OfText wrap(BoundMaskStrategy.OfText masker) {
+        if (maximumSize == 0 || masker == null) {
+            return masker;
+        }
+        Function<String, String> mask = masker::mask;
+        return (value, out) -> {
+            if (value == null) {
+                masker.maskTo(null, out);
+            } else {
+                out.append(get(masker, value.toString(), mask));
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private <P, R> R get(Object masker, P origin, Function<? super P, ? extends R> mask) {
+        Key key = new Key(masker, origin);
+        int hash = key.hashCode();
+        sketch.increment(hash);
+        Node node = data.get(key);
+        if (node != null) {
+            hits.increment();
+            return (R) node.value;
+        }
+        misses.increment();
+        R value = mask.apply(origin);
+        if (value != null) {
+            admit(key, hash, value);
+        }
+        return value;
+    }
+
+    private synchronized void admit(Key key, int hash, Object value) {
+        if (data.containsKey(key)) {
+            return;
+        }
+        if (size < maximumSize) {
+            Node node = new Node(key, value, size);
+            nodes[size++] = node;
+            data.put(key, node);
+            return;
+        }
+
+        Node victim = sampleVictim();
+        if (sketch.frequency(hash) <= sketch.frequency(victim.key.hashCode())) {
+            rejections.increment();
+            return;
+        }
+        data.remove(victim.key);
+        Node node = new Node(key, value, victim.index);
+        nodes[victim.index] = node;
+        data.put(key, node);
+        evictions.increment();
+    }
+
+    private Node sampleVictim() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Node victim = nodes[random.nextInt(size)];
+        int victimFrequency = sketch.frequency(victim.key.hashCode());
+        for (int i = 1; i < SAMPLE_SIZE && victimFrequency > 0; i++) {
+            Node candidate = nodes[random.nextInt(size)];
+            int frequency = sketch.frequency(candidate.key.hashCode());
+            if (frequency < victimFrequency) {
+                victim = candidate;
+                victimFrequency = frequency;
+            }
+        }
+        return victim;
+    }
+
+    /**
+     * 清空缓存，命中统计保留
+     */
+    public synchronized void clear() {
+        data.clear();
+        for (int i = 0; i < size; i++) {
+            nodes[i] = null;
+        }
+        size = 0;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * 当前条目数
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * 命中次数
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * 未命中次数
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * 被新条目替换的次数
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * 频率不足未被缓存的次数
+     */
+    public long rejectionCount() {
+        return rejections.sum();
+    }
+
+    /**
+     * 命中率，没有请求时为 0
+     */
+    public double hitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    @Override
+    public String toString() {
+        return "MaskResultCache{size=" + size() + ", maximumSize=" + maximumSize
+                + ", hits=" + hitCount() + ", misses=" + missCount()
+                + ", evictions=" + evictionCount() + ", rejections=" + rejectionCount() + '}';
+    }
+
+    /**
+     * 脱敏器实例区分策略与参数，原始值按 equals 比较
+     */
+    private record Key(Object masker, Object origin) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && masker == other.masker && origin.equals(other.origin);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(masker) * 31 + origin.hashCode();
+        }
+    }
+
+    private record Node(Key key, Object value, int index) {
+    }
+
+    private static final class Holder {
+
+        private static final MaskResultCache SHARED = new MaskResultCache(
+                Math.max(0, Integer.getInteger(SIZE_PROPERTY, DEFAULT_SIZE)));
+    }
+}
@@ -1,5 +1,8 @@
 package io.github.dsr.mask.core.constants;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * 掩码策略枚举
  */
@@ -17,6 +20,14 @@ public enum AmountEnum {
     // 智能掩码（根据金额大小自动选择策略）
     SMART_MASK("6", "智能掩码");
 
+    private static final Map<String, AmountEnum> BY_CODE = new HashMap<>();
+
+    static {
+        for (AmountEnum value : values()) {
+            BY_CODE.put(value.code, value);
+        }
+    }
+
     private final String code;
     private final String desc;
 
@@ -34,11 +45,6 @@ public enum AmountEnum {
     }
 
     public static AmountEnum getByCode(String code) {
-        for (AmountEnum value : AmountEnum.values()) {
-            if (value.code.equals(code)) {
-                return value;
-            }
-        }
-        return null;
+        return code != null ? BY_CODE.get(code) : null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package io.github.dsr.mask.core.generated;
+
+import io.github.dsr.mask.core.plan.ClassMaskPlan;
+import io.github.dsr.mask.core.plan.FieldMaskPlan;
+import io.github.dsr.mask.core.plan.StrategyBinding;
+
+/**
+ * 编译期生成的脱敏器
+ * <p>
+ * 由 dsr-mask-processor 为包含 {@code @Mask} 字段的类生成，通过字段或 getter / setter 直接访问，
+ * 运行期不再使用反射。不能直接访问的未脱敏字段仍按反射读取，不调用 getter，避免触发延迟加载等副作用。
+ * 只处理本类声明的字段，父类字段由调用方按父类链分别处理
+ *
+ * @param <T> 被脱敏的类型
+ * @author haiji
+ */
+public interface GeneratedMasker<T> {
+
+    /**
+     * 生成类名的后缀，生成类与被脱敏的类位于同一个包中，
+     * 嵌套类的 {@code $} 替换为 {@code _}，如 {@code User_DsrMasker}、{@code Outer_Inner_DsrMasker}
+     */
+    String CLASS_SUFFIX = "_DsrMasker";
+
+    /**
+     * 被脱敏的类型
+     *
+     * @return 类型
+     */
+    Class<T> type();
+
+    /**
+     * 本类是否声明了 {@code @Mask} 字段
+     *
+     * @return 是否包含脱敏字段
+     */
+    boolean hasMaskedFields();
+
+    /**
+     * 本类 {@code @Mask} 字段的策略绑定，用于启动时校验
+     *
+     * @return 策略绑定
+     */
+    default StrategyBinding[] bindings() {
+        return new StrategyBinding[0];
+    }
+
+    /**
+     * 输出本类字段，格式与反射路径一致：{@code name="张*", age=18}
+     *
+     * @param source   源对象
+     * @param out      输出缓冲区
+     * @param renderer 嵌套对象与脱敏字段的输出回调
+     */
+    void writeFields(T source, StringBuilder out, Renderer renderer);
+
+    /**
+     * 就地脱敏本类的字符串字段，并递归处理嵌套对象
+     *
+     * @param source  源对象
+     * @param visitor 嵌套对象与脱敏字段的处理回调
+     */
+    void maskFields(T source, Visitor visitor);
+
+    /**
+     * 日志输出回调，由 {@link io.github.dsr.mask.core.util.ObjectMasker} 实现
+     */
+    interface Renderer {
+
+        /**
+         * 输出未脱敏的字段值（嵌套对象会继续递归）
+         */
+        void write(Object value, StringBuilder out);
+
+        /**
+         * 按策略脱敏并输出字段值
+         */
+        void writeMasked(StrategyBinding binding, Object value, StringBuilder out);
+
+        /**
+         * 按策略脱敏并输出 {@code long} 字段值
+         */
+        default void writeMaskedLong(StrategyBinding binding, long value, StringBuilder out) {
+            writeMasked(binding, value, out);
+        }
+
+        /**
+         * 按策略脱敏并输出 {@code int}（以及 {@code short}、{@code byte}）字段值
+         */
+        default void writeMaskedInt(StrategyBinding binding, int value, StringBuilder out) {
+            writeMasked(binding, value, out);
+        }
+
+        /**
+         * 按反射读取并输出未脱敏的字段值
+         *
+         * @param source        源对象
+         * @param declaringType 声明字段的类
+         * @param name          字段名
+         * @param out           输出缓冲区
+         */
+        default void writeField(Object source, Class<?> declaringType, String name, StringBuilder out) {
+            write(readField(source, declaringType, name), out);
+        }
+
+        /**
+         * 读取或输出字段失败时输出错误信息，格式与反射路径一致
+         */
+        default void writeError(RuntimeException e, StringBuilder out) {
+            out.append("[ERROR: ").append(e.getMessage()).append(']');
+        }
+    }
+
+    /**
+     * 响应处理回调，由响应处理器实现
+     */
+    interface Visitor {
+
+        /**
+         * 递归处理嵌套对象
+         */
+        void visit(Object value);
+
+        /**
+         * 按策略脱敏字符串
+         *
+         * @return 脱敏后的值，未脱敏时返回原对象
+         */
+        String mask(StrategyBinding binding, String value);
+
+        /**
+         * 按反射读取未脱敏的字段值并递归处理
+         *
+         * @param source        源对象
+         * @param declaringType 声明字段的类
+         * @param name          字段名
+         */
+        default void visitField(Object source, Class<?> declaringType, String name) {
+            visit(readField(source, declaringType, name));
+        }
+    }
+
+    /**
+     * 按反射读取字段，生成的脱敏器用于读取不能直接访问的未脱敏字段
+     */
+    private static Object readField(Object source, Class<?> declaringType, String name) {
+        FieldMaskPlan field = ClassMaskPlan.of(declaringType).getField(name);
+        if (field == null) {
+            throw new IllegalStateException("No field " + name + " in " + declaringType.getName());
+        }
+        return field.get(source);
+    }
+}
@@ -0,0 +1,115 @@
+package io.github.dsr.mask.core.generated;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * 编译期生成脱敏器的查找
+ * <p>
+ * 按命名约定加载与被脱敏类同包的生成类，每个类只查找一次，结果缓存在 {@link ClassValue} 中；
+ * 找不到时返回 null，调用方回退到反射路径。
+ * <p>
+ * 在 GraalVM native image 中不按类名反射加载，而是通过注解处理器写入的
+ * {@code META-INF/services/io.github.dsr.mask.core.generated.GeneratedMasker} 由 {@link ServiceLoader}
+ * 一次性加载（native image 构建时会自动注册服务实现），不需要额外的反射配置
+ *
+ * @author haiji
+ */
+public final class GeneratedMaskers {
+
+    /**
+     * 是否运行在 native image 中（构建期或运行期）
+     */
+    private static final boolean NATIVE_IMAGE = System.getProperty("org.graalvm.nativeimage.imagecode") != null;
+
+    private static final ClassValue<GeneratedMasker<?>> MASKERS = new ClassValue<>() {
+        @Override
+        protected GeneratedMasker<?> computeValue(Class<?> type) {
+            return load(type);
+        }
+    };
+
+    /**
+     * 查找类对应的生成脱敏器
+     *
+     * @param type 类
+     * @return 生成脱敏器，不存在时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> GeneratedMasker<T> find(Class<T> type) {
+        return (GeneratedMasker<T>) MASKERS.get(type);
+    }
+
+    /**
+     * 生成类的全限定名
+     *
+     * @param type 被脱敏的类
+     * @return 生成类名
+     */
+    public static String generatedClassName(Class<?> type) {
+        return generatedClassName(type.getName());
+    }
+
+    /**
+     * 生成类的全限定名
+     *
+     * @param name 被脱敏类的二进制类名
+     * @return 生成类名
+     */
+    public static String generatedClassName(String name) {
+        int lastDot = name.lastIndexOf('.');
+        String packagePrefix = lastDot >= 0 ? name.substring(0, lastDot + 1) : "";
+        return packagePrefix + name.substring(lastDot + 1).replace('$', '_') + GeneratedMasker.CLASS_SUFFIX;
+    }
+
+    private static GeneratedMasker<?> load(Class<?> type) {
+        if (type.isPrimitive() || type.isArray() || type.getClassLoader() == null) {
+            return null;
+        }
+        if (NATIVE_IMAGE) {
+            return Services.MASKERS.get(type);
+        }
+        try {
+            Class<?> generated = Class.forName(generatedClassName(type), true, type.getClassLoader());
+            if (!GeneratedMasker.class.isAssignableFrom(generated)) {
+                return null;
+            }
+            GeneratedMasker<?> masker = (GeneratedMasker<?>) generated.getDeclaredConstructor().newInstance();
+            return masker.type() == type ? masker : null;
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            // 没有生成类，或生成类与当前版本不兼容，回退到反射
+            return null;
+        }
+    }
+
+    private GeneratedMaskers() {
+    }
+
+    /**
+     * 通过 {@link ServiceLoader} 加载的全部生成脱敏器，按被脱敏类索引
+     */
+    private static final class Services {
+
+        static final Map<Class<?>, GeneratedMasker<?>> MASKERS = load();
+
+        @SuppressWarnings("rawtypes")
+        private static Map<Class<?>, GeneratedMasker<?>> load() {
+            Map<Class<?>, GeneratedMasker<?>> maskers = new HashMap<>();
+            Iterator<GeneratedMasker> providers = ServiceLoader.load(GeneratedMasker.class).iterator();
+            while (true) {
+                try {
+                    if (!providers.hasNext()) {
+                        return maskers;
+                    }
+                    GeneratedMasker<?> masker = providers.next();
+                    maskers.put(masker.type(), masker);
+                } catch (ServiceConfigurationError | LinkageError e) {
+                    // 生成类与当前版本不兼容，对应的类回退到反射
+                }
+            }
+        }
+    }
+}
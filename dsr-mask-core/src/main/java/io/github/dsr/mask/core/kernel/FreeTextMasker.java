@@ -0,0 +1,335 @@
+package io.github.dsr.mask.core.kernel;
+
+import java.util.Arrays;
+
+/**
+ * 自由文本敏感信息识别与脱敏
+ * <p>
+ * 用于没有参数、已经拼接好的日志消息：从左到右扫描一遍，同时识别手机号、身份证号、银行卡号和邮箱，
+ * 不使用正则，也不回溯。遮蔽形式与内置策略一致：
+ * <ul>
+ *     <li>手机号：独立出现的 11 位 1 开头数字，{@code 138****5678}</li>
+ *     <li>身份证号：独立出现的 15 位数字，或 17 位数字加校验位（数字或 X），保留前 6 位和后 3 位</li>
+ *     <li>银行卡号：独立出现的 16~19 位数字，保留前 6 位和后 4 位</li>
+ *     <li>邮箱：{@code local@domain.tld}，本地部分保留前 2 位（不足 3 位时至少遮蔽 1 位），其余替换为 4 个掩码字符</li>
+ * </ul>
+ * 身份证号必须通过 GB 11643 校验码（18 位）和出生日期检查，银行卡号必须通过 Luhn 校验，
+ * 校验和在扫描数字时由 {@link NumberChecksums} 逐位累加，订单号、链路 ID 等普通数字不会被误判。
+ * 数字段的边界与内置策略相同（前后不是 {@code \w} 字符）。邮箱本地部分中的数字不会再按号码处理，
+ * 因此号码候选先暂存，扫描到所在片段结束、确定不是邮箱后再输出。没有命中时不复制字符串。
+ * <p>
+ * 扫描前先由 {@link TextPrefilter} 查找 {@code @} 或足够长的数字段，没有候选的文本直接返回，
+ * 有候选时从候选所在片段的开头开始扫描
+ *
+ * @author haiji
+ */
+public final class FreeTextMasker {
+
+    private static final String EMAIL_MASK = "****";
+
+    /**
+     * 最短可识别文本（{@code ab@c.cn}）
+     */
+    private static final int MIN_LENGTH = 6;
+
+    private static final int PHONE_LENGTH = 11;
+
+    private static final int KIND_PHONE = 1;
+
+    private static final int KIND_ID_CARD = 2;
+
+    private static final int KIND_BANK_CARD = 3;
+
+    private FreeTextMasker() {
+    }
+
+    /**
+     * 脱敏自由文本
+     *
+     * @param text 文本
+     * @return 脱敏后的文本，未命中时返回原字符串
+     */
+    public static String mask(String text) {
+        if (text == null || text.length() < MIN_LENGTH) {
+            return text;
+        }
+        int from = scanStart(text);
+        if (from < 0) {
+            return text;
+        }
+        Scan scan = new Scan(text, null);
+        scan.run(from);
+        return scan.out == null ? text : scan.out.toString();
+    }
+
+    /**
+     * 脱敏自由文本并直接写入输出缓冲区
+     *
+     * @param text 文本，为 null 时写入 {@code null}
+     * @param out  输出缓冲区
+     */
+    public static void maskTo(String text, StringBuilder out) {
+        if (text == null || text.length() < MIN_LENGTH) {
+            out.append(text);
+            return;
+        }
+        int from = scanStart(text);
+        if (from < 0) {
+            out.append(text);
+            return;
+        }
+        new Scan(text, out).run(from);
+    }
+
+    /**
+     * 扫描起点：第一个候选所在片段的开头。之前的文本不含 {@code @} 和长数字段，不可能命中
+     */
+    private static int scanStart(String text) {
+        int from = TextPrefilter.firstCandidate(text);
+        while (from > 0 && isLocalChar(text.charAt(from - 1))) {
+            from--;
+        }
+        return from;
+    }
+
+    /**
+     * 是否为邮箱本地部分字符 {@code [A-Za-z0-9._%+-]}
+     */
+    private static boolean isLocalChar(char c) {
+        return MaskKernel.isWordChar(c) || c == '.' || c == '-' || c == '+' || c == '%';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isLetterOrDigit(char c) {
+        return isLetter(c) || MaskKernel.isDigit(c);
+    }
+
+    /**
+     * 单次扫描的状态
+     */
+    private static final class Scan {
+
+        private final String text;
+
+        /**
+         * 输出缓冲区，{@link #mask(String)} 时第一次命中才创建
+         */
+        private StringBuilder out;
+
+        /**
+         * 已经写入输出的源文本位置
+         */
+        private int copied;
+
+        /**
+         * 暂存的号码候选，每 3 个元素为一组：起始位置、结束位置、类型
+         */
+        private int[] pending;
+
+        private int pendingCount;
+
+        Scan(String text, StringBuilder out) {
+            this.text = text;
+            this.out = out;
+        }
+
+        void run(int from) {
+            String text = this.text;
+            int length = text.length();
+
+            // 当前片段（由本地部分字符组成）的起始位置，不在片段内时为 -1
+            int runStart = -1;
+            // 当前片段是否只包含域名字符
+            boolean runDomain = true;
+            // 以 @ 结尾的上一个片段中邮箱本地部分的起始位置，以及 @ 的位置
+            int localStart = -1;
+            int atIndex = -1;
+
+            int i = from;
+            while (i <= length) {
+                char c = i < length ? text.charAt(i) : 0;
+                if (i < length && isLocalChar(c)) {
+                    if (runStart < 0) {
+                        runStart = i;
+                        runDomain = true;
+                    }
+                    if (!MaskKernel.isWordChar(c)) {
+                        if (c != '.' && c != '-') {
+                            runDomain = false;
+                        }
+                        i++;
+                        continue;
+                    }
+
+                    // 单词字符段：独立的数字段先逐位累加校验和，再跳过其余单词字符
+                    boolean candidate = MaskKernel.isDigit(c) && !MaskKernel.isWordBefore(text, i);
+                    int digitEnd = i;
+                    int luhn = NumberChecksums.LUHN_INIT;
+                    int idSum = NumberChecksums.ID_INIT;
+                    while (candidate && digitEnd < length && MaskKernel.isDigit(text.charAt(digitEnd))) {
+                        int digit = text.charAt(digitEnd) - '0';
+                        luhn = NumberChecksums.luhnStep(luhn, digitEnd - i, digit);
+                        idSum = NumberChecksums.residentIdStep(idSum, digitEnd - i, digit);
+                        digitEnd++;
+                    }
+                    int end = digitEnd;
+                    while (end < length && MaskKernel.isWordChar(text.charAt(end))) {
+                        if (text.charAt(end) == '_') {
+                            runDomain = false;
+                        }
+                        end++;
+                    }
+                    if (candidate) {
+                        classify(i, digitEnd, end, luhn, idSum);
+                    }
+                    i = end;
+                    continue;
+                }
+
+                // 片段结束
+                if (runStart >= 0) {
+                    boolean email = false;
+                    if (localStart >= 0) {
+                        int domainEnd = runDomain && runStart == atIndex + 1 ? domainEnd(runStart, i) : -1;
+                        if (domainEnd > 0) {
+                            pendingCount = 0;
+                            emitEmail(localStart, atIndex, domainEnd);
+                            email = true;
+                        }
+                        localStart = -1;
+                    }
+                    int start = email || c != '@' ? -1 : localPartStart(runStart, i);
+                    if (start >= 0) {
+                        // 可能是邮箱本地部分，候选号码等域名确定后再输出
+                        localStart = start;
+                        atIndex = i;
+                    } else {
+                        flush();
+                    }
+                    runStart = -1;
+                } else if (localStart >= 0) {
+                    // @ 后不是域名
+                    flush();
+                    localStart = -1;
+                }
+                i++;
+            }
+
+            if (out != null) {
+                out.append(text, copied, length);
+            }
+        }
+
+        /**
+         * 识别独立出现的数字段，{@code [start, digitEnd)} 为数字，{@code [start, wordEnd)} 为所在单词
+         *
+         * @param luhn  数字段的 Luhn 累加状态
+         * @param idSum 数字段前 17 位的身份证加权和
+         */
+        private void classify(int start, int digitEnd, int wordEnd, int luhn, int idSum) {
+            int digits = digitEnd - start;
+            if (wordEnd == digitEnd) {
+                if (MaskKernel.isWordAt(text, digitEnd)) {
+                    return;
+                }
+                if (digits == PHONE_LENGTH && text.charAt(start) == '1') {
+                    addPending(start, digitEnd, KIND_PHONE);
+                } else if (digits == 15 && NumberChecksums.isShortIdBirthDate(text, start)) {
+                    addPending(start, digitEnd, KIND_ID_CARD);
+                } else if (digits == 18 && NumberChecksums.isResidentIdValid(idSum, text.charAt(start + 17))
+                        && NumberChecksums.isIdBirthDate(text, start)) {
+                    addPending(start, digitEnd, KIND_ID_CARD);
+                } else if (digits >= 16 && digits <= 19 && NumberChecksums.isLuhnValid(luhn, digits)) {
+                    addPending(start, digitEnd, KIND_BANK_CARD);
+                }
+            } else if (digits == 17 && wordEnd == digitEnd + 1
+                    && NumberChecksums.isResidentIdValid(idSum, text.charAt(digitEnd))
+                    && NumberChecksums.isIdBirthDate(text, start)
+                    && !MaskKernel.isWordAt(text, wordEnd)) {
+                addPending(start, wordEnd, KIND_ID_CARD);
+            }
+        }
+
+        /**
+         * 邮箱本地部分的起始位置（跳过开头的符号），没有字母、数字时返回 -1
+         */
+        private int localPartStart(int runStart, int atIndex) {
+            for (int i = runStart; i < atIndex; i++) {
+                if (MaskKernel.isWordChar(text.charAt(i))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * 校验域名 {@code label(.label)+}，最后一段至少 2 位字母，返回域名结束位置（去掉结尾的点），不是域名时返回 -1
+         */
+        private int domainEnd(int from, int to) {
+            int end = to;
+            while (end > from && text.charAt(end - 1) == '.') {
+                end--;
+            }
+            if (end == from || !isLetterOrDigit(text.charAt(from))) {
+                return -1;
+            }
+            int tld = end;
+            while (tld > from && isLetter(text.charAt(tld - 1))) {
+                tld--;
+            }
+            if (end - tld < 2 || tld - 1 <= from || text.charAt(tld - 1) != '.' || text.charAt(tld - 2) == '.') {
+                return -1;
+            }
+            return end;
+        }
+
+        private void addPending(int start, int end, int kind) {
+            if (pending == null) {
+                pending = new int[6];
+            } else if (pendingCount + 3 > pending.length) {
+                pending = Arrays.copyOf(pending, pending.length * 2);
+            }
+            pending[pendingCount++] = start;
+            pending[pendingCount++] = end;
+            pending[pendingCount++] = kind;
+        }
+
+        private void flush() {
+            for (int p = 0; p < pendingCount; p += 3) {
+                int start = pending[p];
+                int end = pending[p + 1];
+                switch (pending[p + 2]) {
+                    case KIND_PHONE -> emitKeep(start, end, 3, 4);
+                    case KIND_ID_CARD -> emitKeep(start, end, 6, 3);
+                    default -> emitKeep(start, end, 6, 4);
+                }
+            }
+            pendingCount = 0;
+        }
+
+        private void emitKeep(int start, int end, int prefix, int suffix) {
+            StringBuilder out = output();
+            out.append(text, copied, start + prefix);
+            for (int i = start + prefix; i < end - suffix; i++) {
+                out.append(MaskKernel.MASK_CHAR);
+            }
+            copied = end - suffix;
+        }
+
+        private void emitEmail(int localStart, int atIndex, int domainEnd) {
+            int keep = Math.min(2, atIndex - localStart - 1);
+            output().append(text, copied, localStart + keep).append(EMAIL_MASK).append(text, atIndex, domainEnd);
+            copied = domainEnd;
+        }
+
+        private StringBuilder output() {
+            if (out == null) {
+                out = new StringBuilder(text.length() + EMAIL_MASK.length());
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.dsr.mask.core.kernel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * 脱敏结果的输出
+ * <p>
+ * 扫描源字符序列时只描述修改（填充掩码、替换片段），未修改的部分按区间从源字符串复制：
+ * <ul>
+ *     <li>{@link #of(CharSequence)}：第一次修改时才创建缓冲区，{@link #result()} 在未修改时返回源字符串本身</li>
+ *     <li>{@link #to(CharSequence, Appendable)}：直接写入调用方的输出（如带转义的 JSON 缓冲区），不生成中间字符串，
+ *     扫描结束后调用 {@link #finish()} 写入剩余部分</li>
+ * </ul>
+ * 修改必须按位置从前往后进行。输出的 {@link IOException} 以 {@link UncheckedIOException} 抛出
+ *
+ * @author haiji
+ */
+public final class MaskAppender {
+
+    private final CharSequence source;
+
+    private Appendable out;
+
+    /**
+     * 已经写入输出的源字符串位置
+     */
+    private int copied;
+
+    private MaskAppender(CharSequence source, Appendable out) {
+        this.source = source;
+        this.out = out;
+    }
+
+    /**
+     * 生成新字符串
+     *
+     * @param source 源字符序列
+     */
+    public static MaskAppender of(CharSequence source) {
+        return new MaskAppender(source, null);
+    }
+
+    /**
+     * 直接写入输出
+     *
+     * @param source 源字符序列
+     * @param out    输出
+     */
+    public static MaskAppender to(CharSequence source, Appendable out) {
+        if (out == null) {
+            throw new IllegalArgumentException("Output cannot be null");
+        }
+        return new MaskAppender(source, out);
+    }
+
+    /**
+     * 将 {@code [from, to)} 替换为等长的掩码字符
+     */
+    public void fill(int from, int to, char fill) {
+        if (from >= to) {
+            return;
+        }
+        try {
+            Appendable target = copyTo(from);
+            for (int i = from; i < to; i++) {
+                target.append(fill);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        copied = to;
+    }
+
+    /**
+     * 将 {@code [from, to)} 替换为指定内容，{@code from == to} 时为插入
+     */
+    public void replace(int from, int to, CharSequence replacement) {
+        try {
+            copyTo(from).append(replacement);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        copied = to;
+    }
+
+    /**
+     * 将 {@code [from, to)} 替换为固定数量的掩码字符
+     */
+    public void replace(int from, int to, char fill, int count) {
+        try {
+            Appendable target = copyTo(from);
+            for (int i = 0; i < count; i++) {
+                target.append(fill);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        copied = to;
+    }
+
+    /**
+     * 取得结果，未发生修改时返回源字符串本身
+     */
+    public String result() {
+        if (out == null) {
+            return source.toString();
+        }
+        finish();
+        return out.toString();
+    }
+
+    /**
+     * 写入剩余未修改的部分
+     */
+    public void finish() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.append(source, copied, source.length());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        copied = source.length();
+    }
+
+    private Appendable copyTo(int index) throws IOException {
+        if (out == null) {
+            out = new StringBuilder(source.length() + 8);
+        }
+        if (index > copied) {
+            out.append(source, copied, index);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,314 @@
+package io.github.dsr.mask.core.kernel;
+
+/**
+ * 基于字符扫描的脱敏内核
+ * <p>
+ * 内置策略不再使用正则：先扫描源字符串找到需要遮蔽的区间，第一次命中时才复制并填充掩码字符，
+ * 未命中时直接返回原字符串。扫描方法另有写入 {@link MaskAppender} 的版本，可以直接输出到调用方的缓冲区。
+ * 字符类与 {@link java.util.regex.Pattern} 的默认语义一致：
+ * {@code \w} 为 {@code [a-zA-Z_0-9]}，{@code \d} 为 {@code [0-9]}，{@code \b} 同时考虑组合字符
+ *
+ * @author haiji
+ */
+public final class MaskKernel {
+
+    /**
+     * 默认掩码字符
+     */
+    public static final char MASK_CHAR = '*';
+
+    private MaskKernel() {
+    }
+
+    /**
+     * 保留前后若干位，中间填充掩码字符，长度不变
+     *
+     * @param source 源字符串
+     * @param prefix 保留前几位
+     * @param suffix 保留后几位
+     * @param fill   掩码字符
+     * @return 脱敏后的字符串，长度不足 {@code prefix + suffix} 时原样返回
+     */
+    public static String keep(String source, int prefix, int suffix, char fill) {
+        if (prefix < 0 || suffix < 0) {
+            throw new IllegalArgumentException("prefix and suffix must not be negative: " + prefix + ", " + suffix);
+        }
+        if (source == null || source.length() < prefix + suffix) {
+            return source;
+        }
+        return fill(source, prefix, source.length() - suffix, fill);
+    }
+
+    /**
+     * 保留前后若干位，中间填充掩码字符，写入 {@link MaskAppender}
+     *
+     * @see #keep(String, int, int, char)
+     */
+    public static void keep(CharSequence source, int prefix, int suffix, char fill, MaskAppender out) {
+        if (prefix < 0 || suffix < 0) {
+            throw new IllegalArgumentException("prefix and suffix must not be negative: " + prefix + ", " + suffix);
+        }
+        if (source.length() >= prefix + suffix) {
+            out.fill(prefix, source.length() - suffix, fill);
+        }
+    }
+
+    /**
+     * 将 {@code [from, to)} 区间填充为掩码字符，长度不变
+     *
+     * @param source 源字符串
+     * @param from   起始位置（包含）
+     * @param to     结束位置（不包含）
+     * @param fill   掩码字符
+     * @return 脱敏后的字符串，区间为空时返回原字符串
+     */
+    public static String fill(String source, int from, int to, char fill) {
+        if (from >= to) {
+            return source;
+        }
+        return toString(fill(null, source, from, to, fill), source);
+    }
+
+    /**
+     * 在字符数组上填充区间，数组为 null 时先从源字符串复制
+     * <p>
+     * 扫描过程中只读源字符串，命中时才调用本方法，最后通过 {@link #toString(char[], String)} 取得结果
+     *
+     * @param chars  已复制的字符数组，尚未复制时为 null
+     * @param source 源字符串
+     * @param from   起始位置（包含）
+     * @param to     结束位置（不包含）
+     * @param fill   掩码字符
+     * @return 填充后的字符数组
+     */
+    public static char[] fill(char[] chars, String source, int from, int to, char fill) {
+        if (chars == null) {
+            chars = source.toCharArray();
+        }
+        for (int i = from; i < to; i++) {
+            chars[i] = fill;
+        }
+        return chars;
+    }
+
+    /**
+     * 取得扫描结果，未发生填充时返回源字符串本身
+     */
+    public static String toString(char[] chars, String source) {
+        return chars == null ? source : new String(chars);
+    }
+
+    /**
+     * 替换单词字符连续段：长度不少于 {@code prefix + suffix} 的段保留前后若干位，中间替换为固定数量的掩码字符
+     * <p>
+     * 等价于 {@code replaceAll("(\\w{prefix})\\w*(\\w{suffix})", "$1" + 掩码 + "$2")}
+     *
+     * @param source    源字符串
+     * @param prefix    保留前几位
+     * @param suffix    保留后几位
+     * @param maskCount 掩码字符数量
+     * @param fill      掩码字符
+     * @return 脱敏后的字符串，未命中时返回原字符串
+     */
+    public static String maskWordRuns(String source, int prefix, int suffix, int maskCount, char fill) {
+        MaskAppender out = MaskAppender.of(source);
+        maskWordRuns(source, prefix, suffix, maskCount, fill, out);
+        return out.result();
+    }
+
+    /**
+     * 替换单词字符连续段，写入 {@link MaskAppender}
+     *
+     * @see #maskWordRuns(String, int, int, int, char)
+     */
+    public static void maskWordRuns(CharSequence source, int prefix, int suffix, int maskCount, char fill,
+                                    MaskAppender out) {
+        int length = source.length();
+        int i = 0;
+        while (i < length) {
+            if (!isWordChar(source.charAt(i))) {
+                i++;
+                continue;
+            }
+            int end = wordRunEnd(source, i);
+            if (end - i >= prefix + suffix) {
+                out.replace(i + prefix, end - suffix, fill, maskCount);
+            }
+            i = end;
+        }
+    }
+
+    /**
+     * 遮蔽数字连续段的中间部分，长度不变
+     * <p>
+     * 等价于 {@code replaceAll("(?<=\\d{prefix})\\d(?=\\d{suffix})", "*")}
+     *
+     * @param source 源字符串
+     * @param prefix 保留前几位
+     * @param suffix 保留后几位
+     * @param fill   掩码字符
+     * @return 脱敏后的字符串，未命中时返回原字符串
+     */
+    public static String maskDigitRuns(String source, int prefix, int suffix, char fill) {
+        MaskAppender out = MaskAppender.of(source);
+        maskDigitRuns(source, prefix, suffix, fill, out);
+        return out.result();
+    }
+
+    /**
+     * 遮蔽数字连续段的中间部分，写入 {@link MaskAppender}
+     *
+     * @see #maskDigitRuns(String, int, int, char)
+     */
+    public static void maskDigitRuns(CharSequence source, int prefix, int suffix, char fill, MaskAppender out) {
+        int length = source.length();
+        int i = 0;
+        while (i < length) {
+            if (!isDigit(source.charAt(i))) {
+                i++;
+                continue;
+            }
+            int end = digitRunEnd(source, i);
+            if (end - i > prefix + suffix) {
+                out.fill(i + prefix, end - suffix, fill);
+            }
+            i = end;
+        }
+    }
+
+    /**
+     * 删除空白字符，与 {@code StringUtils.deleteWhitespace} 一致，没有空白时返回原字符串
+     */
+    public static String deleteWhitespace(String source) {
+        if (source == null || source.isEmpty()) {
+            return source;
+        }
+        int length = source.length();
+        int first = 0;
+        while (first < length && !Character.isWhitespace(source.charAt(first))) {
+            first++;
+        }
+        if (first == length) {
+            return source;
+        }
+
+        char[] chars = new char[length - 1];
+        source.getChars(0, first, chars, 0);
+        int count = first;
+        for (int i = first + 1; i < length; i++) {
+            char c = source.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                chars[count++] = c;
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * 删除空白字符，没有空白时返回原字符序列
+     */
+    public static CharSequence deleteWhitespace(CharSequence source) {
+        if (source instanceof String str) {
+            return deleteWhitespace(str);
+        }
+        if (source == null) {
+            return null;
+        }
+        for (int i = 0; i < source.length(); i++) {
+            if (Character.isWhitespace(source.charAt(i))) {
+                return deleteWhitespace(source.toString());
+            }
+        }
+        return source;
+    }
+
+    /**
+     * 是否为 {@code \w} 字符
+     */
+    public static boolean isWordChar(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    /**
+     * 是否为 {@code \d} 字符
+     */
+    public static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * {@code [from, to)} 区间是否全部为数字
+     */
+    public static boolean isDigits(CharSequence source, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!isDigit(source.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 从 {@code from} 开始的单词字符段的结束位置（不包含）
+     */
+    public static int wordRunEnd(CharSequence source, int from) {
+        int i = from;
+        while (i < source.length() && isWordChar(source.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 从 {@code from} 开始的数字段的结束位置（不包含）
+     */
+    public static int digitRunEnd(CharSequence source, int from) {
+        int i = from;
+        while (i < source.length() && isDigit(source.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * {@code index} 之前的字符在 {@code \b} 判断中是否视为单词字符
+     */
+    public static boolean isWordBefore(CharSequence source, int index) {
+        if (index <= 0) {
+            return false;
+        }
+        int c = Character.codePointBefore(source, index);
+        return isWordChar(c) || (isNonSpacingMark(c) && hasBaseCharacter(source, index - 1));
+    }
+
+    /**
+     * {@code index} 处的字符在 {@code \b} 判断中是否视为单词字符
+     */
+    public static boolean isWordAt(CharSequence source, int index) {
+        if (index >= source.length()) {
+            return false;
+        }
+        int c = Character.codePointAt(source, index);
+        return isWordChar(c) || (isNonSpacingMark(c) && hasBaseCharacter(source, index));
+    }
+
+    private static boolean isNonSpacingMark(int c) {
+        return c >= 0x80 && Character.getType(c) == Character.NON_SPACING_MARK;
+    }
+
+    /**
+     * 组合字符之前是否有字母或数字作为基础字符，与正则引擎的处理一致
+     */
+    private static boolean hasBaseCharacter(CharSequence source, int index) {
+        for (int i = index; i >= 0; i--) {
+            int c = Character.codePointAt(source, i);
+            if (Character.isLetterOrDigit(c)) {
+                return true;
+            }
+            if (!isNonSpacingMark(c)) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,197 @@
+package io.github.dsr.mask.core.kernel;
+
+/**
+ * 卡号与居民身份证号校验
+ * <p>
+ * 银行卡号使用 Luhn 校验；18 位居民身份证号使用 GB 11643 校验码并检查出生日期，15 位号码只检查出生日期。
+ * 除了按区间校验的方法外，还提供逐位累加的状态函数，扫描数字时顺带计算，不需要截取子串，也不需要回头再读一遍
+ *
+ * @author haiji
+ */
+public final class NumberChecksums {
+
+    /**
+     * GB 11643 前 17 位的加权因子
+     */
+    private static final int[] ID_WEIGHTS = {7, 9, 10, 5, 8, 4, 2, 1, 6, 3, 7, 9, 10, 5, 8, 4, 2};
+
+    /**
+     * 加权和模 11 对应的校验位
+     */
+    private static final String ID_CHECK_CHARS = "10X98765432";
+
+    private static final int[] DAYS_OF_MONTH = {31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    /**
+     * Luhn 累加的初始状态
+     */
+    public static final int LUHN_INIT = 0;
+
+    /**
+     * 身份证加权和的初始状态
+     */
+    public static final int ID_INIT = 0;
+
+    private NumberChecksums() {
+    }
+
+    /**
+     * Luhn 校验
+     *
+     * @param source 源字符序列
+     * @param from   起始位置（包含）
+     * @param to     结束位置（不包含）
+     * @return 区间全部为数字且通过校验
+     */
+    public static boolean isLuhnValid(CharSequence source, int from, int to) {
+        if (to - from < 2) {
+            return false;
+        }
+        int state = LUHN_INIT;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            if (!MaskKernel.isDigit(c)) {
+                return false;
+            }
+            state = luhnStep(state, i - from, c - '0');
+        }
+        return isLuhnValid(state, to - from);
+    }
+
+    /**
+     * Luhn 逐位累加
+     * <p>
+     * 从左往右扫描时还不知道总位数，因此同时计算"偶数位加倍"和"奇数位加倍"两种和（各自模 10），
+     * 结束时按总位数的奇偶选取。状态为 {@code 和1 + 10 * 和2}
+     *
+     * @param state 上一步的状态，第一位传入 {@link #LUHN_INIT}
+     * @param index 从 0 开始的位序
+     * @param digit 数字 0~9
+     * @return 新状态
+     */
+    public static int luhnStep(int state, int index, int digit) {
+        int doubled = digit < 5 ? digit * 2 : digit * 2 - 9;
+        int evenDoubled = state % 10;
+        int oddDoubled = state / 10;
+        if ((index & 1) == 0) {
+            evenDoubled += doubled;
+            oddDoubled += digit;
+        } else {
+            evenDoubled += digit;
+            oddDoubled += doubled;
+        }
+        return evenDoubled % 10 + oddDoubled % 10 * 10;
+    }
+
+    /**
+     * 根据累加状态判断 Luhn 校验是否通过
+     *
+     * @param state  全部数字累加后的状态
+     * @param length 总位数
+     * @return 是否通过
+     */
+    public static boolean isLuhnValid(int state, int length) {
+        // 最后一位不加倍，从右往左每隔一位加倍：总位数为偶数时加倍的是左起偶数位
+        return ((length & 1) == 0 ? state % 10 : state / 10) == 0;
+    }
+
+    /**
+     * 居民身份证号校验：18 位检查校验码和出生日期，15 位检查出生日期
+     *
+     * @param source 源字符序列
+     * @param from   起始位置（包含）
+     * @param to     结束位置（不包含）
+     * @return 是否为合法的身份证号
+     */
+    public static boolean isResidentIdValid(CharSequence source, int from, int to) {
+        int length = to - from;
+        if (length == 15) {
+            for (int i = from; i < to; i++) {
+                if (!MaskKernel.isDigit(source.charAt(i))) {
+                    return false;
+                }
+            }
+            return isShortIdBirthDate(source, from);
+        }
+        if (length != 18) {
+            return false;
+        }
+        int sum = ID_INIT;
+        for (int i = 0; i < 17; i++) {
+            char c = source.charAt(from + i);
+            if (!MaskKernel.isDigit(c)) {
+                return false;
+            }
+            sum = residentIdStep(sum, i, c - '0');
+        }
+        return isResidentIdValid(sum, source.charAt(from + 17)) && isIdBirthDate(source, from);
+    }
+
+    /**
+     * GB 11643 加权和逐位累加（模 11）
+     *
+     * @param sum   上一步的和，第一位传入 {@link #ID_INIT}
+     * @param index 从 0 开始的位序，只累加前 17 位
+     * @param digit 数字 0~9
+     * @return 新的和
+     */
+    public static int residentIdStep(int sum, int index, int digit) {
+        return index < ID_WEIGHTS.length ? (sum + digit * ID_WEIGHTS[index]) % 11 : sum;
+    }
+
+    /**
+     * 校验位是否与前 17 位的加权和一致
+     *
+     * @param sum   前 17 位的加权和
+     * @param check 第 18 位，{@code x} 不区分大小写
+     * @return 是否一致
+     */
+    public static boolean isResidentIdValid(int sum, char check) {
+        char expected = ID_CHECK_CHARS.charAt(sum);
+        return check == expected || (expected == 'X' && check == 'x');
+    }
+
+    /**
+     * 18 位身份证号第 7~14 位（{@code yyyyMMdd}）是否为合法日期，年份为 1900~2099
+     *
+     * @param source 源字符序列
+     * @param from   身份证号的起始位置
+     */
+    public static boolean isIdBirthDate(CharSequence source, int from) {
+        int year = digits(source, from + 6, 4);
+        return year >= 1900 && year <= 2099 && isDate(year, digits(source, from + 10, 2), digits(source, from + 12, 2));
+    }
+
+    /**
+     * 15 位身份证号第 7~12 位（{@code yyMMdd}，19xx 年）是否为合法日期
+     *
+     * @param source 源字符序列
+     * @param from   身份证号的起始位置
+     */
+    public static boolean isShortIdBirthDate(CharSequence source, int from) {
+        int year = digits(source, from + 6, 2);
+        return year >= 0 && isDate(1900 + year, digits(source, from + 8, 2), digits(source, from + 10, 2));
+    }
+
+    private static boolean isDate(int year, int month, int day) {
+        if (month < 1 || month > 12 || day < 1 || day > DAYS_OF_MONTH[month - 1]) {
+            return false;
+        }
+        return month != 2 || day != 29 || (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0));
+    }
+
+    /**
+     * 读取定长数字，含非数字时返回 -1
+     */
+    private static int digits(CharSequence source, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = source.charAt(i);
+            if (!MaskKernel.isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.dsr.mask.core.kernel;
+
+/**
+ * 自由文本脱敏前的快速过滤
+ * <p>
+ * 只查找 {@code @} 和连续 {@value #MIN_DIGIT_RUN} 位以上的数字，返回第一个候选位置，绝大多数日志消息在这里被直接排除。
+ * 启动时加入 {@code --add-modules jdk.incubator.vector} 且 CPU 支持足够宽的向量时使用 {@link VectorTextPrefilter}
+ * 按向量宽度成批比较字符，否则使用逐字符扫描。可通过 {@code -Ddsr.mask.vector=false} 关闭向量实现
+ *
+ * @author haiji
+ */
+final class TextPrefilter {
+
+    /**
+     * 最短的号码（手机号）位数
+     */
+    static final int MIN_DIGIT_RUN = 11;
+
+    /**
+     * 短于该长度的文本直接逐字符扫描，不值得复制到向量缓冲区
+     */
+    private static final int VECTOR_MIN_LENGTH = 64;
+
+    private static final boolean VECTOR = vectorAvailable();
+
+    private TextPrefilter() {
+    }
+
+    /**
+     * 查找第一个候选位置
+     *
+     * @param text 文本
+     * @return {@code @} 的位置或第 {@value #MIN_DIGIT_RUN} 位连续数字的位置，没有候选时返回 -1
+     */
+    static int firstCandidate(String text) {
+        if (VECTOR && text.length() >= VECTOR_MIN_LENGTH) {
+            return VectorTextPrefilter.firstCandidate(text);
+        }
+        return firstCandidate(text, 0, 0);
+    }
+
+    /**
+     * 逐字符查找候选位置
+     *
+     * @param text 文本
+     * @param from 起始位置
+     * @param run  {@code from} 之前已经连续出现的数字个数
+     * @return 候选位置，没有候选时返回 -1
+     */
+    static int firstCandidate(String text, int from, int run) {
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '@') {
+                return i;
+            }
+            if (MaskKernel.isDigit(c)) {
+                if (++run >= MIN_DIGIT_RUN) {
+                    return i;
+                }
+            } else {
+                run = 0;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 是否使用向量实现
+     */
+    static boolean isVectorized() {
+        return VECTOR;
+    }
+
+    private static boolean vectorAvailable() {
+        if (!Boolean.parseBoolean(System.getProperty("dsr.mask.vector", "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            return VectorTextPrefilter.isSupported();
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.dsr.mask.core.kernel;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link TextPrefilter} 的向量实现
+ * <p>
+ * 文本先复制到线程内复用的 {@code char[]}，每次比较一个向量宽度的字符，得到 {@code @} 和数字的位掩码：
+ * 两者都为空时整段跳过，数字全满时直接累加，只有部分命中时才按位统计连续数字。
+ * 只能在 {@code jdk.incubator.vector} 模块已加载时使用
+ *
+ * @author haiji
+ */
+final class VectorTextPrefilter {
+
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+    /**
+     * 少于 8 个通道时不比逐字符扫描快
+     */
+    private static final int MIN_LANES = 8;
+
+    /**
+     * 缓冲区超过该长度时不在线程内保留
+     */
+    private static final int MAX_CACHED_LENGTH = 8192;
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[256]);
+
+    private VectorTextPrefilter() {
+    }
+
+    static boolean isSupported() {
+        return SPECIES.length() >= MIN_LANES;
+    }
+
+    static int firstCandidate(String text) {
+        int length = text.length();
+        char[] chars = buffer(length);
+        text.getChars(0, length, chars, 0);
+
+        int lanes = SPECIES.length();
+        long full = lanes == Long.SIZE ? -1L : (1L << lanes) - 1;
+        int bound = SPECIES.loopBound(length);
+        int run = 0;
+        int i = 0;
+        for (; i < bound; i += lanes) {
+            ShortVector v = ShortVector.fromCharArray(SPECIES, chars, i);
+            long at = v.eq((short) '@').toLong();
+            long digits = v.sub((short) '0').compare(VectorOperators.UNSIGNED_LT, (short) 10).toLong();
+            if ((at | digits) == 0) {
+                run = 0;
+                continue;
+            }
+
+            // 第一个 @ 之前的数字段
+            int limit = at == 0 ? lanes : Long.numberOfTrailingZeros(at);
+            if (digits == full && limit == lanes) {
+                run += lanes;
+                if (run >= TextPrefilter.MIN_DIGIT_RUN) {
+                    return i + lanes - (run - TextPrefilter.MIN_DIGIT_RUN) - 1;
+                }
+                continue;
+            }
+            for (int j = 0; j < limit; j++) {
+                if ((digits >>> j & 1) == 0) {
+                    run = 0;
+                } else if (++run >= TextPrefilter.MIN_DIGIT_RUN) {
+                    return i + j;
+                }
+            }
+            if (at != 0) {
+                return i + limit;
+            }
+        }
+        return TextPrefilter.firstCandidate(text, i, run);
+    }
+
+    private static char[] buffer(int length) {
+        char[] chars = BUFFER.get();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+            if (chars.length <= MAX_CACHED_LENGTH) {
+                BUFFER.set(chars);
+            }
+        }
+        return chars;
+    }
+}
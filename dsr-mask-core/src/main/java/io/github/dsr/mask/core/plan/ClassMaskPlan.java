@@ -0,0 +1,278 @@
+package io.github.dsr.mask.core.plan;
+
+import io.github.dsr.mask.core.accessor.FieldAccessor;
+import io.github.dsr.mask.core.annotation.Mask;
+import io.github.dsr.mask.core.generated.GeneratedMasker;
+import io.github.dsr.mask.core.generated.GeneratedMaskers;
+import io.github.dsr.mask.core.registry.MaskStrategyRegistry;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InaccessibleObjectException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 类级别的脱敏计划
+ * <p>
+ * 每个类只编译一次并缓存在 {@link ClassValue} 中，类卸载时随之回收。
+ * 编译阶段完成字段过滤（static / synthetic）、{@code setAccessible}、{@link FieldAccessor}、
+ * 父类链以及 {@link FieldMaskPlan} 的构建，运行期只需顺序遍历。
+ * 存在编译期生成的 {@link GeneratedMasker} 时优先使用，反射字段只在被访问时才编译。
+ * 设置了字段名规则后，有未标注字段命中规则的类不使用生成的脱敏器，改用反射计划
+ *
+ * @author haiji
+ */
+public final class ClassMaskPlan {
+
+    private static final FieldMaskPlan[] NO_FIELDS = new FieldMaskPlan[0];
+
+    private static final ClassValue<ClassMaskPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected ClassMaskPlan computeValue(Class<?> type) {
+            return new ClassMaskPlan(type);
+        }
+    };
+
+    /**
+     * 未标注 {@code @Mask} 字段的字段名规则，只影响之后编译的计划
+     */
+    private static volatile KeyNameRules fieldNameRules = KeyNameRules.EMPTY;
+
+    private final Class<?> type;
+
+    private final String simpleName;
+
+    /**
+     * 父类计划，Object / 接口 / 基本类型为 null
+     */
+    private final ClassMaskPlan superPlan;
+
+    /**
+     * 编译期生成的脱敏器，不存在时为 null
+     */
+    private final GeneratedMasker<?> generatedMasker;
+
+    /**
+     * 本类声明的实例字段（不含父类），transient 字段通过 {@link FieldMaskPlan#isTransient()} 区分；
+     * 存在生成脱敏器时延迟编译
+     */
+    private volatile FieldMaskPlan[] fields;
+
+    /**
+     * 是否按 JDK 内部类处理（只输出标识，不展开字段）
+     */
+    private final boolean jdkInternal;
+
+    /**
+     * 本类及父类链上是否存在 {@code @Mask} 字段或命中字段名规则的字段
+     */
+    private final boolean masked;
+
+    private ClassMaskPlan(Class<?> type) {
+        this.type = type;
+        this.simpleName = type.getSimpleName();
+        this.jdkInternal = isJdkInternalClass(type);
+
+        Class<?> superclass = type.getSuperclass();
+        this.superPlan = superclass != null && superclass != Object.class ? of(superclass) : null;
+
+        boolean jdkPackage = isJdkPackage(type);
+        KeyNameRules nameRules = fieldNameRules;
+        GeneratedMasker<?> generated = jdkPackage ? null : GeneratedMaskers.find(type);
+        // 生成的脱敏器只包含注解字段，字段名规则命中其它字段时回退到反射计划
+        this.generatedMasker = generated != null && matchesFieldName(type, nameRules) ? null : generated;
+
+        boolean anyMasked = superPlan != null && superPlan.masked;
+        if (jdkPackage) {
+            this.fields = NO_FIELDS;
+        } else if (generatedMasker != null) {
+            anyMasked |= generatedMasker.hasMaskedFields();
+        } else {
+            this.fields = compileFields(type, nameRules);
+            for (FieldMaskPlan field : fields) {
+                anyMasked |= field.isMasked();
+            }
+        }
+        this.masked = anyMasked;
+    }
+
+    /**
+     * 获取类的脱敏计划（首次访问时编译）
+     *
+     * @param type 类
+     * @return 脱敏计划
+     */
+    public static ClassMaskPlan of(Class<?> type) {
+        return PLANS.get(type);
+    }
+
+    /**
+     * 设置字段名规则：之后编译的计划中，未标注 {@code @Mask} 的字符序列、整数和 {@code BigDecimal} 字段按字段名匹配策略。
+     * 计划编译后会一直缓存，需要在启动时、第一次脱敏之前设置
+     *
+     * @param rules 字段名规则，为 null 时清除
+     */
+    public static void setFieldNameRules(KeyNameRules rules) {
+        fieldNameRules = rules != null ? rules : KeyNameRules.EMPTY;
+    }
+
+    public static KeyNameRules getFieldNameRules() {
+        return fieldNameRules;
+    }
+
+    private static boolean matchesFieldName(Class<?> type, KeyNameRules nameRules) {
+        if (nameRules.isEmpty()) {
+            return false;
+        }
+        for (Field field : type.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()
+                    && !field.isAnnotationPresent(Mask.class)
+                    && FieldMaskPlan.nameBinding(field, nameRules) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static FieldMaskPlan[] compileFields(Class<?> type, KeyNameRules nameRules) {
+        Field[] declared = type.getDeclaredFields();
+        List<FieldMaskPlan> plans = new ArrayList<>(declared.length);
+        for (Field field : declared) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || field.isSynthetic()) {
+                continue;
+            }
+            FieldAccessor accessor;
+            try {
+                field.setAccessible(true);
+                accessor = FieldAccessor.of(field);
+            } catch (InaccessibleObjectException | SecurityException | IllegalAccessException e) {
+                // 模块未开放的字段无法读取，直接跳过
+                continue;
+            }
+            plans.add(new FieldMaskPlan(field, accessor, nameRules));
+        }
+        return plans.isEmpty() ? NO_FIELDS : plans.toArray(NO_FIELDS);
+    }
+
+    private static boolean isJdkPackage(Class<?> clazz) {
+        String name = clazz.getName();
+        return name.startsWith("java.")
+                || name.startsWith("javax.")
+                || name.startsWith("jdk.")
+                || name.startsWith("sun.")
+                || name.startsWith("com.sun.");
+    }
+
+    private static boolean isJdkInternalClass(Class<?> clazz) {
+        String pkg = clazz.getPackage() != null ? clazz.getPackage().getName() : "";
+        return pkg.startsWith("java.")
+                || pkg.startsWith("javax.")
+                || pkg.startsWith("jdk.")
+                || pkg.startsWith("sun.")
+                || clazz.getName().startsWith("com.sun.")
+                || clazz.getName().contains("$");
+    }
+
+    /**
+     * 校验本类及父类链上所有 {@code @Mask} 字段：策略已注册，且参数可以绑定
+     *
+     * @param registry 当前注册表
+     * @throws IllegalArgumentException 策略未注册或参数非法
+     */
+    public void validate(MaskStrategyRegistry registry) {
+        for (ClassMaskPlan plan = this; plan != null; plan = plan.superPlan) {
+            if (plan.generatedMasker != null) {
+                for (StrategyBinding binding : plan.generatedMasker.bindings()) {
+                    validate(binding, registry, plan.type.getName());
+                }
+                continue;
+            }
+            for (FieldMaskPlan field : plan.getFields()) {
+                if (field.isMasked()) {
+                    validate(field.getBinding(), registry, plan.type.getName() + "." + field.getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * 本类及父类链上所有 {@code @Mask} 字段的策略绑定
+     *
+     * @return 策略绑定，没有时为空列表
+     */
+    public List<StrategyBinding> getBindings() {
+        List<StrategyBinding> bindings = new ArrayList<>();
+        for (ClassMaskPlan plan = this; plan != null; plan = plan.superPlan) {
+            if (plan.generatedMasker != null) {
+                Collections.addAll(bindings, plan.generatedMasker.bindings());
+                continue;
+            }
+            for (FieldMaskPlan field : plan.getFields()) {
+                if (field.isMasked()) {
+                    bindings.add(field.getBinding());
+                }
+            }
+        }
+        return bindings;
+    }
+
+    private static void validate(StrategyBinding binding, MaskStrategyRegistry registry, String location) {
+        try {
+            binding.validate(registry);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(location + ": " + e.getMessage(), e);
+        }
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public String getSimpleName() {
+        return simpleName;
+    }
+
+    public ClassMaskPlan getSuperPlan() {
+        return superPlan;
+    }
+
+    public FieldMaskPlan[] getFields() {
+        FieldMaskPlan[] result = fields;
+        if (result == null) {
+            // 重复编译的结果相同，不需要加锁；只有存在生成脱敏器时才会延迟编译，此时没有字段命中字段名规则
+            result = compileFields(type, KeyNameRules.EMPTY);
+            fields = result;
+        }
+        return result;
+    }
+
+    /**
+     * 按名称查找本类声明的字段
+     *
+     * @param name 字段名
+     * @return 字段计划，不存在时返回 null
+     */
+    public FieldMaskPlan getField(String name) {
+        for (FieldMaskPlan field : getFields()) {
+            if (field.getName().equals(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    public GeneratedMasker<?> getGeneratedMasker() {
+        return generatedMasker;
+    }
+
+    public boolean isJdkInternal() {
+        return jdkInternal;
+    }
+
+    public boolean isMasked() {
+        return masked;
+    }
+}
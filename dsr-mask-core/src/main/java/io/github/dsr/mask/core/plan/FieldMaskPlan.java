@@ -0,0 +1,156 @@
+package io.github.dsr.mask.core.plan;
+
+import io.github.dsr.mask.core.accessor.FieldAccessor;
+import io.github.dsr.mask.core.annotation.Mask;
+import io.github.dsr.mask.core.registry.MaskStrategyRegistry;
+import io.github.dsr.mask.core.strategy.BoundMaskStrategy;
+import io.github.dsr.mask.core.strategy.MaskStrategy;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+
+/**
+ * 字段级别的脱敏计划
+ * <p>
+ * 字段的注解、参数以及 {@code name=} 字面量在编译计划时解析一次，
+ * 脱敏策略由 {@link StrategyBinding} 按注册表实例缓存；字段读写通过 {@link FieldAccessor} 完成。
+ * 未标注 {@link Mask} 的字段在设置了字段名规则（{@link ClassMaskPlan#setFieldNameRules}）时按字段名匹配策略
+ *
+ * @author haiji
+ */
+public final class FieldMaskPlan {
+
+    private final Field field;
+
+    private final FieldAccessor accessor;
+
+    private final String name;
+
+    private final boolean transientField;
+
+    /**
+     * 预渲染的 {@code name=}
+     */
+    private final String label;
+
+    /**
+     * 预渲染的 {@code , name=}
+     */
+    private final String separatedLabel;
+
+    /**
+     * 策略绑定，未标注 {@link Mask} 且没有匹配的字段名规则时为 null；注解的数组成员每次读取都会复制，这里只读取一次
+     */
+    private final StrategyBinding binding;
+
+    FieldMaskPlan(Field field, FieldAccessor accessor, KeyNameRules nameRules) {
+        this.field = field;
+        this.accessor = accessor;
+        this.name = field.getName();
+        this.transientField = Modifier.isTransient(field.getModifiers());
+        this.label = name + "=";
+        this.separatedLabel = ", " + label;
+
+        Mask mask = field.getAnnotation(Mask.class);
+        this.binding = mask != null ? new StrategyBinding(mask.strategy(), mask.args()) : nameBinding(field, nameRules);
+    }
+
+    /**
+     * 未标注 {@link Mask} 的字段按字段名匹配规则，只对字符序列、整数和 {@link BigDecimal} 字段生效
+     *
+     * @return 策略绑定，没有匹配的规则时返回 null
+     */
+    static StrategyBinding nameBinding(Field field, KeyNameRules nameRules) {
+        if (nameRules == null || nameRules.isEmpty() || !isNameMaskable(field.getType())) {
+            return null;
+        }
+        return nameRules.find(field.getName());
+    }
+
+    private static boolean isNameMaskable(Class<?> type) {
+        return CharSequence.class.isAssignableFrom(type)
+                || type == long.class || type == int.class || type == short.class || type == byte.class
+                || type == Long.class || type == Integer.class || type == Short.class || type == Byte.class
+                || type == BigDecimal.class;
+    }
+
+    /**
+     * 读取字段值，基本类型会装箱，不需要装箱时使用 {@link #getAccessor()} 的专用方法
+     */
+    public Object get(Object target) {
+        return accessor.get(target);
+    }
+
+    /**
+     * 写入字段值
+     */
+    public void set(Object target, Object value) {
+        accessor.set(target, value);
+    }
+
+    /**
+     * 获取当前注册表中对应的脱敏策略
+     *
+     * @param registry 当前注册表
+     * @return 脱敏策略，未标注 {@link Mask} 或未注册时返回 null
+     */
+    public MaskStrategy<Object, String, String> strategy(MaskStrategyRegistry registry) {
+        return binding != null ? binding.strategy(registry) : null;
+    }
+
+    /**
+     * 获取已绑定参数的脱敏器
+     *
+     * @param registry 当前注册表
+     * @return 脱敏器，未标注 {@link Mask} 或未注册时返回 null
+     * @throws IllegalArgumentException 注解参数非法
+     */
+    public BoundMaskStrategy<Object, String> masker(MaskStrategyRegistry registry) {
+        return binding != null ? binding.masker(registry) : null;
+    }
+
+    public boolean isMasked() {
+        return binding != null;
+    }
+
+    public boolean isTransient() {
+        return transientField;
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public FieldAccessor getAccessor() {
+        return accessor;
+    }
+
+    public FieldAccessor.ValueKind getValueKind() {
+        return accessor.getKind();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getSeparatedLabel() {
+        return separatedLabel;
+    }
+
+    public StrategyBinding getBinding() {
+        return binding;
+    }
+
+    public String getStrategyType() {
+        return binding != null ? binding.getStrategyType() : null;
+    }
+
+    public String[] getArgs() {
+        return binding != null ? binding.getArgs() : null;
+    }
+}
@@ -0,0 +1,454 @@
+package io.github.dsr.mask.core.plan;
+
+import io.github.dsr.mask.core.registry.MaskStrategyRegistry;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 按键名匹配的脱敏规则
+ * <p>
+ * 规则格式：{@code <键名模式>=<策略>[:参数1,参数2]}，一条规则可以用 {@code |} 分隔多个模式，
+ * 以 {@code *} 开头表示后缀匹配，以 {@code *} 结尾表示前缀匹配，如 {@code phone|mobile|tel=PHONE}、
+ * {@code *IdCard=ID_CAR}、{@code card*=BANK:4,4}。
+ * 匹配时忽略大小写以及 {@code _}、{@code -}，{@code user_phone}、{@code userPhone}、{@code USER-PHONE} 视为同一个键名。
+ * 精确匹配优先，其次是匹配字符最多的前缀或后缀规则，长度相同时后缀规则优先；同一个模式重复配置时以后出现的为准
+ * <p>
+ * 所有模式编译为两棵数组化的字典树（正向：精确和前缀模式，反向：后缀模式），
+ * 匹配时逐字符查表，不复制键名、不分配对象，可以在每条日志的每个 Map 条目上调用
+ *
+ * @author haiji
+ */
+public final class KeyNameRules {
+
+    public static final KeyNameRules EMPTY = new KeyNameRules(Map.of(), Trie.EMPTY, Trie.EMPTY, 0);
+
+    /**
+     * 配置的规则：键名模式（可能包含 {@code |}）-> 策略绑定，按配置顺序
+     */
+    private final Map<String, StrategyBinding> bindings;
+
+    /**
+     * 精确和前缀模式
+     */
+    private final Trie forward;
+
+    /**
+     * 后缀模式，按反转后的键名建树
+     */
+    private final Trie backward;
+
+    private final int size;
+
+    private KeyNameRules(Map<String, StrategyBinding> bindings, Trie forward, Trie backward, int size) {
+        this.bindings = bindings;
+        this.forward = forward;
+        this.backward = backward;
+        this.size = size;
+    }
+
+    /**
+     * 编译键名规则
+     *
+     * @param config 键名模式 -> 策略配置，按迭代顺序编译
+     * @return 规则
+     * @throws IllegalArgumentException 模式或策略配置为空，或使用了不支持的通配符
+     */
+    public static KeyNameRules of(Map<String, String> config) {
+        return of(config, null);
+    }
+
+    /**
+     * 编译键名规则，并按注册表绑定参数：已注册的策略参数非法时立即失败，
+     * 未注册的策略（可能稍后注册）留到 {@link #validate(MaskStrategyRegistry)} 严格校验
+     *
+     * @param config   键名模式 -> 策略配置，按迭代顺序编译
+     * @param registry 用于绑定参数的注册表，为 null 时只检查格式
+     * @return 规则
+     * @throws IllegalArgumentException 模式或策略配置为空，使用了不支持的通配符，或参数非法
+     */
+    public static KeyNameRules of(Map<String, String> config, MaskStrategyRegistry registry) {
+        if (config == null || config.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, StrategyBinding> bindings = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : config.entrySet()) {
+            StrategyBinding binding = binding(entry.getKey(), entry.getValue());
+            if (registry != null && binding.strategy(registry) != null) {
+                try {
+                    binding.masker(registry);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Key mask rule " + entry.getKey() + ": " + e.getMessage(), e);
+                }
+            }
+            bindings.put(entry.getKey(), binding);
+        }
+        return compile(bindings);
+    }
+
+    private static KeyNameRules compile(Map<String, StrategyBinding> bindings) {
+        Trie.Builder forward = new Trie.Builder();
+        Trie.Builder backward = new Trie.Builder();
+        int size = 0;
+        for (Map.Entry<String, StrategyBinding> entry : bindings.entrySet()) {
+            for (String pattern : entry.getKey().split("\\|")) {
+                add(pattern.trim(), entry.getValue(), forward, backward);
+                size++;
+            }
+        }
+        return new KeyNameRules(Collections.unmodifiableMap(bindings), forward.build(), backward.build(), size);
+    }
+
+    /**
+     * 解析单行配置，规则之间以 {@code ;} 或换行分隔，如 {@code phone|mobile=PHONE;*IdCard=ID_CAR}，
+     * 适用于日志框架的配置文件
+     *
+     * @param spec 规则配置
+     * @return 规则
+     * @throws IllegalArgumentException 某条规则缺少 {@code =} 或格式错误
+     */
+    public static KeyNameRules parse(String spec) {
+        return parse(spec, null);
+    }
+
+    /**
+     * 解析单行配置，并按注册表绑定参数，见 {@link #of(Map, MaskStrategyRegistry)}
+     *
+     * @param spec     规则配置
+     * @param registry 用于绑定参数的注册表，为 null 时只检查格式
+     * @return 规则
+     * @throws IllegalArgumentException 某条规则缺少 {@code =}、格式错误或参数非法
+     */
+    public static KeyNameRules parse(String spec, MaskStrategyRegistry registry) {
+        if (spec == null || spec.isBlank()) {
+            return EMPTY;
+        }
+        Map<String, String> config = new LinkedHashMap<>();
+        for (String rule : spec.split("[;\\r\\n]+")) {
+            rule = rule.trim();
+            if (rule.isEmpty()) {
+                continue;
+            }
+            int index = rule.indexOf('=');
+            if (index <= 0) {
+                throw new IllegalArgumentException("Invalid key mask rule: " + rule);
+            }
+            config.put(rule.substring(0, index).trim(), rule.substring(index + 1).trim());
+        }
+        return of(config, registry);
+    }
+
+    /**
+     * 合并两组规则，{@code other} 中的规则在后，同一个模式以 {@code other} 为准
+     *
+     * @param other     要合并的规则
+     * @param conflicts 接收冲突描述：同一个模式在两组规则中绑定了不同的策略或参数
+     * @return 合并后的规则
+     */
+    public KeyNameRules merge(KeyNameRules other, List<String> conflicts) {
+        if (other == null || other.isEmpty() || other == this) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+        Map<String, StrategyBinding> existing = new HashMap<>();
+        for (Map.Entry<String, StrategyBinding> entry : bindings.entrySet()) {
+            for (String pattern : entry.getKey().split("\\|")) {
+                existing.put(normalize(pattern.trim()), entry.getValue());
+            }
+        }
+        Map<String, StrategyBinding> merged = new LinkedHashMap<>(bindings);
+        for (Map.Entry<String, StrategyBinding> entry : other.bindings.entrySet()) {
+            StrategyBinding binding = entry.getValue();
+            for (String pattern : entry.getKey().split("\\|")) {
+                StrategyBinding previous = existing.get(normalize(pattern.trim()));
+                if (previous != null && !sameBinding(previous, binding)) {
+                    conflicts.add(pattern.trim() + ": " + describe(previous) + " -> " + describe(binding));
+                }
+            }
+            // 先移除再放入，保证 other 的规则排在后面
+            merged.remove(entry.getKey());
+            merged.put(entry.getKey(), binding);
+        }
+        return compile(merged);
+    }
+
+    private static boolean sameBinding(StrategyBinding a, StrategyBinding b) {
+        return a.getStrategyType().equals(b.getStrategyType()) && Arrays.equals(a.getArgs(), b.getArgs());
+    }
+
+    private static String describe(StrategyBinding binding) {
+        String[] args = binding.getArgs();
+        return args.length == 0 ? binding.getStrategyType() : binding.getStrategyType() + ":" + String.join(",", args);
+    }
+
+    private static StrategyBinding binding(String pattern, String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing strategy for key pattern: " + pattern);
+        }
+        int index = value.indexOf(':');
+        if (index < 0) {
+            return new StrategyBinding(value.trim(), null);
+        }
+        String[] args = value.substring(index + 1).split(",");
+        for (int i = 0; i < args.length; i++) {
+            args[i] = args[i].trim();
+        }
+        return new StrategyBinding(value.substring(0, index).trim(), args);
+    }
+
+    private static void add(String pattern, StrategyBinding binding, Trie.Builder forward, Trie.Builder backward) {
+        boolean suffix = pattern.startsWith("*");
+        boolean prefix = pattern.length() > 1 && pattern.endsWith("*");
+        String body = normalize(pattern.substring(suffix ? 1 : 0, pattern.length() - (prefix ? 1 : 0)));
+        if (body.isEmpty() || body.indexOf('*') >= 0 || (suffix && prefix)) {
+            throw new IllegalArgumentException("Unsupported key pattern: " + pattern);
+        }
+        if (suffix) {
+            backward.add(new StringBuilder(body).reverse(), binding, false);
+        } else {
+            forward.add(body, binding, prefix);
+        }
+    }
+
+    private static String normalize(String key) {
+        StringBuilder out = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (!isSeparator(c)) {
+                out.append(Character.toLowerCase(c));
+            }
+        }
+        return out.toString();
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '_' || c == '-';
+    }
+
+    /**
+     * 查找键名对应的策略
+     *
+     * @param key 键名
+     * @return 策略绑定，没有匹配的规则时返回 null
+     */
+    public StrategyBinding find(CharSequence key) {
+        if (key == null || size == 0) {
+            return null;
+        }
+        int length = key.length();
+
+        // 正向：精确匹配，以及沿途经过的前缀模式
+        StrategyBinding best = null;
+        int bestLength = 0;
+        int node = 0;
+        int matched = 0;
+        for (int i = 0; i < length && node >= 0; i++) {
+            char c = key.charAt(i);
+            if (isSeparator(c)) {
+                continue;
+            }
+            node = forward.child(node, Character.toLowerCase(c));
+            if (node >= 0) {
+                matched++;
+                if (forward.prefix[node] != null) {
+                    best = forward.prefix[node];
+                    bestLength = matched;
+                }
+            }
+        }
+        if (node >= 0 && forward.exact[node] != null) {
+            return forward.exact[node];
+        }
+
+        // 反向：后缀模式，长度不小于已匹配的前缀时优先
+        node = 0;
+        matched = 0;
+        for (int i = length - 1; i >= 0 && node >= 0; i--) {
+            char c = key.charAt(i);
+            if (isSeparator(c)) {
+                continue;
+            }
+            node = backward.child(node, Character.toLowerCase(c));
+            if (node >= 0) {
+                matched++;
+                if (backward.exact[node] != null && matched >= bestLength) {
+                    best = backward.exact[node];
+                    bestLength = matched;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 严格校验所有规则：策略必须已注册，且参数可以绑定。
+     * 用于启动时发现 {@code cardNo=BANK:x,4} 这类能解析、但运行期才会失败的配置
+     *
+     * @param registry 当前注册表
+     * @throws IllegalArgumentException 策略未注册或参数非法
+     */
+    public void validate(MaskStrategyRegistry registry) {
+        for (Map.Entry<String, StrategyBinding> entry : bindings.entrySet()) {
+            try {
+                entry.getValue().validate(registry);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Key mask rule " + entry.getKey() + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 配置的规则，键名模式（可能包含 {@code |}）-> 策略绑定，按配置顺序
+     */
+    public Map<String, StrategyBinding> getBindings() {
+        return bindings;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 模式数量（{@code |} 分隔的每个模式单独计数）
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 数组化的字典树：节点 {@code n} 的子节点按字符升序存放在
+     * {@code labels[offsets[n]] .. labels[offsets[n + 1] - 1]}，对应的节点编号在 {@code targets} 中
+     */
+    private static final class Trie {
+
+        static final Trie EMPTY = new Trie(new int[]{0, 0}, new char[0], new int[0],
+                new StrategyBinding[1], new StrategyBinding[1]);
+
+        final int[] offsets;
+
+        final char[] labels;
+
+        final int[] targets;
+
+        /**
+         * 在该节点结束的模式（正向树为精确模式，反向树为后缀模式）
+         */
+        final StrategyBinding[] exact;
+
+        /**
+         * 在该节点结束的前缀模式，只用于正向树
+         */
+        final StrategyBinding[] prefix;
+
+        private Trie(int[] offsets, char[] labels, int[] targets, StrategyBinding[] exact, StrategyBinding[] prefix) {
+            this.offsets = offsets;
+            this.labels = labels;
+            this.targets = targets;
+            this.exact = exact;
+            this.prefix = prefix;
+        }
+
+        /**
+         * @return 子节点编号，不存在时返回 -1
+         */
+        int child(int node, char c) {
+            int low = offsets[node];
+            int high = offsets[node + 1] - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char label = labels[mid];
+                if (label < c) {
+                    low = mid + 1;
+                } else if (label > c) {
+                    high = mid - 1;
+                } else {
+                    return targets[mid];
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * 构建期使用的链式节点，编译时按广度优先顺序展开为数组
+         */
+        static final class Builder {
+
+            private final Node root = new Node();
+
+            private int nodes = 1;
+
+            void add(CharSequence body, StrategyBinding binding, boolean prefix) {
+                Node node = root;
+                for (int i = 0; i < body.length(); i++) {
+                    Node next = node.children.get(body.charAt(i));
+                    if (next == null) {
+                        next = new Node();
+                        node.children.put(body.charAt(i), next);
+                        nodes++;
+                    }
+                    node = next;
+                }
+                if (prefix) {
+                    node.prefix = binding;
+                } else {
+                    node.exact = binding;
+                }
+            }
+
+            Trie build() {
+                if (nodes == 1 && root.exact == null && root.prefix == null) {
+                    return EMPTY;
+                }
+                int[] offsets = new int[nodes + 1];
+                char[] labels = new char[nodes - 1];
+                int[] targets = new int[nodes - 1];
+                StrategyBinding[] exact = new StrategyBinding[nodes];
+                StrategyBinding[] prefix = new StrategyBinding[nodes];
+
+                ArrayDeque<Node> queue = new ArrayDeque<>();
+                queue.add(root);
+                int index = 0;
+                int assigned = 1;
+                int edge = 0;
+                while (!queue.isEmpty()) {
+                    Node node = queue.poll();
+                    exact[index] = node.exact;
+                    prefix[index] = node.prefix;
+                    offsets[index] = edge;
+                    for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+                        labels[edge] = child.getKey();
+                        targets[edge] = assigned++;
+                        edge++;
+                        queue.add(child.getValue());
+                    }
+                    index++;
+                }
+                offsets[nodes] = edge;
+                return new Trie(offsets, labels, targets, exact, prefix);
+            }
+        }
+
+        private static final class Node {
+
+            final Map<Character, Node> children = new TreeMap<>();
+
+            StrategyBinding exact;
+
+            StrategyBinding prefix;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "KeyNameRules{patterns=" + size + ", nodes="
+                + (forward.exact.length + backward.exact.length) + '}';
+    }
+}
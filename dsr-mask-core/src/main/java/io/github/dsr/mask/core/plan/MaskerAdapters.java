@@ -0,0 +1,106 @@
+package io.github.dsr.mask.core.plan;
+
+import io.github.dsr.mask.core.strategy.BoundMaskStrategy;
+import io.github.dsr.mask.core.strategy.MaskStrategy;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+
+/**
+ * 按值类型选择脱敏器
+ * <p>
+ * 脱敏器本身实现了 {@link BoundMaskStrategy.OfLong} 等接口时直接使用；否则按策略声明的参数类型
+ * （{@code MaskStrategy<P, ?, ?>} 中的 {@code P}）转换原始值后调用通用接口，转换不了时返回 null
+ *
+ * @author haiji
+ */
+final class MaskerAdapters {
+
+    private MaskerAdapters() {
+    }
+
+    /**
+     * 策略声明的参数类型，无法确定时为 {@link Object}
+     */
+    static Class<?> inputType(MaskStrategy<?, ?, ?> strategy) {
+        for (Class<?> type = strategy.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Type generic : type.getGenericInterfaces()) {
+                if (generic instanceof ParameterizedType parameterized
+                        && parameterized.getRawType() == MaskStrategy.class) {
+                    Type argument = parameterized.getActualTypeArguments()[0];
+                    if (argument instanceof Class<?> clazz) {
+                        return clazz;
+                    }
+                    if (argument instanceof ParameterizedType parameterizedArgument
+                            && parameterizedArgument.getRawType() instanceof Class<?> raw) {
+                        return raw;
+                    }
+                    return Object.class;
+                }
+            }
+        }
+        return Object.class;
+    }
+
+    static BoundMaskStrategy.OfLong ofLong(BoundMaskStrategy<Object, String> masker, Class<?> inputType) {
+        if (masker instanceof BoundMaskStrategy.OfLong specialized) {
+            return specialized;
+        }
+        if (inputType.isAssignableFrom(Long.class)) {
+            return (value, out) -> masker.maskTo(value, out);
+        }
+        if (inputType == BigDecimal.class) {
+            return (value, out) -> masker.maskTo(BigDecimal.valueOf(value), out);
+        }
+        if (inputType.isAssignableFrom(String.class)) {
+            return (value, out) -> masker.maskTo(Long.toString(value), out);
+        }
+        return null;
+    }
+
+    static BoundMaskStrategy.OfInt ofInt(BoundMaskStrategy<Object, String> masker, Class<?> inputType) {
+        if (masker instanceof BoundMaskStrategy.OfInt specialized) {
+            return specialized;
+        }
+        if (inputType.isAssignableFrom(Integer.class)) {
+            return (value, out) -> masker.maskTo(value, out);
+        }
+        if (inputType == Long.class) {
+            return (value, out) -> masker.maskTo((long) value, out);
+        }
+        if (inputType == BigDecimal.class) {
+            return (value, out) -> masker.maskTo(BigDecimal.valueOf(value), out);
+        }
+        if (inputType.isAssignableFrom(String.class)) {
+            return (value, out) -> masker.maskTo(Integer.toString(value), out);
+        }
+        return null;
+    }
+
+    static BoundMaskStrategy.OfDecimal ofDecimal(BoundMaskStrategy<Object, String> masker, Class<?> inputType) {
+        if (masker instanceof BoundMaskStrategy.OfDecimal specialized) {
+            return specialized;
+        }
+        if (inputType.isAssignableFrom(BigDecimal.class)) {
+            return (value, out) -> masker.maskTo(value, out);
+        }
+        if (inputType.isAssignableFrom(String.class)) {
+            return (value, out) -> masker.maskTo(value != null ? value.toPlainString() : null, out);
+        }
+        return null;
+    }
+
+    static BoundMaskStrategy.OfText ofText(BoundMaskStrategy<Object, String> masker, Class<?> inputType) {
+        if (masker instanceof BoundMaskStrategy.OfText specialized) {
+            return specialized;
+        }
+        if (inputType.isAssignableFrom(CharSequence.class)) {
+            return (value, out) -> masker.maskTo(value, out);
+        }
+        if (inputType.isAssignableFrom(String.class)) {
+            return (value, out) -> masker.maskTo(value != null ? value.toString() : null, out);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,301 @@
+package io.github.dsr.mask.core.plan;
+
+import io.github.dsr.mask.core.cache.MaskResultCache;
+import io.github.dsr.mask.core.registry.MaskStrategyRegistry;
+import io.github.dsr.mask.core.registry.StrategyIds;
+import io.github.dsr.mask.core.registry.StrategySnapshot;
+import io.github.dsr.mask.core.strategy.BoundMaskStrategy;
+import io.github.dsr.mask.core.strategy.MaskStrategy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * {@code @Mask} 注解与脱敏策略的绑定
+ * <p>
+ * 保存策略类型与注解参数，创建时取得类型的整数编号（{@link StrategyIds}），策略找到后立即通过
+ * {@link MaskStrategy#bind(String[])} 绑定参数。结果按注册表实例与策略快照缓存，快照未变化时只比较引用；
+ * 快照变化时按编号从数组中取策略，策略实例不变则沿用已绑定的脱敏器，被替换时重新绑定。参数非法时缓存异常，
+ * 每次脱敏直接抛出，不会重复解析。策略声明 {@link MaskStrategy#cacheable()} 时脱敏器经过
+ * {@link MaskResultCache} 全局缓存。{@code long}、{@code int}、{@link BigDecimal} 与 {@link CharSequence}
+ * 有对应的专用脱敏器，不装箱也不先转换为字符串。反射计划 {@link FieldMaskPlan} 与编译期生成的脱敏器共用
+ *
+ * @author haiji
+ */
+public final class StrategyBinding {
+
+    private static final String[] NO_ARGS = new String[0];
+
+    private final String strategyType;
+
+    private final String[] args;
+
+    /**
+     * 策略类型的编号
+     */
+    private final int strategyId;
+
+    /**
+     * 最近一次解析的策略，按注册表实例失效
+     */
+    private volatile Resolution resolution;
+
+    /**
+     * @param strategyType 脱敏策略类型
+     * @param args         注解参数
+     */
+    public StrategyBinding(String strategyType, String[] args) {
+        if (strategyType == null) {
+            throw new IllegalArgumentException("Strategy type cannot be null");
+        }
+        this.strategyType = strategyType;
+        this.args = args == null || args.length == 0 ? NO_ARGS : args;
+        this.strategyId = StrategyIds.of(strategyType);
+    }
+
+    /**
+     * 获取当前注册表中对应的脱敏策略
+     *
+     * @param registry 当前注册表
+     * @return 脱敏策略，未注册时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public MaskStrategy<Object, String, String> strategy(MaskStrategyRegistry registry) {
+        return (MaskStrategy<Object, String, String>) resolve(registry).strategy;
+    }
+
+    /**
+     * 获取已绑定参数的脱敏器
+     *
+     * @param registry 当前注册表
+     * @return 脱敏器，策略未注册时返回 null
+     * @throws IllegalArgumentException 参数非法
+     */
+    public BoundMaskStrategy<Object, String> masker(MaskStrategyRegistry registry) {
+        return checked(registry).masker;
+    }
+
+    /**
+     * 获取 {@code long} 值的脱敏器
+     *
+     * @param registry 当前注册表
+     * @return 脱敏器，策略未注册或不接受数值时返回 null
+     * @throws IllegalArgumentException 参数非法
+     */
+    public BoundMaskStrategy.OfLong longMasker(MaskStrategyRegistry registry) {
+        return checked(registry).longMasker;
+    }
+
+    /**
+     * 获取 {@code int} 值的脱敏器
+     *
+     * @param registry 当前注册表
+     * @return 脱敏器，策略未注册或不接受数值时返回 null
+     * @throws IllegalArgumentException 参数非法
+     */
+    public BoundMaskStrategy.OfInt intMasker(MaskStrategyRegistry registry) {
+        return checked(registry).intMasker;
+    }
+
+    /**
+     * 获取 {@link BigDecimal} 值的脱敏器
+     *
+     * @param registry 当前注册表
+     * @return 脱敏器，策略未注册或不接受数值时返回 null
+     * @throws IllegalArgumentException 参数非法
+     */
+    public BoundMaskStrategy.OfDecimal decimalMasker(MaskStrategyRegistry registry) {
+        return checked(registry).decimalMasker;
+    }
+
+    /**
+     * 获取字符序列的脱敏器
+     *
+     * @param registry 当前注册表
+     * @return 脱敏器，策略未注册或不接受文本时返回 null
+     * @throws IllegalArgumentException 参数非法
+     */
+    public BoundMaskStrategy.OfText textMasker(MaskStrategyRegistry registry) {
+        return checked(registry).textMasker;
+    }
+
+    /**
+     * 按值的类型选择脱敏器并写入目标
+     * <p>
+     * 整数、{@link BigDecimal} 与非 String 的字符序列优先使用专用脱敏器，{@code short}、{@code byte} 按 {@code int} 处理；
+     * 值的类型与策略参数类型一致时使用通用脱敏器。否则按参数类型转换：字符串解析为 {@link BigDecimal}、
+     * {@code long} 或 {@code int}，其他数值转换为 {@link BigDecimal}，不会以错误的类型调用策略
+     *
+     * @param registry 当前注册表
+     * @param value    原始值
+     * @param out      输出目标
+     * @return 是否已输出，策略未注册时返回 false
+     * @throws IllegalArgumentException 参数非法，或值无法转换为策略接受的类型
+     */
+    public boolean maskTo(MaskStrategyRegistry registry, Object value, Appendable out) throws IOException {
+        Resolution current = checked(registry);
+        if (current.strategy == null) {
+            return false;
+        }
+        if (value instanceof Long number && current.longMasker != null) {
+            current.longMasker.maskTo(number, out);
+        } else if ((value instanceof Integer || value instanceof Short || value instanceof Byte)
+                && current.intMasker != null) {
+            current.intMasker.maskTo(((Number) value).intValue(), out);
+        } else if (value instanceof BigDecimal decimal && current.decimalMasker != null) {
+            current.decimalMasker.maskTo(decimal, out);
+        } else if (value instanceof CharSequence text && !(value instanceof String) && current.textMasker != null) {
+            current.textMasker.maskTo(text, out);
+        } else if (value == null || current.inputType.isInstance(value)) {
+            current.masker.maskTo(value, out);
+        } else if (value instanceof CharSequence text) {
+            maskParsed(current, text.toString().trim(), out);
+        } else if (value instanceof Number number && current.decimalMasker != null) {
+            current.decimalMasker.maskTo(new BigDecimal(number.toString()), out);
+        } else {
+            throw unsupported(value);
+        }
+        return true;
+    }
+
+    /**
+     * 按值的类型脱敏，规则同 {@link #maskTo(MaskStrategyRegistry, Object, Appendable)}
+     *
+     * @param registry 当前注册表
+     * @param value    原始值
+     * @return 脱敏结果，策略未注册时返回 null
+     * @throws IllegalArgumentException 参数非法，或值无法转换为策略接受的类型
+     */
+    public String mask(MaskStrategyRegistry registry, Object value) {
+        StringBuilder out = new StringBuilder(32);
+        try {
+            return maskTo(registry, value, out) ? out.toString() : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 策略不接受字符串时，按策略可接受的数值类型解析
+     */
+    private void maskParsed(Resolution current, String text, Appendable out) throws IOException {
+        try {
+            if (current.decimalMasker != null) {
+                current.decimalMasker.maskTo(new BigDecimal(text), out);
+            } else if (current.longMasker != null) {
+                current.longMasker.maskTo(Long.parseLong(text), out);
+            } else if (current.intMasker != null) {
+                current.intMasker.maskTo(Integer.parseInt(text), out);
+            } else {
+                throw unsupported(text);
+            }
+        } catch (NumberFormatException e) {
+            // 不在异常信息中带出原始值
+            throw new IllegalArgumentException("Value is not a number acceptable to mask strategy "
+                    + strategyType + " (" + current.inputType.getSimpleName() + ")");
+        }
+    }
+
+    private IllegalArgumentException unsupported(Object value) {
+        return new IllegalArgumentException("Mask strategy " + strategyType + " does not accept "
+                + value.getClass().getName());
+    }
+
+    /**
+     * 严格校验：策略必须已注册，且参数可以绑定
+     *
+     * @param registry 当前注册表
+     * @throws IllegalArgumentException 策略未注册或参数非法
+     */
+    public void validate(MaskStrategyRegistry registry) {
+        Resolution current = resolve(registry);
+        if (current.strategy == null) {
+            throw new IllegalArgumentException("Mask strategy not registered: " + strategyType);
+        }
+        if (current.error != null) {
+            throw current.error;
+        }
+    }
+
+    private Resolution checked(MaskStrategyRegistry registry) {
+        Resolution current = resolve(registry);
+        if (current.error != null) {
+            throw current.error;
+        }
+        return current;
+    }
+
+    private Resolution resolve(MaskStrategyRegistry registry) {
+        Resolution current = resolution;
+        StrategySnapshot snapshot = registry.snapshot();
+        if (current != null && current.registry == registry && current.snapshot == snapshot
+                && (current.strategy != null || snapshot != null)) {
+            return current;
+        }
+        // 注册表或快照被替换，或者不支持快照的注册表中策略尚未注册（可能稍后注册），重新解析
+        MaskStrategy strategy = snapshot != null ? snapshot.get(strategyId) : registry.get(strategyType);
+        if (current != null && current.registry == registry && current.strategy == strategy && strategy != null) {
+            current = current.withSnapshot(snapshot);
+        } else {
+            current = bind(registry, snapshot, strategy);
+        }
+        resolution = current;
+        return current;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Resolution bind(MaskStrategyRegistry registry, StrategySnapshot snapshot, MaskStrategy strategy) {
+        if (strategy == null) {
+            return new Resolution(registry, snapshot, null, Object.class, null, null, null, null, null, null);
+        }
+        try {
+            BoundMaskStrategy<Object, String> masker = strategy.bind(args);
+            Class<?> inputType = MaskerAdapters.inputType(strategy);
+            BoundMaskStrategy.OfLong longMasker = MaskerAdapters.ofLong(masker, inputType);
+            BoundMaskStrategy.OfInt intMasker = MaskerAdapters.ofInt(masker, inputType);
+            BoundMaskStrategy.OfDecimal decimalMasker = MaskerAdapters.ofDecimal(masker, inputType);
+            BoundMaskStrategy.OfText textMasker = MaskerAdapters.ofText(masker, inputType);
+            if (strategy.cacheable()) {
+                // 专用脱敏器分别加缓存，保留各自的接口
+                MaskResultCache cache = MaskResultCache.shared();
+                masker = cache.wrap(masker);
+                longMasker = cache.wrap(longMasker);
+                intMasker = cache.wrap(intMasker);
+                decimalMasker = cache.wrap(decimalMasker);
+                textMasker = cache.wrap(textMasker);
+            }
+            return new Resolution(registry, snapshot, strategy, inputType, masker, longMasker, intMasker,
+                    decimalMasker, textMasker, null);
+        } catch (RuntimeException e) {
+            IllegalArgumentException error = new IllegalArgumentException("Invalid args " + Arrays.toString(args)
+                    + " for mask strategy " + strategyType + ": " + e.getMessage(), e);
+            return new Resolution(registry, snapshot, strategy, Object.class, null, null, null, null, null, error);
+        }
+    }
+
+    public String getStrategyType() {
+        return strategyType;
+    }
+
+    public String[] getArgs() {
+        return args;
+    }
+
+    public int getStrategyId() {
+        return strategyId;
+    }
+
+    private record Resolution(MaskStrategyRegistry registry, StrategySnapshot snapshot, MaskStrategy strategy,
+                              Class<?> inputType, BoundMaskStrategy<Object, String> masker,
+                              BoundMaskStrategy.OfLong longMasker, BoundMaskStrategy.OfInt intMasker,
+                              BoundMaskStrategy.OfDecimal decimalMasker, BoundMaskStrategy.OfText textMasker,
+                              IllegalArgumentException error) {
+
+        Resolution withSnapshot(StrategySnapshot snapshot) {
+            return new Resolution(registry, snapshot, strategy, inputType, masker, longMasker, intMasker,
+                    decimalMasker, textMasker, error);
+        }
+    }
+}
@@ -20,4 +20,17 @@ public interface MaskStrategyRegistry {
      * @return 脱敏策略
      */
     MaskStrategy get(String type);
+
+    /**
+     * 获取当前策略快照
+     * <p>
+     * 支持快照的注册表在每次注册时整体替换快照，{@link io.github.dsr.mask.core.plan.StrategyBinding}
+     * 按编号从快照中取策略，并在快照变化时重新绑定。默认返回 null，表示按 {@link #get(String)} 查找，
+     * 策略找到后不再重新查找
+     *
+     * @return 策略快照，不支持时返回 null
+     */
+    default StrategySnapshot snapshot() {
+        return null;
+    }
 }
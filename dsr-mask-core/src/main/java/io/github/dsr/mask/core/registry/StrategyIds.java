@@ -0,0 +1,44 @@
+package io.github.dsr.mask.core.registry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 脱敏策略类型的整数编号
+ * <p>
+ * 每个类型名第一次出现时（构建字段计划或注册策略）分配一个从 0 开始的连续编号，进程内不变，
+ * {@link StrategySnapshot} 按编号以数组保存策略，查找时不再计算字符串哈希
+ *
+ * @author haiji
+ */
+public final class StrategyIds {
+
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger NEXT = new AtomicInteger();
+
+    private StrategyIds() {
+    }
+
+    /**
+     * 获取类型名对应的编号，没有时分配新编号
+     *
+     * @param type 策略类型名
+     * @return 编号
+     */
+    public static int of(String type) {
+        if (type == null) {
+            throw new IllegalArgumentException("Strategy type cannot be null");
+        }
+        Integer id = IDS.get(type);
+        return id != null ? id : IDS.computeIfAbsent(type, key -> NEXT.getAndIncrement());
+    }
+
+    /**
+     * 已分配的编号数量
+     */
+    public static int size() {
+        return NEXT.get();
+    }
+}
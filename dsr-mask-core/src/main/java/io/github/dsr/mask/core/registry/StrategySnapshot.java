@@ -0,0 +1,101 @@
+package io.github.dsr.mask.core.registry;
+
+import io.github.dsr.mask.core.strategy.MaskStrategy;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 某一时刻注册表中全部策略的不可变快照
+ * <p>
+ * 注册策略时复制出新快照整体替换，读取方拿到的快照不会再变化，不需要加锁。
+ * 策略按 {@link StrategyIds} 分配的编号保存在数组中，{@link #getVersion()} 每次注册递增，
+ * 调用方可以据此判断缓存的绑定结果是否过期
+ *
+ * @author haiji
+ */
+public final class StrategySnapshot {
+
+    /**
+     * 空快照
+     */
+    public static final StrategySnapshot EMPTY = new StrategySnapshot(new MaskStrategy[0], Collections.emptyMap(), 0);
+
+    /**
+     * 按编号索引的策略，未注册的位置为 null
+     */
+    private final MaskStrategy[] strategies;
+
+    private final Map<String, MaskStrategy> byType;
+
+    private final long version;
+
+    private StrategySnapshot(MaskStrategy[] strategies, Map<String, MaskStrategy> byType, long version) {
+        this.strategies = strategies;
+        this.byType = byType;
+        this.version = version;
+    }
+
+    /**
+     * 按编号获取策略
+     *
+     * @param id {@link StrategyIds#of(String)} 分配的编号
+     * @return 策略，未注册时返回 null
+     */
+    public MaskStrategy get(int id) {
+        MaskStrategy[] strategies = this.strategies;
+        return id >= 0 && id < strategies.length ? strategies[id] : null;
+    }
+
+    /**
+     * 按类型名获取策略
+     *
+     * @param type 策略类型名
+     * @return 策略，未注册时返回 null
+     */
+    public MaskStrategy get(String type) {
+        return byType.get(type);
+    }
+
+    /**
+     * 复制出包含新策略的快照，同类型的旧策略被替换
+     *
+     * @param strategy 脱敏策略
+     * @return 新快照
+     */
+    public StrategySnapshot with(MaskStrategy strategy) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("Strategy cannot be null");
+        }
+        String type = String.valueOf(strategy.strategy());
+        int id = StrategyIds.of(type);
+        MaskStrategy[] copy = Arrays.copyOf(strategies, Math.max(strategies.length, id + 1));
+        copy[id] = strategy;
+        Map<String, MaskStrategy> map = new HashMap<>(byType);
+        map.put(type, strategy);
+        return new StrategySnapshot(copy, Collections.unmodifiableMap(map), version + 1);
+    }
+
+    /**
+     * 快照版本，每次注册递增
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 类型名到策略的只读视图
+     */
+    public Map<String, MaskStrategy> asMap() {
+        return byType;
+    }
+
+    /**
+     * 已注册的策略数量
+     */
+    public int size() {
+        return byType.size();
+    }
+}
@@ -0,0 +1,169 @@
+package io.github.dsr.mask.core.strategy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+
+/**
+ * 已绑定参数的脱敏器
+ * <p>
+ * 由 {@link MaskStrategy#bind(String[])} 创建，参数在绑定时解析和校验，脱敏时只执行脱敏本身。
+ * 输出到缓冲区时调用 {@link #maskTo(Object, Appendable)}，实现可以直接写入，不生成中间字符串。
+ * <p>
+ * 字段为 {@code long}、{@code int}、{@link BigDecimal} 或非 String 的 {@link CharSequence} 时，
+ * 脱敏器可以同时实现 {@link OfLong}、{@link OfInt}、{@link OfDecimal}、{@link OfText}，直接处理原始值，
+ * 不装箱也不先转成字符串；未实现时由 {@code StrategyBinding} 按策略的参数类型转换后调用本接口
+ *
+ * @param <P> 原始数据类型
+ * @param <R> 脱敏结果类型
+ * @author haiji
+ */
+@FunctionalInterface
+public interface BoundMaskStrategy<P, R> {
+
+    /**
+     * 执行脱敏
+     *
+     * @param origin 原始数据
+     * @return 脱敏后的数据
+     */
+    R mask(P origin);
+
+    /**
+     * 脱敏并直接写入输出
+     * <p>
+     * 输出可能在写入时做转义（如 JSON 字符串），实现应通过 {@link Appendable} 的方法写入，不要自行转义。
+     * 默认实现写入 {@link #mask(Object)} 的结果，结果为 null 时写入 {@code null}
+     *
+     * @param origin 原始数据
+     * @param out    输出
+     * @throws IOException 写入失败
+     */
+    default void maskTo(P origin, Appendable out) throws IOException {
+        out.append(String.valueOf(mask(origin)));
+    }
+
+    /**
+     * {@code long} 值的脱敏器
+     */
+    interface OfLong {
+
+        /**
+         * 脱敏并直接写入输出
+         *
+         * @param value 原始值
+         * @param out   输出
+         * @throws IOException 写入失败
+         */
+        void maskTo(long value, Appendable out) throws IOException;
+
+        /**
+         * 执行脱敏
+         *
+         * @param value 原始值
+         * @return 脱敏后的字符串
+         */
+        default String mask(long value) {
+            StringBuilder out = new StringBuilder(24);
+            try {
+                maskTo(value, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toString();
+        }
+    }
+
+    /**
+     * {@code int} 值的脱敏器
+     */
+    interface OfInt {
+
+        /**
+         * 脱敏并直接写入输出
+         *
+         * @param value 原始值
+         * @param out   输出
+         * @throws IOException 写入失败
+         */
+        void maskTo(int value, Appendable out) throws IOException;
+
+        /**
+         * 执行脱敏
+         *
+         * @param value 原始值
+         * @return 脱敏后的字符串
+         */
+        default String mask(int value) {
+            StringBuilder out = new StringBuilder(16);
+            try {
+                maskTo(value, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toString();
+        }
+    }
+
+    /**
+     * {@link BigDecimal} 值的脱敏器
+     */
+    interface OfDecimal {
+
+        /**
+         * 脱敏并直接写入输出
+         *
+         * @param value 原始值，为 null 时写入 {@code null}
+         * @param out   输出
+         * @throws IOException 写入失败
+         */
+        void maskTo(BigDecimal value, Appendable out) throws IOException;
+
+        /**
+         * 执行脱敏
+         *
+         * @param value 原始值
+         * @return 脱敏后的字符串
+         */
+        default String mask(BigDecimal value) {
+            StringBuilder out = new StringBuilder(32);
+            try {
+                maskTo(value, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toString();
+        }
+    }
+
+    /**
+     * 字符序列的脱敏器
+     */
+    interface OfText {
+
+        /**
+         * 脱敏并直接写入输出
+         *
+         * @param value 原始值，为 null 时写入 {@code null}
+         * @param out   输出
+         * @throws IOException 写入失败
+         */
+        void maskTo(CharSequence value, Appendable out) throws IOException;
+
+        /**
+         * 执行脱敏
+         *
+         * @param value 原始值
+         * @return 脱敏后的字符串
+         */
+        default String mask(CharSequence value) {
+            StringBuilder out = new StringBuilder(value != null ? value.length() + 8 : 4);
+            try {
+                maskTo(value, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toString();
+        }
+    }
+}
@@ -23,4 +23,31 @@ public interface MaskStrategy<P, R1, R2> {
      *
      */
     R2 mask(P origin, String[] args);
+
+    /**
+     * 绑定参数，每个 {@code @Mask} 字段只调用一次
+     * <p>
+     * 需要解析参数的策略应覆盖本方法，在这里完成解析和校验，参数非法时抛出 {@link IllegalArgumentException}；
+     * 默认实现每次脱敏时把原始参数传给 {@link #mask(Object, String[])}
+     *
+     * @param args 注解参数
+     * @return 已绑定参数的脱敏器
+     */
+    default BoundMaskStrategy<P, R2> bind(String[] args) {
+        String[] bound = args != null ? args : new String[0];
+        return origin -> mask(origin, bound);
+    }
+
+    /**
+     * 脱敏结果是否可以缓存
+     * <p>
+     * 结果只取决于原始值和参数、且计算开销较大的策略（如格式化金额、HMAC、字典查询）可以返回 true，
+     * 绑定参数后的脱敏器会经过 {@link io.github.dsr.mask.core.cache.MaskResultCache} 全局缓存。
+     * 简单的字符替换直接计算更快，保持默认的 false
+     *
+     * @return 是否缓存
+     */
+    default boolean cacheable() {
+        return false;
+    }
 }
@@ -1,6 +1,8 @@
 package io.github.dsr.mask.core.strategy.builtin;
 
 import io.github.dsr.mask.core.constants.MaskConstants;
+import io.github.dsr.mask.core.kernel.MaskKernel;
+import io.github.dsr.mask.core.strategy.BoundMaskStrategy;
 import io.github.dsr.mask.core.strategy.MaskStrategy;
 import org.apache.commons.lang3.StringUtils;
 
@@ -9,7 +11,18 @@ import org.apache.commons.lang3.StringUtils;
  */
 public class AddressMaskStrategy implements MaskStrategy<String, String, String> {
 
-
+    private static final ScanMasker MASKER = new ScanMasker((address, out) -> {
+        if (StringUtils.isNotBlank(address)) {
+            int length = address.length();
+            if (length < 3) {
+                // 与原有实现保持一致：不足 3 位时在原值后追加等长的掩码
+                out.replace(length, length, MaskKernel.MASK_CHAR, length);
+            } else {
+                // 保留前 3 位，遮蔽第 4~11 位
+                out.fill(3, Math.min(length, 11), MaskKernel.MASK_CHAR);
+            }
+        }
+    });
 
     @Override
     public String strategy() {
@@ -18,13 +31,12 @@ public class AddressMaskStrategy implements MaskStrategy<String, String, String>
 
     @Override
     public String mask(String address, String[] args) {
-        if (StringUtils.isNotBlank(address)) {
-            return StringUtils.left(address, 3).
-                    concat(StringUtils.removeStart(
-                            StringUtils.leftPad(StringUtils.right(address, address.length()-11),
-                                    StringUtils.length(address), "*"), "***"));
-        }
-        return address;
+        return MASKER.mask(address);
+    }
+
+    @Override
+    public BoundMaskStrategy<String, String> bind(String[] args) {
+        return MASKER;
     }
 
 
@@ -0,0 +1,284 @@
+package io.github.dsr.mask.core.strategy.builtin;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 按 Locale 缓存的金额格式元数据
+ * <p>
+ * 从货币格式中提取货币符号、分组与小数分隔符、小数位数和舍入方式，
+ * 非负金额直接由 {@link BigDecimal} 的非标度值渲染数字，不再创建 {@link NumberFormat}。
+ * 只有货币符号在前、分隔符为 {@code ,} 与 {@code .} 的格式走快速路径，并在创建时与
+ * {@link NumberFormat} 的输出逐一比对，不一致时回退到原有的格式化方式
+ *
+ * @author haiji
+ */
+final class AmountFormat {
+
+    /**
+     * 分离货币符号和金额数值
+     */
+    static final Pattern SYMBOL_PATTERN = Pattern.compile("([^\\d.,-]+)?([\\d.,-]+)");
+
+    private static final Map<Locale, AmountFormat> CACHE = new ConcurrentHashMap<>();
+
+    private static final long[] POW10 = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    /**
+     * 创建时用于比对的金额
+     */
+    private static final BigDecimal[] PROBES = {
+            BigDecimal.ZERO, new BigDecimal("0.004"), new BigDecimal("0.005"), new BigDecimal("0.015"),
+            new BigDecimal("0.125"), BigDecimal.ONE, new BigDecimal("9.999"), new BigDecimal("12.5"),
+            new BigDecimal("999.995"), new BigDecimal("1000"), new BigDecimal("1E+3"), new BigDecimal("12345.678"),
+            new BigDecimal("1234567.891"), new BigDecimal("99999999999999999.995"),
+            new BigDecimal("123456789012345678901234567890.125")
+    };
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(32));
+
+    private static final ThreadLocal<char[]> DIGITS = ThreadLocal.withInitial(() -> new char[20]);
+
+    private final NumberFormat prototype;
+
+    private final boolean fast;
+
+    private final String symbol;
+
+    private final int fractionDigits;
+
+    /**
+     * 分组大小，不使用分组时为 0
+     */
+    private final int groupingSize;
+
+    private final char groupingSeparator;
+
+    private final char decimalSeparator;
+
+    private final RoundingMode roundingMode;
+
+    private AmountFormat(Locale locale) {
+        this.prototype = NumberFormat.getCurrencyInstance(locale);
+
+        boolean supported = false;
+        String prefix = "";
+        int fraction = 0;
+        int grouping = 0;
+        char groupingChar = ',';
+        char decimalChar = '.';
+        RoundingMode rounding = RoundingMode.HALF_EVEN;
+        if (prototype instanceof DecimalFormat df) {
+            DecimalFormatSymbols symbols = df.getDecimalFormatSymbols();
+            prefix = df.getPositivePrefix();
+            fraction = df.getMaximumFractionDigits();
+            grouping = df.isGroupingUsed() ? df.getGroupingSize() : 0;
+            groupingChar = symbols.getMonetaryGroupingSeparator();
+            decimalChar = symbols.getMonetaryDecimalSeparator();
+            rounding = df.getRoundingMode();
+            supported = df.getPositiveSuffix().isEmpty()
+                    && df.getMultiplier() == 1
+                    && df.getMinimumIntegerDigits() == 1
+                    && df.getMinimumFractionDigits() == fraction
+                    && fraction < POW10.length
+                    && symbols.getZeroDigit() == '0'
+                    && decimalChar == '.'
+                    && (grouping == 0 || groupingChar == ',');
+        }
+        this.symbol = prefix;
+        this.fractionDigits = fraction;
+        this.groupingSize = grouping;
+        this.groupingSeparator = groupingChar;
+        this.decimalSeparator = decimalChar;
+        this.roundingMode = rounding;
+        this.fast = supported && matchesNumberFormat();
+    }
+
+    /**
+     * 获取 Locale 对应的格式元数据
+     *
+     * @param locale 本地化设置，为 null 时返回 null
+     * @return 格式元数据
+     */
+    static AmountFormat of(Locale locale) {
+        return locale != null ? CACHE.computeIfAbsent(locale, AmountFormat::new) : null;
+    }
+
+    /**
+     * 复制一个货币格式，供不支持快速路径时使用（NumberFormat 非线程安全）
+     */
+    NumberFormat newNumberFormat(boolean keepDecimal) {
+        NumberFormat format = (NumberFormat) prototype.clone();
+        if (!keepDecimal) {
+            format.setMaximumFractionDigits(0);
+            format.setMinimumFractionDigits(0);
+        }
+        return format;
+    }
+
+    /**
+     * 金额与配置是否可以走快速路径
+     */
+    boolean supports(BigDecimal amount, AmountMaskStrategy.MaskConfig config) {
+        String maskChar = config.getMaskChar();
+        return fast
+                && amount.signum() >= 0
+                && maskChar != null && !maskChar.isEmpty()
+                && config.getStrategy() != null
+                && config.getKeepFirst() >= 0 && config.getKeepLast() >= 0 && config.getKeepBoth() >= 0;
+    }
+
+    /**
+     * 快速路径：格式化并脱敏，结果与 {@code NumberFormat} 格式化后再按策略脱敏一致
+     */
+    String mask(BigDecimal amount, AmountMaskStrategy.MaskConfig config) {
+        int scale = config.isKeepDecimal() ? fractionDigits : 0;
+        BigDecimal rounded = amount.setScale(scale, roundingMode);
+
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        if (config.isKeepSymbol()) {
+            out.append(symbol);
+        }
+        int start = out.length();
+        boolean exceedsThreshold = appendNumber(rounded, scale, config.getThreshold(), out);
+        int length = out.length() - start;
+
+        int head;
+        int tail;
+        switch (config.getStrategy()) {
+            case KEEP_FIRST -> {
+                head = config.getKeepFirst();
+                tail = 0;
+            }
+            case KEEP_LAST -> {
+                head = 0;
+                tail = config.getKeepLast();
+            }
+            case KEEP_BOTH_ENDS -> {
+                head = config.getKeepBoth();
+                tail = config.getKeepBoth();
+            }
+            case PERCENTAGE -> {
+                int keepCount = (int) (length * config.getPercentage());
+                head = Math.max(1, Math.min(keepCount, length - 1));
+                tail = 0;
+            }
+            case FULL_MASK -> {
+                head = 0;
+                tail = 0;
+            }
+            // 大金额保留前后各1位，小金额保留前2位
+            default -> {
+                head = exceedsThreshold ? 1 : 2;
+                tail = exceedsThreshold ? 1 : 0;
+            }
+        }
+
+        // 长度不超过保留位数时原样输出
+        if (length > head + tail) {
+            fill(out, start + head, start + length - tail, config.getMaskChar());
+        }
+        return out.toString();
+    }
+
+    /**
+     * 渲染数值部分（分组、小数位与 NumberFormat 一致）
+     *
+     * @return 金额是否大于阈值
+     */
+    private boolean appendNumber(BigDecimal rounded, int scale, int threshold, StringBuilder out) {
+        BigInteger unscaled = rounded.unscaledValue();
+        if (unscaled.bitLength() < 63) {
+            long value = unscaled.longValue();
+            char[] digits = DIGITS.get();
+            int pos = digits.length;
+            do {
+                digits[--pos] = (char) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            appendDigits(digits, pos, digits.length - pos, scale, out);
+
+            long unscaledValue = unscaled.longValue();
+            long integerPart = unscaledValue / POW10[scale];
+            return integerPart > threshold || (integerPart == threshold && unscaledValue % POW10[scale] != 0);
+        }
+
+        char[] digits = unscaled.toString().toCharArray();
+        appendDigits(digits, 0, digits.length, scale, out);
+        // 超出 long 范围的金额必然大于 int 阈值
+        return true;
+    }
+
+    private void appendDigits(char[] digits, int from, int count, int scale, StringBuilder out) {
+        int integerLength = count - scale;
+        if (integerLength <= 0) {
+            out.append('0');
+        } else {
+            for (int i = 0; i < integerLength; i++) {
+                if (groupingSize > 0 && i > 0 && (integerLength - i) % groupingSize == 0) {
+                    out.append(groupingSeparator);
+                }
+                out.append(digits[from + i]);
+            }
+        }
+
+        if (scale > 0) {
+            out.append(decimalSeparator);
+            for (int i = integerLength; i < 0; i++) {
+                out.append('0');
+            }
+            int fractionFrom = Math.max(integerLength, 0);
+            out.append(digits, from + fractionFrom, count - fractionFrom);
+        }
+    }
+
+    private static void fill(StringBuilder out, int from, int to, String maskChar) {
+        if (maskChar.length() == 1) {
+            char c = maskChar.charAt(0);
+            for (int i = from; i < to; i++) {
+                out.setCharAt(i, c);
+            }
+        } else {
+            out.replace(from, to, maskChar.repeat(to - from));
+        }
+    }
+
+    /**
+     * 与 NumberFormat 的格式化结果及符号拆分结果逐一比对
+     */
+    private boolean matchesNumberFormat() {
+        StringBuilder numeric = new StringBuilder();
+        for (boolean keepDecimal : new boolean[]{true, false}) {
+            NumberFormat format = newNumberFormat(keepDecimal);
+            int scale = keepDecimal ? fractionDigits : 0;
+            for (BigDecimal probe : PROBES) {
+                String expected = format.format(probe);
+                numeric.setLength(0);
+                appendNumber(probe.setScale(scale, roundingMode), scale, 0, numeric);
+                if (!expected.equals(symbol + numeric)) {
+                    return false;
+                }
+
+                Matcher matcher = SYMBOL_PATTERN.matcher(expected);
+                if (!matcher.find()
+                        || !symbol.equals(matcher.group(1) != null ? matcher.group(1) : "")
+                        || !numeric.toString().equals(matcher.group(2))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -2,18 +2,19 @@ package io.github.dsr.mask.core.strategy.builtin;
 
 import io.github.dsr.mask.core.constants.AmountEnum;
 import io.github.dsr.mask.core.constants.MaskConstants;
+import io.github.dsr.mask.core.strategy.BoundMaskStrategy;
 import io.github.dsr.mask.core.strategy.MaskStrategy;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 
 import java.math.BigDecimal;
 import java.text.NumberFormat;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 /**
  * 金额掩码工具类
@@ -28,37 +29,44 @@ public class AmountMaskStrategy implements MaskStrategy<BigDecimal, String, Stri
 
     @Override
     public String mask(BigDecimal amount, String[] args) {
-        if (amount == null) {
-            return null;
+        return bind(args).mask(amount);
+    }
+
+    /**
+     * 解析掩码参数，每个字段只解析一次
+     * <p>
+     * 参数格式：{策略编码, 掩码字符, 是否保留货币符号[, 保留百分比]}，其它情况使用默认智能掩码
+     */
+    @Override
+    public BoundMaskStrategy<BigDecimal, String> bind(String[] args) {
+        MaskConfig config = args != null && (args.length == 3 || args.length == 4)
+                ? parseConfig(args)
+                //默认智能掩码  输出: ¥12*****7.89
+                : DEFAULT_CONFIG;
+        return amount -> maskAmount(amount, config);
+    }
+
+    /**
+     * 同一金额在日志和响应中反复出现，格式化开销较大，结果缓存
+     */
+    @Override
+    public boolean cacheable() {
+        return true;
+    }
+
+    private static MaskConfig parseConfig(String[] args) {
+        AmountEnum strategy = AmountEnum.getByCode(args[0]);
+        if (strategy == null) {
+            throw new IllegalArgumentException("Unknown amount mask strategy code: " + args[0]);
         }
-        String result = null;
+        MaskConfig.Builder builder = MaskConfig.builder()
+                .strategy(strategy)
+                .maskChar(args[1])
+                .keepSymbol(Boolean.parseBoolean(args[2]));
         if (args.length == 4) {
-            String strategy = args[0];
-            String maskChar = args[1];
-            String keepSymbol = args[2];
-            String percentage = args[3];
-            result = maskAmount(amount,
-                    MaskConfig.builder()
-                            .strategy(AmountEnum.getByCode(strategy))
-                            .maskChar(maskChar)
-                            .keepSymbol(Boolean.parseBoolean(keepSymbol))
-                            .percentage(Double.parseDouble(percentage))
-                            .build());
-        }else if (args.length == 3){
-            String strategy = args[0];
-            String maskChar = args[1];
-            String keepSymbol = args[2];
-            result = maskAmount(amount,
-                    MaskConfig.builder()
-                            .strategy(AmountEnum.getByCode(strategy))
-                            .maskChar(maskChar)
-                            .keepSymbol(Boolean.parseBoolean(keepSymbol))
-                            .build());
-        }else {
-            //默认智能掩码  输出: ¥12*****7.89
-            result = maskAmount(amount);
+            builder.percentage(Double.parseDouble(args[3]));
         }
-        return result;
+        return builder.build();
     }
 
 
@@ -183,7 +191,22 @@ public class AmountMaskStrategy implements MaskStrategy<BigDecimal, String, Stri
     }
 
     // 默认配置
-    private final MaskConfig DEFAULT_CONFIG = MaskConfig.builder().build();
+    private static final MaskConfig DEFAULT_CONFIG = MaskConfig.builder().build();
+
+    /**
+     * 智能掩码中需要移除的字符
+     */
+    private static final Pattern NON_DECIMAL_PATTERN = Pattern.compile("[^\\d.]");
+
+    /**
+     * 解析字符串金额时需要移除的字符
+     */
+    private static final Pattern NON_AMOUNT_PATTERN = Pattern.compile("[^\\d.-]");
+
+    /**
+     * 字符串金额中的数字部分
+     */
+    private static final Pattern NUMERIC_PATTERN = Pattern.compile("(\\d[\\d.,]*)");
 
     /**
      * 金额掩码入口方法（使用默认配置）
@@ -199,10 +222,24 @@ public class AmountMaskStrategy implements MaskStrategy<BigDecimal, String, Stri
         if (amount == null) {
             return null;
         }
+        return maskAmount(amount, config, AmountFormat.of(config.getLocale()));
+    }
+
+    /**
+     * 金额掩码，Locale 元数据由调用方解析
+     */
+    private String maskAmount(BigDecimal amount, MaskConfig config, AmountFormat amountFormat) {
+        if (amount == null) {
+            return null;
+        }
+        // 快速路径：按缓存的格式元数据直接渲染
+        if (amountFormat != null && amountFormat.supports(amount, config)) {
+            return amountFormat.mask(amount, config);
+        }
 
         try {
             // 格式化金额
-            String formattedAmount = formatAmount(amount, config);
+            String formattedAmount = formatAmount(amount, config, amountFormat);
 
             // 应用掩码策略
             return applyMaskStrategy(formattedAmount, config);
@@ -233,7 +270,11 @@ public class AmountMaskStrategy implements MaskStrategy<BigDecimal, String, Stri
     /**
      * 格式化金额
      */
-    private String formatAmount(BigDecimal amount, MaskConfig config) {
+    private String formatAmount(BigDecimal amount, MaskConfig config, AmountFormat amountFormat) {
+        if (amountFormat != null) {
+            return amountFormat.newNumberFormat(config.isKeepDecimal()).format(amount);
+        }
+
         NumberFormat format = NumberFormat.getCurrencyInstance(config.getLocale());
 
         // 设置小数位数
@@ -256,9 +297,9 @@ public class AmountMaskStrategy implements MaskStrategy<BigDecimal, String, Stri
 
         // 根据策略进行掩码
         String maskedNumeric = switch (config.getStrategy()) {
-            case KEEP_FIRST -> maskKeepFirst(numericPart, config);
-            case KEEP_LAST -> maskKeepLast(numericPart, config);
-            case KEEP_BOTH_ENDS -> maskKeepBothEnds(numericPart, config);
+            case KEEP_FIRST -> maskKeepFirst(numericPart, config.getKeepFirst(), config.getMaskChar());
+            case KEEP_LAST -> maskKeepLast(numericPart, config.getKeepLast(), config.getMaskChar());
+            case KEEP_BOTH_ENDS -> maskKeepBothEnds(numericPart, config.getKeepBoth(), config.getMaskChar());
             case PERCENTAGE -> maskByPercentage(numericPart, config);
             case FULL_MASK -> maskFull(numericPart, config);
             case SMART_MASK -> smartMask(numericPart, config);
@@ -271,14 +312,13 @@ public class AmountMaskStrategy implements MaskStrategy<BigDecimal, String, Stri
     /**
      * 保留前n位掩码
      */
-    private String maskKeepFirst(String amount, MaskConfig config) {
-        if (amount.length() <= config.getKeepFirst()) {
+    private String maskKeepFirst(String amount, int keepFirst, String maskChar) {
+        if (amount.length() <= keepFirst) {
             return amount;
         }
 
-        String visiblePart = amount.substring(0, config.getKeepFirst());
-        String maskedPart = String.valueOf(config.getMaskChar())
-                .repeat(amount.length() - config.getKeepFirst());
+        String visiblePart = amount.substring(0, keepFirst);
+        String maskedPart = String.valueOf(maskChar).repeat(amount.length() - keepFirst);
 
         return visiblePart + maskedPart;
     }
@@ -286,14 +326,13 @@ public class AmountMaskStrategy implements MaskStrategy<BigDecimal, String, Stri
     /**
      * 保留后n位掩码
      */
-    private String maskKeepLast(String amount, MaskConfig config) {
-        if (amount.length() <= config.getKeepLast()) {
+    private String maskKeepLast(String amount, int keepLast, String maskChar) {
+        if (amount.length() <= keepLast) {
             return amount;
         }
 
-        String visiblePart = amount.substring(amount.length() - config.getKeepLast());
-        String maskedPart = String.valueOf(config.getMaskChar())
-                .repeat(amount.length() - config.getKeepLast());
+        String visiblePart = amount.substring(amount.length() - keepLast);
+        String maskedPart = String.valueOf(maskChar).repeat(amount.length() - keepLast);
 
         return maskedPart + visiblePart;
     }
@@ -301,8 +340,7 @@ public class AmountMaskStrategy implements MaskStrategy<BigDecimal, String, Stri
     /**
      * 保留前后各n位掩码
      */
-    private String maskKeepBothEnds(String amount, MaskConfig config) {
-        int keep = config.getKeepBoth();
+    private String maskKeepBothEnds(String amount, int keep, String maskChar) {
         if (amount.length() <= keep * 2) {
             return amount;
         }
@@ -310,7 +348,7 @@ public class AmountMaskStrategy implements MaskStrategy<BigDecimal, String, Stri
         String firstPart = amount.substring(0, keep);
         String lastPart = amount.substring(amount.length() - keep);
         int maskLength = amount.length() - keep * 2;
-        String maskedPart = String.valueOf(config.getMaskChar()).repeat(maskLength);
+        String maskedPart = String.valueOf(maskChar).repeat(maskLength);
 
         return firstPart + maskedPart + lastPart;
     }
@@ -322,11 +360,7 @@ public class AmountMaskStrategy implements MaskStrategy<BigDecimal, String, Stri
         int keepCount = (int) (amount.length() * config.getPercentage());
         keepCount = Math.max(1, Math.min(keepCount, amount.length() - 1));
 
-        return maskKeepFirst(amount,
-                MaskConfig.builder()
-                        .keepFirst(keepCount)
-                        .maskChar(config.getMaskChar())
-                        .build());
+        return maskKeepFirst(amount, keepCount, config.getMaskChar());
     }
 
     /**
@@ -341,7 +375,7 @@ public class AmountMaskStrategy implements MaskStrategy<BigDecimal, String, Stri
      */
     private String smartMask(String amount, MaskConfig config) {
         // 移除非数字字符（如千位分隔符）
-        String cleanAmount = amount.replaceAll("[^\\d.]", "");
+        String cleanAmount = NON_DECIMAL_PATTERN.matcher(amount).replaceAll("");
 
         try {
             BigDecimal num = new BigDecimal(cleanAmount);
@@ -349,22 +383,14 @@ public class AmountMaskStrategy implements MaskStrategy<BigDecimal, String, Stri
             // 根据金额大小选择不同的掩码策略
             if (num.abs().compareTo(BigDecimal.valueOf(config.getThreshold())) > 0) {
                 // 大金额：保留前后各1位
-                return maskKeepBothEnds(amount,
-                        MaskConfig.builder()
-                                .keepBoth(1)
-                                .maskChar(config.getMaskChar())
-                                .build());
+                return maskKeepBothEnds(amount, 1, config.getMaskChar());
             } else {
                 // 小金额：保留前2位
-                return maskKeepFirst(amount,
-                        MaskConfig.builder()
-                                .keepFirst(2)
-                                .maskChar(config.getMaskChar())
-                                .build());
+                return maskKeepFirst(amount, 2, config.getMaskChar());
             }
         } catch (Exception e) {
             // 解析失败，使用保守策略
-            return maskKeepBothEnds(amount, config);
+            return maskKeepBothEnds(amount, config.getKeepBoth(), config.getMaskChar());
         }
     }
 
@@ -373,8 +399,7 @@ public class AmountMaskStrategy implements MaskStrategy<BigDecimal, String, Stri
      */
     private String[] splitAmountAndSymbol(String amount, Locale locale) {
         // 匹配货币符号
-        Pattern pattern = Pattern.compile("([^\\d.,-]+)?([\\d.,-]+)");
-        Matcher matcher = pattern.matcher(amount);
+        Matcher matcher = AmountFormat.SYMBOL_PATTERN.matcher(amount);
 
         if (matcher.find()) {
             String symbol = matcher.group(1) != null ? matcher.group(1) : "";
@@ -391,7 +416,7 @@ public class AmountMaskStrategy implements MaskStrategy<BigDecimal, String, Stri
     private BigDecimal parseAmount(String amountStr, Locale locale) {
         try {
             // 移除货币符号和千位分隔符
-            String cleanStr = amountStr.replaceAll("[^\\d.-]", "");
+            String cleanStr = NON_AMOUNT_PATTERN.matcher(amountStr).replaceAll("");
             // 处理本地化小数点（如欧洲的逗号）
             if (locale != null && !Locale.US.equals(locale)) {
                 cleanStr = cleanStr.replace(',', '.');
@@ -407,8 +432,7 @@ public class AmountMaskStrategy implements MaskStrategy<BigDecimal, String, Stri
      */
     private String maskStringAmount(String amountStr, MaskConfig config) {
         // 尝试识别数字部分
-        Pattern pattern = Pattern.compile("(\\d[\\d.,]*)");
-        Matcher matcher = pattern.matcher(amountStr);
+        Matcher matcher = NUMERIC_PATTERN.matcher(amountStr);
 
         if (matcher.find()) {
             String numericPart = matcher.group(1);
@@ -428,9 +452,13 @@ public class AmountMaskStrategy implements MaskStrategy<BigDecimal, String, Stri
             return Collections.emptyList();
         }
 
-        return amounts.stream()
-                .map(amount -> maskAmount(amount, config))
-                .collect(Collectors.toList());
+        // Locale 元数据只解析一次，逐个走快速路径
+        AmountFormat amountFormat = AmountFormat.of(config.getLocale());
+        List<String> result = new ArrayList<>(amounts.size());
+        for (BigDecimal amount : amounts) {
+            result.add(maskAmount(amount, config, amountFormat));
+        }
+        return result;
     }
 
     /**
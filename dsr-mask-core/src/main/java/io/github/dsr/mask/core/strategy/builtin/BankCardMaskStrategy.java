@@ -2,10 +2,18 @@ package io.github.dsr.mask.core.strategy.builtin;
 
 import io.github.dsr.mask.core.constants.MaskConstants;
 import io.github.dsr.mask.core.strategy.MaskStrategy;
-import org.apache.commons.lang3.StringUtils;
+import io.github.dsr.mask.core.kernel.MaskKernel;
+import io.github.dsr.mask.core.strategy.BoundMaskStrategy;
 
 public class BankCardMaskStrategy implements MaskStrategy<String, String, String> {
 
+    /**
+     * 保留前6位和后4位，中间用*代替；长度不足时原样返回，不去除空白
+     */
+    private static final ScanMasker DEFAULT_MASKER = new ScanMasker(
+            cardNumber -> isTooShort(cardNumber) ? cardNumber : MaskKernel.deleteWhitespace(cardNumber),
+            (cardNumber, out) -> MaskKernel.maskDigitRuns(cardNumber, 6, 4, MaskKernel.MASK_CHAR, out));
+
     @Override
     public String strategy() {
         return MaskConstants.BANK;
@@ -18,44 +26,37 @@ public class BankCardMaskStrategy implements MaskStrategy<String, String, String
      */
     @Override
     public String mask(String cardNumber, String[] args) {
-        if (cardNumber == null || cardNumber.length() < 10) {
-            return cardNumber; // 长度不足，直接返回
-        }
-        //可自定义显示位数
-        if (args.length >= 2) {
-            return maskCardNumber(cardNumber, Integer.parseInt(args[0]), Integer.parseInt(args[1]));
-        }else {
-            // 保留前6位和后4位，中间用*代替
-            return  StringUtils.deleteWhitespace (cardNumber).replaceAll("(?<=\\d{6})\\d(?=\\d{4})", "*");
-        }
-
+        return bind(args).mask(cardNumber);
     }
 
-
-
     /**
-     * 银行卡号掩码 - 可自定义显示位数
-     * @param cardNumber 银行卡号
-     * @param prefixLength 显示前几位
-     * @param suffixLength 显示后几位
-     * @return 掩码后的卡号
+     * 解析自定义显示位数，每个字段只解析一次
+     * @param args 为空时保留前6位和后4位，否则为 {显示前几位, 显示后几位}
+     * @return 已绑定参数的脱敏器
      */
-    private static String maskCardNumber(String cardNumber, int prefixLength, int suffixLength) {
-        if (cardNumber == null || cardNumber.length() < prefixLength + suffixLength) {
-            return cardNumber;
+    @Override
+    public BoundMaskStrategy<String, String> bind(String[] args) {
+        //可自定义显示位数
+        if (args != null && args.length >= 2) {
+            int prefixLength = Integer.parseInt(args[0].trim());
+            int suffixLength = Integer.parseInt(args[1].trim());
+            if (prefixLength < 0 || suffixLength < 0) {
+                throw new IllegalArgumentException("prefix and suffix must not be negative");
+            }
+            return new ScanMasker((cardNumber, out) -> {
+                if (!isTooShort(cardNumber)) {
+                    MaskKernel.keep(cardNumber, prefixLength, suffixLength, MaskKernel.MASK_CHAR, out);
+                }
+            });
         }
+        return DEFAULT_MASKER;
+    }
 
-        int maskLength = cardNumber.length() - prefixLength - suffixLength;
-
-        // 添加前几位
-
-        return cardNumber.substring(0, prefixLength) +
-
-                // 添加掩码
-                "*".repeat(Math.max(0, maskLength)) +
-
-                // 添加后几位
-                cardNumber.substring(cardNumber.length() - suffixLength);
+    /**
+     * 长度不足，直接返回
+     */
+    private static boolean isTooShort(CharSequence cardNumber) {
+        return cardNumber == null || cardNumber.length() < 10;
     }
 
 
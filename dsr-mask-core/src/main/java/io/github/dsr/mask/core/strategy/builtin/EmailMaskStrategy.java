@@ -1,17 +1,23 @@
 package io.github.dsr.mask.core.strategy.builtin;
 
 import io.github.dsr.mask.core.constants.MaskConstants;
+import io.github.dsr.mask.core.kernel.MaskAppender;
+import io.github.dsr.mask.core.kernel.MaskKernel;
+import io.github.dsr.mask.core.strategy.BoundMaskStrategy;
 import io.github.dsr.mask.core.strategy.MaskStrategy;
 
-import java.util.regex.Pattern;
-
 /**
+ * 邮箱脱敏：{@code zhangsan@qq.com -> zh****@qq.com}
+ * <p>
+ * {@code @} 前至少 3 位单词字符时保留前 2 位，其余替换为 4 个掩码字符
+ *
  * @author haiji
  */
 public class EmailMaskStrategy implements MaskStrategy<String, String, String>{
 
-    private static final Pattern PATTERN =
-            Pattern.compile("(\\w{2})\\w+(@\\w+)");
+    private static final String MASK = "****";
+
+    private static final ScanMasker MASKER = new ScanMasker(EmailMaskStrategy::scan);
 
     @Override
     public String strategy() {
@@ -20,7 +26,30 @@ public class EmailMaskStrategy implements MaskStrategy<String, String, String>{
 
     @Override
     public String mask(String origin, String[] args) {
-        return PATTERN.matcher(origin).replaceAll("$1****$2");
+        return MASKER.mask(origin);
+    }
+
+    @Override
+    public BoundMaskStrategy<String, String> bind(String[] args) {
+        return MASKER;
+    }
+
+    private static void scan(CharSequence origin, MaskAppender out) {
+        int length = origin.length();
+        int i = 0;
+        while (i < length) {
+            if (!MaskKernel.isWordChar(origin.charAt(i))) {
+                i++;
+                continue;
+            }
+            int end = MaskKernel.wordRunEnd(origin, i);
+            if (end - i >= 3 && end + 1 < length && origin.charAt(end) == '@'
+                    && MaskKernel.isWordChar(origin.charAt(end + 1))) {
+                out.replace(i + 2, end, MASK);
+                end = MaskKernel.wordRunEnd(origin, end + 1);
+            }
+            i = end;
+        }
     }
 
 
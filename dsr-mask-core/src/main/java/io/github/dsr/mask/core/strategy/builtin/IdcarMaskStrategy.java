@@ -1,14 +1,27 @@
 package io.github.dsr.mask.core.strategy.builtin;
 
 import io.github.dsr.mask.core.constants.MaskConstants;
+import io.github.dsr.mask.core.kernel.MaskKernel;
+import io.github.dsr.mask.core.strategy.BoundMaskStrategy;
 import io.github.dsr.mask.core.strategy.MaskStrategy;
 import org.apache.commons.lang3.StringUtils;
 
 /**
+ * 身份证号脱敏：保留前 6 位和后 3 位，15 位号码中间替换为 6 个掩码字符，18 位替换为 9 个
+ *
  * @author haiji
  */
 public class IdcarMaskStrategy implements MaskStrategy<String, String, String>{
 
+    private static final ScanMasker MASKER = new ScanMasker((idNumber, out) -> {
+        if (StringUtils.isNotBlank(idNumber)) {
+            if (idNumber.length() == MaskConstants.ID_CAR_LENGTH_15){
+                MaskKernel.maskWordRuns(idNumber, 6, 3, 6, MaskKernel.MASK_CHAR, out);
+            } else if (idNumber.length() == MaskConstants.ID_CAR_LENGTH_18){
+                MaskKernel.maskWordRuns(idNumber, 6, 3, 9, MaskKernel.MASK_CHAR, out);
+            }
+        }
+    });
 
     @Override
     public String strategy() {
@@ -17,15 +30,12 @@ public class IdcarMaskStrategy implements MaskStrategy<String, String, String>{
 
     @Override
     public String mask(String idNumber, String[] args) {
-        if (StringUtils.isNotBlank(idNumber)) {
-            if (idNumber.length() == MaskConstants.ID_CAR_LENGTH_15){
-                idNumber = idNumber.replaceAll("(\\w{6})\\w*(\\w{3})", "$1******$2");
-            }
-            if (idNumber.length() == MaskConstants.ID_CAR_LENGTH_18){
-                idNumber = idNumber.replaceAll("(\\w{6})\\w*(\\w{3})", "$1*********$2");
-            }
-        }
-        return idNumber;
+        return MASKER.mask(idNumber);
+    }
+
+    @Override
+    public BoundMaskStrategy<String, String> bind(String[] args) {
+        return MASKER;
     }
 
 
@@ -1,6 +1,8 @@
 package io.github.dsr.mask.core.strategy.builtin;
 
 import io.github.dsr.mask.core.constants.MaskConstants;
+import io.github.dsr.mask.core.kernel.MaskKernel;
+import io.github.dsr.mask.core.strategy.BoundMaskStrategy;
 import io.github.dsr.mask.core.strategy.MaskStrategy;
 import org.apache.commons.lang3.StringUtils;
 
@@ -9,7 +11,12 @@ import org.apache.commons.lang3.StringUtils;
  */
 public class NameMaskStrategy implements MaskStrategy<String, String, String> {
 
-
+    private static final ScanMasker MASKER = new ScanMasker((fullName, out) -> {
+        if (StringUtils.isNotBlank(fullName)) {
+            // 保留姓，其余位置填充掩码字符
+            out.fill(1, fullName.length(), MaskKernel.MASK_CHAR);
+        }
+    });
 
     @Override
     public String strategy() {
@@ -18,11 +25,12 @@ public class NameMaskStrategy implements MaskStrategy<String, String, String> {
 
     @Override
     public String mask(String fullName, String[] args) {
-        if (StringUtils.isNotBlank(fullName)) {
-            String name = StringUtils.left(fullName, 1);
-            return StringUtils.rightPad(name, StringUtils.length(fullName), "*");
-        }
-        return fullName;
+        return MASKER.mask(fullName);
+    }
+
+    @Override
+    public BoundMaskStrategy<String, String> bind(String[] args) {
+        return MASKER;
     }
 
 
@@ -1,18 +1,23 @@
 package io.github.dsr.mask.core.strategy.builtin;
 
 import io.github.dsr.mask.core.constants.MaskConstants;
+import io.github.dsr.mask.core.kernel.MaskAppender;
+import io.github.dsr.mask.core.kernel.MaskKernel;
+import io.github.dsr.mask.core.strategy.BoundMaskStrategy;
 import io.github.dsr.mask.core.strategy.MaskStrategy;
-import org.apache.commons.lang3.StringUtils;
-
-import java.util.regex.Pattern;
 
 /**
+ * 手机号脱敏：{@code 13812345678 -> 138****5678}
+ * <p>
+ * 去除空白后，遮蔽独立出现（前后不是单词字符）的 11 位 1 开头号码的第 4~7 位
+ *
  * @author haiji
  */
 public class PhoneMaskStrategy implements MaskStrategy<String, String, String> {
 
+    private static final int PHONE_LENGTH = 11;
 
-    private static final Pattern PATTERN =  Pattern.compile("(\\b1\\d{2})\\d{4}(\\d{4}\\b)");
+    private static final ScanMasker MASKER = new ScanMasker(MaskKernel::deleteWhitespace, PhoneMaskStrategy::scan);
 
     @Override
     public String strategy() {
@@ -21,6 +26,26 @@ public class PhoneMaskStrategy implements MaskStrategy<String, String, String> {
 
     @Override
     public String mask(String origin, String[] args) {
-        return PATTERN.matcher(StringUtils.deleteWhitespace (origin)).replaceAll("$1****$2");
+        return MASKER.mask(origin);
+    }
+
+    @Override
+    public BoundMaskStrategy<String, String> bind(String[] args) {
+        return MASKER;
+    }
+
+    private static void scan(CharSequence phone, MaskAppender out) {
+        int i = 0;
+        while (i + PHONE_LENGTH <= phone.length()) {
+            if (phone.charAt(i) == '1'
+                    && !MaskKernel.isWordBefore(phone, i)
+                    && MaskKernel.isDigits(phone, i + 1, i + PHONE_LENGTH)
+                    && !MaskKernel.isWordAt(phone, i + PHONE_LENGTH)) {
+                out.fill(i + 3, i + 7, MaskKernel.MASK_CHAR);
+                i += PHONE_LENGTH;
+            } else {
+                i++;
+            }
+        }
     }
 }
@@ -0,0 +1,164 @@
+package io.github.dsr.mask.core.strategy.builtin;
+
+import io.github.dsr.mask.core.kernel.MaskAppender;
+import io.github.dsr.mask.core.strategy.BoundMaskStrategy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * 基于扫描的文本脱敏器
+ * <p>
+ * 同一段扫描逻辑既可以生成新字符串（未命中时返回原值），也可以直接写入调用方的输出。
+ * {@code long}、{@code int} 和 {@link BigDecimal} 先在线程内缓冲区中渲染为数字再扫描，
+ * 不装箱，也不生成中间字符串。原始值为 null 时返回 null
+ *
+ * @author haiji
+ */
+final class ScanMasker implements BoundMaskStrategy<String, String>, BoundMaskStrategy.OfText,
+        BoundMaskStrategy.OfLong, BoundMaskStrategy.OfInt, BoundMaskStrategy.OfDecimal {
+
+    /**
+     * 扫描源字符序列，把修改写入 {@link MaskAppender}
+     */
+    @FunctionalInterface
+    interface Scan {
+
+        void scan(CharSequence source, MaskAppender out);
+    }
+
+    /**
+     * 数值渲染缓冲区，扫描期间不会重入
+     */
+    private static final ThreadLocal<StringBuilder> DIGITS = ThreadLocal.withInitial(() -> new StringBuilder(40));
+
+    /**
+     * 扫描前的预处理（如去除空白），不需要时为 null
+     */
+    private final UnaryOperator<CharSequence> normalizer;
+
+    private final Scan scan;
+
+    ScanMasker(Scan scan) {
+        this(null, scan);
+    }
+
+    ScanMasker(UnaryOperator<CharSequence> normalizer, Scan scan) {
+        this.normalizer = normalizer;
+        this.scan = scan;
+    }
+
+    @Override
+    public String mask(String origin) {
+        return mask((CharSequence) origin);
+    }
+
+    @Override
+    public String mask(CharSequence origin) {
+        if (origin == null) {
+            return null;
+        }
+        CharSequence source = normalize(origin);
+        MaskAppender out = MaskAppender.of(source);
+        scan.scan(source, out);
+        return out.result();
+    }
+
+    @Override
+    public String mask(long value) {
+        return mask(digits().append(value));
+    }
+
+    @Override
+    public String mask(int value) {
+        return mask(digits().append(value));
+    }
+
+    @Override
+    public String mask(BigDecimal value) {
+        return value == null ? null : mask(appendPlain(value, digits()));
+    }
+
+    @Override
+    public void maskTo(String origin, Appendable out) throws IOException {
+        maskTo((CharSequence) origin, out);
+    }
+
+    @Override
+    public void maskTo(CharSequence origin, Appendable out) throws IOException {
+        if (origin == null) {
+            out.append("null");
+            return;
+        }
+        CharSequence source = normalize(origin);
+        try {
+            MaskAppender appender = MaskAppender.to(source, out);
+            scan.scan(source, appender);
+            appender.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public void maskTo(long value, Appendable out) throws IOException {
+        maskTo(digits().append(value), out);
+    }
+
+    @Override
+    public void maskTo(int value, Appendable out) throws IOException {
+        maskTo(digits().append(value), out);
+    }
+
+    @Override
+    public void maskTo(BigDecimal value, Appendable out) throws IOException {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        maskTo(appendPlain(value, digits()), out);
+    }
+
+    private static StringBuilder digits() {
+        StringBuilder digits = DIGITS.get();
+        digits.setLength(0);
+        return digits;
+    }
+
+    private CharSequence normalize(CharSequence origin) {
+        return normalizer != null ? normalizer.apply(origin) : origin;
+    }
+
+    /**
+     * 按 {@link BigDecimal#toPlainString()} 的格式渲染，非标度值在 long 范围内时不生成字符串
+     */
+    private static StringBuilder appendPlain(BigDecimal value, StringBuilder out) {
+        BigInteger unscaled = value.unscaledValue();
+        int scale = value.scale();
+        if (unscaled.bitLength() >= 63 || scale < 0) {
+            return out.append(value.toPlainString());
+        }
+        long digits = unscaled.longValue();
+        if (digits < 0) {
+            out.append('-');
+            digits = -digits;
+        }
+        int start = out.length();
+        out.append(digits);
+        if (scale > 0) {
+            int integerLength = out.length() - start - scale;
+            if (integerLength <= 0) {
+                out.insert(start, "0.");
+                for (int i = integerLength; i < 0; i++) {
+                    out.insert(start + 2, '0');
+                }
+            } else {
+                out.insert(start + integerLength, '.');
+            }
+        }
+        return out;
+    }
+}
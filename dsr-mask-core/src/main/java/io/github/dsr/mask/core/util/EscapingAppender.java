@@ -0,0 +1,101 @@
+package io.github.dsr.mask.core.util;
+
+/**
+ * 写入时转义的输出，规则与 {@link ObjectMasker} 输出字符串时一致；
+ * JSON 模式下按 JSON 规范转义，包括所有控制字符
+ * <p>
+ * 脱敏器通过 {@code maskTo} 直接写入，脱敏和转义一次完成，不生成中间字符串。
+ * 每个线程复用一个实例，写入前通过 {@link #target(StringBuilder)} 指定目标缓冲区
+ *
+ * @author haiji
+ */
+final class EscapingAppender implements Appendable {
+
+    /**
+     * JSON 模式下控制字符的转义
+     */
+    private static final String[] JSON_CONTROL = new String[0x20];
+
+    static {
+        for (int i = 0; i < JSON_CONTROL.length; i++) {
+            JSON_CONTROL[i] = String.format("\\u%04x", i);
+        }
+        JSON_CONTROL['\b'] = "\\b";
+        JSON_CONTROL['\f'] = "\\f";
+        JSON_CONTROL['\n'] = "\\n";
+        JSON_CONTROL['\r'] = "\\r";
+        JSON_CONTROL['\t'] = "\\t";
+    }
+
+    private final boolean json;
+
+    private StringBuilder out;
+
+    EscapingAppender() {
+        this(false);
+    }
+
+    EscapingAppender(boolean json) {
+        this.json = json;
+    }
+
+    EscapingAppender target(StringBuilder out) {
+        this.out = out;
+        return this;
+    }
+
+    private String replacement(char c) {
+        return json ? escapeJson(c) : escape(c);
+    }
+
+    @Override
+    public EscapingAppender append(CharSequence csq) {
+        return csq == null ? append("null", 0, 4) : append(csq, 0, csq.length());
+    }
+
+    @Override
+    public EscapingAppender append(CharSequence csq, int start, int end) {
+        if (csq == null) {
+            return append("null", start, end);
+        }
+        int from = start;
+        for (int i = start; i < end; i++) {
+            String replacement = replacement(csq.charAt(i));
+            if (replacement != null) {
+                out.append(csq, from, i).append(replacement);
+                from = i + 1;
+            }
+        }
+        out.append(csq, from, end);
+        return this;
+    }
+
+    @Override
+    public EscapingAppender append(char c) {
+        String replacement = replacement(c);
+        if (replacement != null) {
+            out.append(replacement);
+        } else {
+            out.append(c);
+        }
+        return this;
+    }
+
+    static String escape(char c) {
+        return switch (c) {
+            case '\\' -> "\\\\";
+            case '"' -> "\\\"";
+            case '\n' -> "\\n";
+            case '\r' -> "\\r";
+            case '\t' -> "\\t";
+            default -> null;
+        };
+    }
+
+    static String escapeJson(char c) {
+        if (c < 0x20) {
+            return JSON_CONTROL[c];
+        }
+        return c == '\\' || c == '"' ? escape(c) : null;
+    }
+}
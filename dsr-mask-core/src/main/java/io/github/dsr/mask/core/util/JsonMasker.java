@@ -0,0 +1,306 @@
+package io.github.dsr.mask.core.util;
+
+import io.github.dsr.mask.core.plan.ClassMaskPlan;
+import io.github.dsr.mask.core.plan.FieldMaskPlan;
+import io.github.dsr.mask.core.plan.KeyNameRules;
+import io.github.dsr.mask.core.plan.StrategyBinding;
+import io.github.dsr.mask.core.registry.MaskStrategyRegistry;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 脱敏并输出 JSON
+ * <p>
+ * 遍历和脱敏规则与 {@link ObjectMasker} 相同：{@code @Mask} 字段按策略脱敏，Map 的值按键名规则脱敏，
+ * 循环引用不展开，也支持 {@link ObjectMasker#snapshot(Object)} 生成的快照。输出为 JSON：
+ * 普通对象输出为对象，集合和数组输出为数组，数字和布尔值不加引号，脱敏结果、枚举和 JDK 类型（日期、UUID 等）
+ * 输出为字符串。一次遍历直接写入缓冲区，不生成中间字符串。
+ * 普通对象统一按字段计划输出，不使用编译期生成的脱敏器（其输出格式不是 JSON）
+ *
+ * @author haiji
+ */
+public final class JsonMasker {
+
+    private static final ThreadLocal<JsonContext> CONTEXT = ThreadLocal.withInitial(JsonContext::new);
+
+    private JsonMasker() {
+    }
+
+    public static String toJson(Object obj) {
+        StringBuilder out = new StringBuilder();
+        writeTo(obj, out);
+        return out.toString();
+    }
+
+    /**
+     * 脱敏并以 JSON 追加到缓冲区
+     *
+     * @param obj 要处理的对象
+     * @param out 输出缓冲区
+     */
+    public static void writeTo(Object obj, StringBuilder out) {
+        JsonContext context = CONTEXT.get();
+        try {
+            write(obj, out, context);
+        } finally {
+            context.visited.clear();
+        }
+    }
+
+    /**
+     * 输出一个 JSON 字段 {@code "name":value}，值按键名规则（{@link MaskStrategies#setKeyRules}）脱敏，
+     * 没有命中规则时按 {@link #writeTo(Object, StringBuilder)} 输出
+     *
+     * @param name  字段名，同时作为键名规则的匹配键
+     * @param value 值
+     * @param out   输出缓冲区
+     */
+    public static void writeField(String name, Object value, StringBuilder out) {
+        JsonContext context = CONTEXT.get();
+        try {
+            writeEntry(name, value, MaskStrategies.getKeyRules(), out, context);
+        } finally {
+            context.visited.clear();
+        }
+    }
+
+    /**
+     * 以 JSON 字符串追加，null 输出为 {@code null}
+     *
+     * @param text 文本
+     * @param out  输出缓冲区
+     */
+    public static void writeString(CharSequence text, StringBuilder out) {
+        if (text == null) {
+            out.append("null");
+            return;
+        }
+        appendQuoted(text, out, CONTEXT.get());
+    }
+
+    private static void write(Object obj, StringBuilder out, JsonContext context) {
+        if (obj == null) {
+            out.append("null");
+            return;
+        }
+        if (obj instanceof CharSequence text) {
+            appendQuoted(text, out, context);
+            return;
+        }
+        if (obj instanceof Boolean || obj instanceof Integer || obj instanceof Long || obj instanceof Short
+                || obj instanceof Byte || obj instanceof BigInteger) {
+            out.append(obj);
+            return;
+        }
+        if (obj instanceof BigDecimal decimal) {
+            out.append(decimal.toString());
+            return;
+        }
+        if (obj instanceof Double || obj instanceof Float) {
+            double value = ((Number) obj).doubleValue();
+            if (Double.isFinite(value)) {
+                out.append(obj);
+            } else {
+                // NaN 和无穷大不是合法的 JSON 数字
+                out.append('"').append(obj).append('"');
+            }
+            return;
+        }
+        if (obj instanceof Character || obj instanceof Enum<?>) {
+            appendQuoted(obj instanceof Enum<?> constant ? constant.name() : obj.toString(), out, context);
+            return;
+        }
+
+        Set<Object> visited = context.visited;
+        if (!visited.add(obj)) {
+            out.append("\"[circular reference: ");
+            if (obj instanceof ObjectSnapshot snapshot) {
+                snapshot.appendIdentifier(out);
+            } else {
+                out.append(obj.getClass().getSimpleName()).append('@').append(System.identityHashCode(obj));
+            }
+            out.append("]\"");
+            return;
+        }
+        try {
+            if (obj instanceof ObjectSnapshot snapshot) {
+                writeSnapshot(snapshot, out, context);
+            } else if (obj instanceof Collection<?> collection) {
+                writeElements(collection.toArray(), out, context);
+            } else if (obj instanceof Map<?, ?> map) {
+                writeMap(map, out, context);
+            } else if (obj.getClass().isArray()) {
+                writeArray(obj, out, context);
+            } else {
+                writeRegularObject(obj, out, context);
+            }
+        } finally {
+            visited.remove(obj);
+        }
+    }
+
+    private static void appendQuoted(CharSequence text, StringBuilder out, JsonContext context) {
+        out.append('"');
+        context.escaping.target(out).append(text);
+        out.append('"');
+    }
+
+    private static void writeElements(Object[] items, StringBuilder out, JsonContext context) {
+        out.append('[');
+        for (int i = 0; i < items.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            write(items[i], out, context);
+        }
+        out.append(']');
+    }
+
+    private static void writeArray(Object array, StringBuilder out, JsonContext context) {
+        out.append('[');
+        int length = Array.getLength(array);
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            write(Array.get(array, i), out, context);
+        }
+        out.append(']');
+    }
+
+    private static void writeMap(Map<?, ?> map, StringBuilder out, JsonContext context) {
+        KeyNameRules rules = MaskStrategies.getKeyRules();
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!first) {
+                out.append(',');
+            }
+            writeEntry(entry.getKey(), entry.getValue(), rules, out, context);
+            first = false;
+        }
+        out.append('}');
+    }
+
+    /**
+     * 输出 Map 条目，字符串以外的键按 {@link ObjectMasker} 的格式转为字段名
+     */
+    private static void writeEntry(Object key, Object value, KeyNameRules rules, StringBuilder out,
+                                   JsonContext context) {
+        String name = key == null || key instanceof CharSequence || ObjectMasker.isPrimitiveOrWrapper(key)
+                ? String.valueOf(key) : ObjectMasker.maskObject(key);
+        appendQuoted(name, out, context);
+        out.append(':');
+        StrategyBinding binding = ObjectMasker.isKeyMaskable(value) ? rules.find(name) : null;
+        if (binding != null) {
+            int start = out.length();
+            try {
+                if (ObjectMasker.appendMasked(out, binding, MaskStrategies.getRegistry(), value, context.escaping)) {
+                    return;
+                }
+            } catch (Exception e) {
+                // 不回退到明文
+                out.setLength(start);
+                appendError(e, out, context);
+                return;
+            }
+        }
+        write(value, out, context);
+    }
+
+    private static void writeSnapshot(ObjectSnapshot snapshot, StringBuilder out, JsonContext context) {
+        Object[] values = snapshot.values;
+        switch (snapshot.kind) {
+            case COLLECTION, ARRAY -> writeElements(values, out, context);
+            case MAP -> {
+                KeyNameRules rules = MaskStrategies.getKeyRules();
+                out.append('{');
+                for (int i = 0; i < values.length; i += 2) {
+                    if (i > 0) {
+                        out.append(',');
+                    }
+                    writeEntry(values[i], values[i + 1], rules, out, context);
+                }
+                out.append('}');
+            }
+            case OBJECT -> writeFields(snapshot.plan, null, values, out, context);
+            case ERROR -> appendQuoted("[ERROR: " + snapshot.error + "]", out, context);
+        }
+    }
+
+    private static void writeRegularObject(Object obj, StringBuilder out, JsonContext context) {
+        Class<?> type = obj.getClass();
+        ClassMaskPlan plan = ClassMaskPlan.of(type);
+        if (!plan.isJdkInternal()) {
+            writeFields(plan, obj, null, out, context);
+        } else if (isJdkType(type)) {
+            // 日期、UUID、URI 等
+            appendQuoted(obj.toString(), out, context);
+        } else {
+            // 与 ObjectMasker 一致，只输出标识，不调用可能包含敏感信息的 toString
+            appendQuoted(plan.getSimpleName() + '@' + System.identityHashCode(obj), out, context);
+        }
+    }
+
+    private static boolean isJdkType(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.");
+    }
+
+    /**
+     * 输出普通对象的字段：直接读取 {@code obj}，或使用快照中的字段值 {@code values}
+     */
+    private static void writeFields(ClassMaskPlan plan, Object obj, Object[] values, StringBuilder out,
+                                    JsonContext context) {
+        MaskStrategyRegistry registry = plan.isMasked() ? MaskStrategies.getRegistry() : null;
+        FieldMaskPlan[] fields = plan.getFields();
+        out.append('{');
+        boolean hasFields = false;
+        for (int i = 0; i < fields.length; i++) {
+            FieldMaskPlan field = fields[i];
+            if (field.isTransient()) {
+                continue;
+            }
+            if (hasFields) {
+                out.append(',');
+            }
+            out.append('"').append(field.getName()).append("\":");
+            int start = out.length();
+            try {
+                Object value = values != null ? values[i] : field.get(obj);
+                if (value instanceof ObjectSnapshot failed && failed.kind == ObjectSnapshot.Kind.ERROR) {
+                    appendQuoted("[ERROR: " + failed.error + "]", out, context);
+                } else if (!field.isMasked()
+                        || !ObjectMasker.appendMaskedValue(out, field, registry, value, context.escaping)) {
+                    write(value, out, context);
+                }
+            } catch (Exception e) {
+                out.setLength(start);
+                appendError(e, out, context);
+            }
+            hasFields = true;
+        }
+        out.append('}');
+    }
+
+    private static void appendError(Exception e, StringBuilder out, JsonContext context) {
+        appendQuoted("[ERROR: " + e.getMessage() + "]", out, context);
+    }
+
+    /**
+     * 线程内的输出上下文
+     */
+    private static final class JsonContext {
+
+        private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private final EscapingAppender escaping = new EscapingAppender(true);
+    }
+}
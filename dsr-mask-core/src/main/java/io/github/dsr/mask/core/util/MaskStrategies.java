@@ -1,10 +1,14 @@
 package io.github.dsr.mask.core.util;
 
 import io.github.dsr.mask.core.DsrMaskStrategyRegistry;
+import io.github.dsr.mask.core.plan.ClassMaskPlan;
+import io.github.dsr.mask.core.plan.KeyNameRules;
 import io.github.dsr.mask.core.registry.MaskStrategyRegistry;
 import io.github.dsr.mask.core.strategy.MaskStrategy;
 
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -15,6 +19,8 @@ import java.util.Map;
  */
 public class MaskStrategies {
 
+    private static final System.Logger LOGGER = System.getLogger(MaskStrategies.class.getName());
+
     /**
      * 全局注册表实例
      */
@@ -29,19 +35,59 @@ public class MaskStrategies {
      */
     private static volatile boolean initialized = false;
 
+    /**
+     * Map 键名规则，{@link ObjectMasker} 输出 Map 时按键名脱敏对应的值
+     */
+    private static volatile KeyNameRules keyRules = KeyNameRules.EMPTY;
+
+    /**
+     * 键名规则是否同时按字段名匹配未标注 {@code @Mask} 的字段
+     */
+    private static volatile boolean matchFieldNames;
+
+    /**
+     * 修改键名规则的锁，多个组件（日志布局、编码器、响应配置）可能同时合并规则
+     */
+    private static final Object keyRulesLock = new Object();
+
     /**
      * 获取全局注册表实例（单例）
      */
     public static MaskStrategyRegistry getRegistry() {
-        if (!initialized) {
-            synchronized (initLock) {
-                if (!initialized) {
-                    initialize();
-                    initialized = true;
-                }
+        // 初始化后只读一次 volatile 字段
+        MaskStrategyRegistry current = registry;
+        if (current != null) {
+            return current;
+        }
+        synchronized (initLock) {
+            if (!initialized) {
+                initialize();
+                initialized = true;
             }
+            return registry;
+        }
+    }
+
+    /**
+     * 显式初始化：不探测 Spring 容器，直接使用默认注册表（内置策略与 ServiceLoader 发现的策略）
+     * <p>
+     * 建议在应用启动、日志输出之前调用，第一次输出日志时不再初始化。已经初始化时直接返回当前注册表；
+     * Spring 容器中的注册表可以稍后通过 {@link #setRegistry(MaskStrategyRegistry)} 替换
+     *
+     * @return 当前注册表
+     */
+    public static MaskStrategyRegistry bootstrap() {
+        MaskStrategyRegistry current = registry;
+        if (current != null) {
+            return current;
+        }
+        synchronized (initLock) {
+            if (registry == null) {
+                registry = new DsrMaskStrategyRegistry();
+            }
+            initialized = true;
+            return registry;
         }
-        return registry;
     }
 
     /**
@@ -56,7 +102,7 @@ public class MaskStrategies {
             MaskStrategyRegistry old = registry;
             if (old != null && old != newRegistry) {
                 // 可以在这里迁移策略（如果需要）
-                System.out.println("Info: Overriding existing MaskStrategyRegistry instance");
+                LOGGER.log(System.Logger.Level.DEBUG, "Overriding existing MaskStrategyRegistry instance");
             }
             registry = newRegistry;
             initialized = true;
@@ -83,12 +129,12 @@ public class MaskStrategies {
         MaskStrategyRegistry springRegistry = findSpringRegistry();
         if (springRegistry != null) {
             registry = springRegistry;
-            System.out.println("Using Spring container MaskStrategyRegistry: " +
+            LOGGER.log(System.Logger.Level.DEBUG, "Using Spring container MaskStrategyRegistry: {0}",
                     springRegistry.getClass().getName());
         }else {
             // 3. 使用默认实现
             registry = new DsrMaskStrategyRegistry();
-            System.out.println("Using default MaskStrategyRegistry");
+            LOGGER.log(System.Logger.Level.DEBUG, "Using default MaskStrategyRegistry");
         }
 
     }
@@ -143,7 +189,128 @@ public class MaskStrategies {
     }
 
     private static Class<?> getPrimaryAnnotationClass() throws ClassNotFoundException {
-        return Class.forName("org.springframework.context.annotation.Primary");
+        Class<?> primary = PrimaryAnnotation.TYPE;
+        if (primary == null) {
+            throw new ClassNotFoundException("org.springframework.context.annotation.Primary");
+        }
+        return primary;
+    }
+
+    /**
+     * 全局注册表初始化之前用于校验配置的默认注册表，第一次使用时创建
+     */
+    private static final class ValidationRegistry {
+
+        static final MaskStrategyRegistry INSTANCE = new DsrMaskStrategyRegistry();
+    }
+
+    /**
+     * Spring 的 {@code @Primary} 注解，只加载一次，不存在时为 null
+     */
+    private static final class PrimaryAnnotation {
+
+        static final Class<?> TYPE = load();
+
+        private static Class<?> load() {
+            try {
+                return Class.forName("org.springframework.context.annotation.Primary");
+            } catch (ClassNotFoundException | LinkageError e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 校验类上的 {@code @Mask} 配置（含父类），建议在启动时调用，
+     * 使未注册的策略和非法参数在启动阶段暴露，而不是在输出日志时
+     *
+     * @param types 需要校验的类
+     * @throws IllegalArgumentException 策略未注册或参数非法
+     */
+    public static void validate(Class<?>... types) {
+        MaskStrategyRegistry current = getRegistry();
+        for (Class<?> type : types) {
+            ClassMaskPlan.of(type).validate(current);
+        }
+    }
+
+    /**
+     * 整体替换 Map 键名规则，是否按字段名匹配保持不变
+     *
+     * @param rules 键名规则，为 null 时清除
+     */
+    public static void setKeyRules(KeyNameRules rules) {
+        synchronized (keyRulesLock) {
+            setKeyRules(rules, matchFieldNames);
+        }
+    }
+
+    /**
+     * 整体替换 Map 键名规则
+     *
+     * @param rules           键名规则，为 null 时清除
+     * @param matchFieldNames 是否同时按字段名匹配未标注 {@code @Mask} 的字段，只影响之后编译的计划，
+     *                        见 {@link ClassMaskPlan#setFieldNameRules(KeyNameRules)}
+     */
+    public static void setKeyRules(KeyNameRules rules, boolean matchFieldNames) {
+        synchronized (keyRulesLock) {
+            KeyNameRules current = rules != null ? rules : KeyNameRules.EMPTY;
+            keyRules = current;
+            MaskStrategies.matchFieldNames = matchFieldNames;
+            ClassMaskPlan.setFieldNameRules(matchFieldNames ? current : KeyNameRules.EMPTY);
+        }
+    }
+
+    /**
+     * 把规则合并到全局 Map 键名规则，是否按字段名匹配保持不变
+     * <p>
+     * 日志布局、编码器和响应配置都可以配置键名规则，各自合并而不是互相覆盖；
+     * 同一个模式配置了不同的策略时以后合并的为准，并返回冲突供调用方记录。规则只增加不删除，需要整体替换时使用
+     * {@link #setKeyRules(KeyNameRules)}
+     *
+     * @param rules 要合并的规则
+     * @return 冲突描述，没有冲突时为空列表
+     */
+    public static List<String> mergeKeyRules(KeyNameRules rules) {
+        List<String> conflicts = new ArrayList<>();
+        synchronized (keyRulesLock) {
+            setKeyRules(keyRules.merge(rules, conflicts), matchFieldNames);
+        }
+        return conflicts;
+    }
+
+    /**
+     * 设置是否按字段名匹配未标注 {@code @Mask} 的字段，使用当前的键名规则
+     *
+     * @param matchFieldNames 是否按字段名匹配
+     */
+    public static void setMatchFieldNames(boolean matchFieldNames) {
+        synchronized (keyRulesLock) {
+            setKeyRules(keyRules, matchFieldNames);
+        }
+    }
+
+    public static boolean isMatchFieldNames() {
+        return matchFieldNames;
+    }
+
+    /**
+     * 解析单行键名规则，并按注册表绑定参数，参数非法时立即失败，见 {@link KeyNameRules#parse(String, MaskStrategyRegistry)}
+     * <p>
+     * 注册表尚未初始化时使用一个独立的默认注册表（内置策略与 ServiceLoader 发现的策略）校验，
+     * 不初始化全局注册表，以免在 Spring 容器就绪之前固定注册表
+     *
+     * @param spec 规则配置，如 {@code phone|mobile=PHONE;*IdCard=ID_CAR}
+     * @return 规则
+     * @throws IllegalArgumentException 格式错误或参数非法
+     */
+    public static KeyNameRules parseKeyRules(String spec) {
+        MaskStrategyRegistry current = registry;
+        return KeyNameRules.parse(spec, current != null ? current : ValidationRegistry.INSTANCE);
+    }
+
+    public static KeyNameRules getKeyRules() {
+        return keyRules;
     }
 
     /**
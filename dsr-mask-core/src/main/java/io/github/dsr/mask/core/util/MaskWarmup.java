@@ -0,0 +1,285 @@
+package io.github.dsr.mask.core.util;
+
+import io.github.dsr.mask.core.plan.ClassMaskPlan;
+import io.github.dsr.mask.core.plan.StrategyBinding;
+import io.github.dsr.mask.core.registry.MaskStrategyRegistry;
+import io.github.dsr.mask.core.strategy.BoundMaskStrategy;
+import io.github.dsr.mask.core.strategy.MaskStrategy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动预热
+ * <p>
+ * 读取 {@code dsr-mask-processor} 在编译期写入的 {@value #INDEX_RESOURCE}（每行一个类名），
+ * 在后台线程中并行编译这些类的脱敏计划、绑定策略参数，并可选地用示例数据反复调用脱敏器，
+ * 让反射、{@code setAccessible}、注解解析和 JIT 编译都发生在处理请求之前。
+ * 未注册的策略、非法参数等问题记录在 {@link Report} 中，不会抛出
+ *
+ * @author haiji
+ */
+public final class MaskWarmup {
+
+    /**
+     * 脱敏类索引
+     */
+    public static final String INDEX_RESOURCE = "META-INF/dsr-mask/masked-classes";
+
+    /**
+     * 默认每个策略绑定的示例调用次数：不调用，只编译计划和绑定参数。
+     * 自定义策略可能有副作用（远程调用、审计记录等），用示例数据调用需要显式开启
+     */
+    public static final int DEFAULT_ITERATIONS = 0;
+
+    /**
+     * 开启示例调用时建议的次数，足以触发 C2 编译
+     */
+    public static final int JIT_ITERATIONS = 5000;
+
+    private static final String[] TEXT_SAMPLES = {
+            "13812345678", "zhangsan@example.com", "110101199003071234", "6222020200012345678",
+            "北京市朝阳区建国路88号", "张三", "6222 0202 0001 2345 678", "Li Lei"
+    };
+
+    private static final long[] LONG_SAMPLES = {13812345678L, 6222020200012345678L, 123456L, 0L};
+
+    private static final BigDecimal[] DECIMAL_SAMPLES = {
+            new BigDecimal("12345.67"), new BigDecimal("0.5"), new BigDecimal("99999999.99"), BigDecimal.ZERO
+    };
+
+    private MaskWarmup() {
+    }
+
+    /**
+     * 使用线程上下文类加载器和公共线程池预热，只编译计划和绑定参数，不调用脱敏器
+     *
+     * @return 预热完成时结束的 Future
+     */
+    public static CompletableFuture<Report> warmUp() {
+        return warmUp(defaultClassLoader(), ForkJoinPool.commonPool(), DEFAULT_ITERATIONS);
+    }
+
+    /**
+     * 异步预热索引中的所有类
+     *
+     * @param classLoader 加载索引和类的类加载器
+     * @param executor    执行预热的线程池，每个类一个任务
+     * @param iterations  每个策略绑定的示例调用次数，为 0 时只编译计划和绑定参数
+     * @return 预热完成时结束的 Future
+     */
+    public static CompletableFuture<Report> warmUp(ClassLoader classLoader, Executor executor, int iterations) {
+        long start = System.nanoTime();
+        Report report = new Report();
+        return CompletableFuture.supplyAsync(() -> readIndex(classLoader), executor)
+                .thenCompose(names -> {
+                    MaskStrategyRegistry registry = MaskStrategies.getRegistry();
+                    // 初始化 ObjectMasker 及集合、Map 的输出路径
+                    ObjectMasker.maskObject(List.of(Map.of("key", "value")));
+                    CompletableFuture<?>[] tasks = new CompletableFuture<?>[names.size()];
+                    for (int i = 0; i < tasks.length; i++) {
+                        String name = names.get(i);
+                        tasks[i] = CompletableFuture.runAsync(
+                                () -> warmUp(name, classLoader, registry, iterations, report), executor);
+                    }
+                    return CompletableFuture.allOf(tasks);
+                })
+                .thenApply(ignored -> report.finish(System.nanoTime() - start));
+    }
+
+    /**
+     * 读取类路径上所有的脱敏类索引
+     *
+     * @param classLoader 类加载器
+     * @return 去重后的类名
+     */
+    public static List<String> readIndex(ClassLoader classLoader) {
+        Set<String> names = new LinkedHashSet<>();
+        try {
+            Enumeration<URL> resources = classLoader.getResources(INDEX_RESOURCE);
+            while (resources.hasMoreElements()) {
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(resources.nextElement().openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        line = line.trim();
+                        if (!line.isEmpty() && !line.startsWith("#")) {
+                            names.add(line);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + INDEX_RESOURCE, e);
+        }
+        return new ArrayList<>(names);
+    }
+
+    private static void warmUp(String className, ClassLoader classLoader, MaskStrategyRegistry registry,
+                               int iterations, Report report) {
+        try {
+            // 不触发静态初始化，计划只需要字段元数据
+            Class<?> type = Class.forName(className, false, classLoader);
+            ClassMaskPlan plan = ClassMaskPlan.of(type);
+            report.classes.incrementAndGet();
+            for (StrategyBinding binding : plan.getBindings()) {
+                try {
+                    binding.validate(registry);
+                    report.bindings.incrementAndGet();
+                    if (iterations > 0) {
+                        exercise(binding, registry, iterations);
+                    }
+                } catch (RuntimeException e) {
+                    report.fail(className, e.getMessage());
+                }
+            }
+        } catch (ClassNotFoundException | LinkageError e) {
+            // 索引中的类已被删除或不可见
+            report.fail(className, "class not found: " + e.getMessage());
+        } catch (RuntimeException e) {
+            report.fail(className, e.getMessage());
+        }
+    }
+
+    /**
+     * 用示例数据反复调用脱敏器。声明了 {@link MaskStrategy#cacheable()} 的策略直接调用未缓存的脱敏器，
+     * 示例数据不会进入 {@code MaskResultCache}
+     */
+    @SuppressWarnings("unchecked")
+    private static void exercise(StrategyBinding binding, MaskStrategyRegistry registry, int iterations) {
+        MaskStrategy<Object, String, String> strategy = binding.strategy(registry);
+        StringBuilder out = new StringBuilder(64);
+        if (strategy.cacheable()) {
+            BoundMaskStrategy<Object, String> masker = strategy.bind(binding.getArgs());
+            exercise(iterations, out, masker::maskTo, masker::maskTo, masker::maskTo);
+        } else {
+            BoundMaskStrategy.OfText text = binding.textMasker(registry);
+            BoundMaskStrategy.OfLong number = binding.longMasker(registry);
+            BoundMaskStrategy.OfDecimal decimal = binding.decimalMasker(registry);
+            exercise(iterations, out, text != null ? text::maskTo : null, number != null ? number::maskTo : null,
+                    decimal != null ? decimal::maskTo : null);
+        }
+    }
+
+    private static void exercise(int iterations, StringBuilder out, Call<CharSequence> text, LongCall number,
+                                 Call<BigDecimal> decimal) {
+        for (int i = 0; i < iterations; i++) {
+            out.setLength(0);
+            text = invoke(text, TEXT_SAMPLES[i % TEXT_SAMPLES.length], out);
+            decimal = invoke(decimal, DECIMAL_SAMPLES[i % DECIMAL_SAMPLES.length], out);
+            if (number != null) {
+                try {
+                    number.maskTo(LONG_SAMPLES[i % LONG_SAMPLES.length], out);
+                } catch (IOException | RuntimeException e) {
+                    number = null;
+                }
+            }
+            if (text == null && number == null && decimal == null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 调用失败（策略不接受该类型的示例数据）时返回 null，之后不再调用
+     */
+    private static <T> Call<T> invoke(Call<T> call, T sample, StringBuilder out) {
+        if (call == null) {
+            return null;
+        }
+        try {
+            call.maskTo(sample, out);
+            return call;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ClassLoader defaultClassLoader() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        return loader != null ? loader : MaskWarmup.class.getClassLoader();
+    }
+
+    @FunctionalInterface
+    private interface Call<T> {
+
+        void maskTo(T value, Appendable out) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface LongCall {
+
+        void maskTo(long value, Appendable out) throws IOException;
+    }
+
+    /**
+     * 预热结果
+     */
+    public static final class Report {
+
+        private final AtomicInteger classes = new AtomicInteger();
+
+        private final AtomicInteger bindings = new AtomicInteger();
+
+        private final Map<String, String> failures = new ConcurrentHashMap<>();
+
+        private volatile long elapsedNanos;
+
+        private void fail(String className, String reason) {
+            failures.merge(className, String.valueOf(reason), (previous, next) -> previous + "; " + next);
+        }
+
+        private Report finish(long elapsedNanos) {
+            this.elapsedNanos = elapsedNanos;
+            return this;
+        }
+
+        /**
+         * 已编译计划的类数量
+         */
+        public int getClassCount() {
+            return classes.get();
+        }
+
+        /**
+         * 已绑定的策略数量
+         */
+        public int getBindingCount() {
+            return bindings.get();
+        }
+
+        /**
+         * 预热失败的类及原因（类不存在、策略未注册或参数非法）
+         */
+        public Map<String, String> getFailures() {
+            return Collections.unmodifiableMap(failures);
+        }
+
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        @Override
+        public String toString() {
+            return "MaskWarmup.Report{classes=" + classes + ", bindings=" + bindings
+                    + ", failures=" + failures.size() + ", elapsedMillis=" + getElapsedMillis() + '}';
+        }
+    }
+}
@@ -1,27 +1,39 @@
 package io.github.dsr.mask.core.util;
 
-import io.github.dsr.mask.core.annotation.Mask;
-import io.github.dsr.mask.core.strategy.MaskStrategy;
-
+import io.github.dsr.mask.core.accessor.FieldAccessor;
+import io.github.dsr.mask.core.generated.GeneratedMasker;
+import io.github.dsr.mask.core.plan.ClassMaskPlan;
+import io.github.dsr.mask.core.plan.FieldMaskPlan;
+import io.github.dsr.mask.core.plan.KeyNameRules;
+import io.github.dsr.mask.core.plan.StrategyBinding;
+import io.github.dsr.mask.core.registry.MaskStrategyRegistry;
+import io.github.dsr.mask.core.strategy.BoundMaskStrategy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 
 public class ObjectMasker {
 
     /**
-     * 使用 IdentityHashMap，基于对象地址判断，避免 equals/hashCode 干扰
+     * 线程内的输出上下文，记录当前路径上已访问的对象
+     */
+    private static final ThreadLocal<WriteContext> CONTEXT =
+            ThreadLocal.withInitial(WriteContext::new);
+
+    /**
+     * {@link #maskTo(Object, Appendable)} 使用的线程内缓冲区
      */
-    private static final ThreadLocal<Map<Object, String>> VISITED_OBJECTS =
-            ThreadLocal.withInitial(IdentityHashMap::new);
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(256));
 
     /**
-     * 缓存 Class -> Fields，避免重复反射
+     * 线程内缓冲区保留的最大容量，超过后丢弃，避免偶发的大对象长期占用内存
      */
-    private static final Map<Class<?>, Field[]> FIELD_CACHE = new ConcurrentHashMap<>();
+    private static final int MAX_BUFFER_CAPACITY = 64 * 1024;
 
     /**
      * 基本类型 & 包装类型缓存
@@ -38,57 +50,126 @@ public class ObjectMasker {
     );
 
     public static String maskObject(Object obj) {
+        StringBuilder sb = new StringBuilder();
+        maskTo(obj, sb);
+        return sb.toString();
+    }
+
+    /**
+     * 脱敏并直接追加到调用方的缓冲区，嵌套对象不再生成中间字符串
+     *
+     * @param obj 要处理的对象
+     * @param out 输出缓冲区
+     */
+    public static void maskTo(Object obj, StringBuilder out) {
+        WriteContext context = CONTEXT.get();
         try {
-            return maskObjectInternal(obj);
+            write(obj, out, context);
         } finally {
-            VISITED_OBJECTS.get().clear();
+            context.visited.clear();
         }
     }
 
     /**
-     * 内部方法，用于递归处理对象
+     * 脱敏并追加到任意 {@link Appendable}
+     * <p>
+     * {@link StringBuilder} 直接写入；其它类型先写入线程内缓冲区，再一次性追加
      *
      * @param obj 要处理的对象
-     * @return
+     * @param out 输出目标
+     * @throws IOException 写入失败
      */
-    private static String maskObjectInternal(Object obj) {
+    public static void maskTo(Object obj, Appendable out) throws IOException {
+        if (out instanceof StringBuilder sb) {
+            maskTo(obj, sb);
+            return;
+        }
+
+        StringBuilder buffer = BUFFER.get();
+        try {
+            maskTo(obj, buffer);
+            out.append(buffer);
+        } finally {
+            buffer.setLength(0);
+            if (buffer.capacity() > MAX_BUFFER_CAPACITY) {
+                BUFFER.remove();
+            }
+        }
+    }
+
+    /**
+     * 在当前线程复制对象图，之后可以在任意线程通过 {@link #maskObject(Object)} / {@link #maskTo(Object, StringBuilder)}
+     * 输出，结果与现在直接脱敏原对象相同
+     * <p>
+     * 只复制集合、Map、数组的元素和普通对象的字段值，不调用脱敏策略、不生成字符串，
+     * 适用于在业务线程中固定日志参数、在后台线程中完成脱敏的场景
+     *
+     * @param obj 要处理的对象
+     * @return 不可变的快照；null、字符串、包装类型以及只输出标识的 JDK 对象直接返回原对象
+     */
+    public static Object snapshot(Object obj) {
+        return ObjectSnapshot.capture(obj);
+    }
+
+    /**
+     * 内部方法，用于递归处理对象
+     *
+     * @param obj     要处理的对象
+     * @param out     输出缓冲区
+     * @param context 输出上下文
+     */
+    private static void write(Object obj, StringBuilder out, WriteContext context) {
         if (obj == null) {
-            return "null";
+            out.append("null");
+            return;
         }
 
-        // 检查是否已经访问过此对象（循环引用检测）
-        Map<Object, String> visited = VISITED_OBJECTS.get();
-        if (visited.containsKey(obj)) {
-            return "[circular reference: " + visited.get(obj) + "]";
+        // 处理基本类型和字符串
+        if (obj instanceof String str) {
+            appendQuoted(out, str);
+            return;
+        }
+        if (isPrimitiveOrWrapper(obj)) {
+            out.append(obj);
+            return;
         }
 
-        // 记录当前对象
-        String objectId = getObjectIdentifier(obj);
-        visited.put(obj, objectId);
+        // 检查是否已经访问过此对象（循环引用检测）
+        Set<Object> visited = context.visited;
+        if (!visited.add(obj)) {
+            out.append("[circular reference: ");
+            appendObjectIdentifier(out, obj);
+            out.append("]");
+            return;
+        }
 
         try {
-            // 处理基本类型和字符串
-            if (isPrimitiveOrWrapper(obj) || obj instanceof String) {
-                return formatPrimitive(obj);
+            // 处理快照
+            if (obj instanceof ObjectSnapshot snapshot) {
+                writeSnapshot(snapshot, out, context);
+                return;
             }
 
             // 处理集合类型
             if (obj instanceof Collection) {
-                return maskCollection((Collection<?>) obj);
+                writeCollection((Collection<?>) obj, out, context);
+                return;
             }
 
             // 处理Map类型
             if (obj instanceof Map) {
-                return maskMap((Map<?, ?>) obj);
+                writeMap((Map<?, ?>) obj, out, context);
+                return;
             }
 
             // 处理数组
             if (obj.getClass().isArray()) {
-                return maskArray(obj);
+                writeArray(obj, out, context);
+                return;
             }
 
             // 处理普通对象
-            return maskRegularObject(obj);
+            writeRegularObject(obj, out, context);
 
         } finally {
             visited.remove(obj);
@@ -101,90 +182,218 @@ public class ObjectMasker {
      * @param obj
      * @return
      */
-    private static boolean isPrimitiveOrWrapper(Object obj) {
+    static boolean isPrimitiveOrWrapper(Object obj) {
         Class<?> clazz = obj.getClass();
         return clazz.isPrimitive() || PRIMITIVE_WRAPPER_TYPES.contains(clazz);
     }
 
-    private static String formatPrimitive(Object obj) {
-        if (obj instanceof String) {
-            return "\"" + escapeString((String) obj) + "\"";
+    /**
+     * 以双引号包裹并转义后追加，null 输出为 {@code "null"}
+     */
+    private static void appendQuoted(StringBuilder out, String str) {
+        out.append('"');
+        if (str == null) {
+            out.append("null");
+        } else {
+            appendEscaped(out, str);
         }
-        return String.valueOf(obj);
+        out.append('"');
     }
 
-    private static String escapeString(String str) {
-        if (str == null) {
-            return "null";
+    /**
+     * 逐字符转义，未出现需要转义的字符时整段追加
+     */
+    private static void appendEscaped(StringBuilder out, String str) {
+        int start = 0;
+        int length = str.length();
+        for (int i = 0; i < length; i++) {
+            String replacement = EscapingAppender.escape(str.charAt(i));
+            if (replacement != null) {
+                out.append(str, start, i).append(replacement);
+                start = i + 1;
+            }
         }
-        return str.replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r")
-                .replace("\t", "\\t");
+        out.append(str, start, length);
     }
 
-    private static String getObjectIdentifier(Object obj) {
-        return obj.getClass().getSimpleName() + "@" + System.identityHashCode(obj);
+    /**
+     * 脱敏并以双引号包裹，脱敏器直接写入转义输出，不生成中间字符串。
+     * 脱敏器抛出异常时先撤销已写入的引号和部分结果再抛出，缓冲区中不会留下半截明文
+     *
+     * @return 是否已输出，策略未注册时返回 false
+     */
+    static boolean appendMasked(StringBuilder out, StrategyBinding binding, MaskStrategyRegistry registry,
+                                Object value, EscapingAppender escaping) throws IOException {
+        int start = out.length();
+        try {
+            out.append('"');
+            if (!binding.maskTo(registry, value, escaping.target(out))) {
+                out.setLength(start);
+                return false;
+            }
+            out.append('"');
+            return true;
+        } catch (IOException | RuntimeException e) {
+            out.setLength(start);
+            throw e;
+        }
+    }
+
+    static boolean appendMaskedLong(StringBuilder out, StrategyBinding binding, MaskStrategyRegistry registry,
+                                    long value, EscapingAppender escaping) throws IOException {
+        BoundMaskStrategy.OfLong masker = binding.longMasker(registry);
+        if (masker == null) {
+            return false;
+        }
+        int start = out.length();
+        try {
+            out.append('"');
+            masker.maskTo(value, escaping.target(out));
+            out.append('"');
+            return true;
+        } catch (IOException | RuntimeException e) {
+            out.setLength(start);
+            throw e;
+        }
     }
 
-    private static String maskCollection(Collection<?> collection) {
-        String className = getSimpleClassName(collection.getClass());
+    static boolean appendMaskedInt(StringBuilder out, StrategyBinding binding, MaskStrategyRegistry registry,
+                                   int value, EscapingAppender escaping) throws IOException {
+        BoundMaskStrategy.OfInt masker = binding.intMasker(registry);
+        if (masker == null) {
+            return false;
+        }
+        int start = out.length();
+        try {
+            out.append('"');
+            masker.maskTo(value, escaping.target(out));
+            out.append('"');
+            return true;
+        } catch (IOException | RuntimeException e) {
+            out.setLength(start);
+            throw e;
+        }
+    }
+
+    /**
+     * 按键名规则（{@link MaskStrategies#setKeyRules}）脱敏单个值，适用于 MDC、键值对等以键名标识的数据
+     *
+     * @param key   键名
+     * @param value 值，只处理字符序列、整数和 {@link BigDecimal}
+     * @return 脱敏结果（不加引号、不转义）；键名没有命中规则、值的类型不支持或策略未注册时返回 null
+     */
+    public static String maskByKey(CharSequence key, Object value) {
+        if (key == null || !isKeyMaskable(value)) {
+            return null;
+        }
+        StrategyBinding binding = MaskStrategies.getKeyRules().find(key);
+        if (binding == null) {
+            return null;
+        }
+        StringBuilder out = new StringBuilder(32);
+        try {
+            return binding.maskTo(MaskStrategies.getRegistry(), value, out) ? out.toString() : null;
+        } catch (Exception e) {
+            // 不回退到明文
+            return "[ERROR: " + e.getMessage() + "]";
+        }
+    }
+
+    private static void appendObjectIdentifier(StringBuilder out, Object obj) {
+        if (obj instanceof ObjectSnapshot snapshot) {
+            snapshot.appendIdentifier(out);
+            return;
+        }
+        out.append(obj.getClass().getSimpleName()).append('@').append(System.identityHashCode(obj));
+    }
+
+    private static void writeCollection(Collection<?> collection, StringBuilder out, WriteContext context) {
+        out.append(getSimpleClassName(collection.getClass()));
         if (collection.isEmpty()) {
-            return className + "[]";
+            out.append("[]");
+            return;
         }
 
-        StringBuilder sb = new StringBuilder(className).append("[");
+        out.append('[');
         boolean first = true;
         for (Object item : collection) {
             if (!first) {
-                sb.append(", ");
+                out.append(", ");
             }
-            sb.append(maskObjectInternal(item));
+            write(item, out, context);
             first = false;
         }
-        sb.append("]");
-        return sb.toString();
+        out.append(']');
     }
 
-    private static String maskMap(Map<?, ?> map) {
-        String className = getSimpleClassName(map.getClass());
+    /**
+     * 输出 Map，配置了键名规则（{@link MaskStrategies#setKeyRules}）时，
+     * 键名命中规则的字符序列、整数和 {@link BigDecimal} 值按对应策略脱敏
+     */
+    private static void writeMap(Map<?, ?> map, StringBuilder out, WriteContext context) {
+        out.append(getSimpleClassName(map.getClass()));
         if (map.isEmpty()) {
-            return className + "{}";
+            out.append("{}");
+            return;
         }
 
-        StringBuilder sb = new StringBuilder(className).append("{");
+        KeyNameRules rules = MaskStrategies.getKeyRules();
+        out.append('{');
         boolean first = true;
         for (Map.Entry<?, ?> entry : map.entrySet()) {
             if (!first) {
-                sb.append(", ");
+                out.append(", ");
             }
-            sb.append(maskObjectInternal(entry.getKey()))
-                    .append("=")
-                    .append(maskObjectInternal(entry.getValue()));
+            writeEntry(entry.getKey(), entry.getValue(), rules, out, context);
             first = false;
         }
-        sb.append("}");
-        return sb.toString();
+        out.append('}');
     }
 
-    private static String maskArray(Object array) {
+    private static void writeEntry(Object key, Object value, KeyNameRules rules, StringBuilder out,
+                                   WriteContext context) {
+        write(key, out, context);
+        out.append('=');
+        StrategyBinding binding = key instanceof CharSequence name && isKeyMaskable(value) ? rules.find(name) : null;
+        if (binding == null || !appendMaskedEntry(out, binding, value, context)) {
+            write(value, out, context);
+        }
+    }
+
+    static boolean isKeyMaskable(Object value) {
+        return value instanceof CharSequence || value instanceof Long || value instanceof Integer
+                || value instanceof Short || value instanceof Byte || value instanceof BigDecimal;
+    }
+
+    private static boolean appendMaskedEntry(StringBuilder out, StrategyBinding binding, Object value,
+                                             WriteContext context) {
+        int start = out.length();
+        try {
+            return appendMasked(out, binding, MaskStrategies.getRegistry(), value, context.escaping);
+        } catch (Exception e) {
+            // 不回退到明文
+            out.setLength(start);
+            out.append("[ERROR: ").append(e.getMessage()).append(']');
+            return true;
+        }
+    }
+
+    private static void writeArray(Object array, StringBuilder out, WriteContext context) {
         Class<?> componentType = array.getClass().getComponentType();
-        String typeName = componentType.isPrimitive()
+        out.append(componentType.isPrimitive()
                 ? componentType.getName()
-                : componentType.getSimpleName();
+                : componentType.getSimpleName());
 
-        StringBuilder sb = new StringBuilder(typeName).append("[]{");
+        out.append("[]{");
         int length = Array.getLength(array);
 
         for (int i = 0; i < length; i++) {
             if (i > 0) {
-                sb.append(", ");
+                out.append(", ");
             }
-            sb.append(maskObjectInternal(Array.get(array, i)));
+            write(Array.get(array, i), out, context);
         }
-        sb.append("}");
-        return sb.toString();
+        out.append('}');
     }
 
     private static String getSimpleClassName(Class<?> clazz) {
@@ -199,71 +408,283 @@ public class ObjectMasker {
         return simpleName.isEmpty() ? clazz.getName() : simpleName;
     }
 
-    private static String maskRegularObject(Object obj) {
-        Class<?> clazz = obj.getClass();
-        String className = clazz.getSimpleName();
+    @SuppressWarnings("unchecked")
+    private static void writeRegularObject(Object obj, StringBuilder out, WriteContext context) {
+        ClassMaskPlan plan = ClassMaskPlan.of(obj.getClass());
+        out.append(plan.getSimpleName());
 
-        if (isJdkInternalClass(clazz)) {
-            return className + "@" + System.identityHashCode(obj);
+        if (plan.isJdkInternal()) {
+            out.append('@').append(System.identityHashCode(obj));
+            return;
         }
 
-        StringBuilder sb = new StringBuilder(className).append("{");
+        out.append('{');
+        GeneratedMasker<Object> generated = (GeneratedMasker<Object>) plan.getGeneratedMasker();
+        if (generated != null) {
+            // 编译期生成的脱敏器，不经过反射；字段错误已在生成代码中逐个处理，
+            // 其它异常时丢弃已输出的部分，按反射路径重新输出，不让整个对象失败
+            int start = out.length();
+            try {
+                generated.writeFields(obj, out, context);
+                out.append('}');
+                return;
+            } catch (RuntimeException e) {
+                out.setLength(start);
+            }
+        }
+
+        MaskStrategyRegistry registry = plan.isMasked() ? MaskStrategies.getRegistry() : null;
         boolean hasFields = false;
 
-        for (Field field : getCachedFields(clazz)) {
-            if (Modifier.isStatic(field.getModifiers())
-                    || Modifier.isTransient(field.getModifiers())
-                    || field.isSynthetic()) {
+        for (FieldMaskPlan field : plan.getFields()) {
+            if (field.isTransient()) {
                 continue;
             }
-
+            int mark = out.length();
             try {
+                if (field.isMasked()
+                        ? appendMaskedPrimitive(out, obj, field, registry, hasFields, context)
+                        : appendPrimitive(out, obj, field, hasFields)) {
+                    hasFields = true;
+                    continue;
+                }
+
                 Object value = field.get(obj);
-                if (hasFields) {
-                    sb.append(", ");
+                out.append(hasFields ? field.getSeparatedLabel() : field.getLabel());
+
+                if (!field.isMasked() || !appendMasked(out, field.getBinding(), registry, value, context.escaping)) {
+                    write(value, out, context);
+                }
+
+                hasFields = true;
+            } catch (Exception e) {
+                out.setLength(mark);
+                appendFieldError(out, field, hasFields, e);
+                hasFields = true;
+            }
+        }
+
+        out.append('}');
+    }
+
+    /**
+     * 字段读取或脱敏失败时输出 {@code name=[ERROR: ...]}，调用方需要先撤销该字段已写入的内容
+     */
+    private static void appendFieldError(StringBuilder out, FieldMaskPlan field, boolean hasFields, Exception e) {
+        out.append(hasFields ? field.getSeparatedLabel() : field.getLabel())
+                .append("[ERROR: ").append(e.getMessage()).append(']');
+    }
+
+    /**
+     * int / long / double 字段直接读取并追加，不经过装箱
+     *
+     * @return 是否已处理
+     */
+    private static boolean appendPrimitive(StringBuilder out, Object obj, FieldMaskPlan field, boolean hasFields) {
+        FieldAccessor accessor = field.getAccessor();
+        switch (accessor.getKind()) {
+            case INT -> {
+                int value = accessor.getInt(obj);
+                out.append(hasFields ? field.getSeparatedLabel() : field.getLabel()).append(value);
+            }
+            case LONG -> {
+                long value = accessor.getLong(obj);
+                out.append(hasFields ? field.getSeparatedLabel() : field.getLabel()).append(value);
+            }
+            case DOUBLE -> {
+                double value = accessor.getDouble(obj);
+                out.append(hasFields ? field.getSeparatedLabel() : field.getLabel()).append(value);
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 脱敏的 int / long 字段直接读取并交给专用脱敏器，不经过装箱
+     *
+     * @return 是否已处理
+     */
+    private static boolean appendMaskedPrimitive(StringBuilder out, Object obj, FieldMaskPlan field,
+                                                 MaskStrategyRegistry registry, boolean hasFields,
+                                                 WriteContext context) throws IOException {
+        FieldAccessor accessor = field.getAccessor();
+        String label = hasFields ? field.getSeparatedLabel() : field.getLabel();
+        switch (accessor.getKind()) {
+            case INT -> {
+                int value = accessor.getInt(obj);
+                out.append(label);
+                if (!appendMaskedInt(out, field.getBinding(), registry, value, context.escaping)) {
+                    out.append(value);
+                }
+            }
+            case LONG -> {
+                long value = accessor.getLong(obj);
+                out.append(label);
+                if (!appendMaskedLong(out, field.getBinding(), registry, value, context.escaping)) {
+                    out.append(value);
+                }
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按原对象的格式输出快照。普通对象统一走字段计划，与生成脱敏器的输出相同
+     */
+    private static void writeSnapshot(ObjectSnapshot snapshot, StringBuilder out, WriteContext context) {
+        Object[] values = snapshot.values;
+        switch (snapshot.kind) {
+            case COLLECTION -> {
+                out.append(getSimpleClassName(snapshot.type));
+                if (values.length == 0) {
+                    out.append("[]");
+                    return;
+                }
+                out.append('[');
+                writeElements(values, out, context);
+                out.append(']');
+            }
+            case MAP -> {
+                out.append(getSimpleClassName(snapshot.type));
+                if (values.length == 0) {
+                    out.append("{}");
+                    return;
                 }
-                sb.append(field.getName()).append("=");
-
-                Mask mask = field.getAnnotation(Mask.class);
-                if (mask != null) {
-                    MaskStrategy<Object, String, String> strategy = MaskStrategies.getRegistry().get(mask.strategy());
-                    if (strategy != null) {
-                        String masked = strategy.mask(value, mask.args());
-                        sb.append("\"").append(escapeString(masked)).append("\"");
-                    } else {
-                        sb.append(maskObjectInternal(value));
+                KeyNameRules rules = MaskStrategies.getKeyRules();
+                out.append('{');
+                for (int i = 0; i < values.length; i += 2) {
+                    if (i > 0) {
+                        out.append(", ");
                     }
-                } else {
-                    sb.append(maskObjectInternal(value));
+                    writeEntry(values[i], values[i + 1], rules, out, context);
                 }
+                out.append('}');
+            }
+            case ARRAY -> {
+                out.append(snapshot.type.getComponentType().getSimpleName()).append("[]{");
+                writeElements(values, out, context);
+                out.append('}');
+            }
+            case OBJECT -> writeSnapshotFields(snapshot, out, context);
+            case ERROR -> out.append("[ERROR: ").append(snapshot.error).append(']');
+        }
+    }
+
+    private static void writeElements(Object[] items, StringBuilder out, WriteContext context) {
+        for (int i = 0; i < items.length; i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            write(items[i], out, context);
+        }
+    }
 
+    private static void writeSnapshotFields(ObjectSnapshot snapshot, StringBuilder out, WriteContext context) {
+        ClassMaskPlan plan = snapshot.plan;
+        out.append(plan.getSimpleName()).append('{');
+        MaskStrategyRegistry registry = plan.isMasked() ? MaskStrategies.getRegistry() : null;
+        FieldMaskPlan[] fields = plan.getFields();
+        Object[] values = snapshot.values;
+        boolean hasFields = false;
+        for (int i = 0; i < fields.length; i++) {
+            FieldMaskPlan field = fields[i];
+            if (field.isTransient()) {
+                continue;
+            }
+            Object value = values[i];
+            int mark = out.length();
+            try {
+                out.append(hasFields ? field.getSeparatedLabel() : field.getLabel());
+                if (value instanceof ObjectSnapshot failed && failed.kind == ObjectSnapshot.Kind.ERROR) {
+                    out.append("[ERROR: ").append(failed.error).append(']');
+                } else if (!field.isMasked() || !appendMaskedValue(out, field, registry, value, context.escaping)) {
+                    write(value, out, context);
+                }
                 hasFields = true;
             } catch (Exception e) {
-                sb.append(field.getName()).append("=[ERROR: ").append(e.getMessage()).append("]");
+                out.setLength(mark);
+                appendFieldError(out, field, hasFields, e);
+                hasFields = true;
             }
         }
+        out.append('}');
+    }
 
-        sb.append("}");
-        return sb.toString();
+    /**
+     * 快照中 int / long 字段的值已装箱，仍交给对应的专用脱敏器，与直接读取字段时一致
+     */
+    static boolean appendMaskedValue(StringBuilder out, FieldMaskPlan field, MaskStrategyRegistry registry,
+                                     Object value, EscapingAppender escaping) throws IOException {
+        return switch (field.getAccessor().getKind()) {
+            case INT -> value instanceof Integer number
+                    && appendMaskedInt(out, field.getBinding(), registry, number, escaping);
+            case LONG -> value instanceof Long number
+                    && appendMaskedLong(out, field.getBinding(), registry, number, escaping);
+            default -> appendMasked(out, field.getBinding(), registry, value, escaping);
+        };
     }
 
-    private static Field[] getCachedFields(Class<?> clazz) {
-        return FIELD_CACHE.computeIfAbsent(clazz, c -> {
-            Field[] fields = c.getDeclaredFields();
-            for (Field f : fields) {
-                f.setAccessible(true);
+    /**
+     * 线程内的输出上下文，同时作为生成脱敏器的输出回调
+     */
+    private static final class WriteContext implements GeneratedMasker.Renderer {
+
+        /**
+         * 使用 IdentityHashMap，基于对象地址判断，避免 equals/hashCode 干扰
+         */
+        private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        /**
+         * 脱敏器写入字符串值时使用的转义输出
+         */
+        private final EscapingAppender escaping = new EscapingAppender();
+
+        @Override
+        public void write(Object value, StringBuilder out) {
+            ObjectMasker.write(value, out, this);
+        }
+
+        /**
+         * 脱敏失败时异常交给生成脱敏器中该字段的 try/catch，由其撤销已写入的内容并输出错误，
+         * 本方法不自行输出错误；已写入的引号和部分结果由 {@link #appendMasked} 撤销
+         */
+        @Override
+        public void writeMasked(StrategyBinding binding, Object value, StringBuilder out) {
+            try {
+                if (!appendMasked(out, binding, MaskStrategies.getRegistry(), value, escaping)) {
+                    ObjectMasker.write(value, out, this);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-            return fields;
-        });
-    }
+        }
+
+        @Override
+        public void writeMaskedLong(StrategyBinding binding, long value, StringBuilder out) {
+            try {
+                if (!appendMaskedLong(out, binding, MaskStrategies.getRegistry(), value, escaping)) {
+                    out.append(value);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
 
-    private static boolean isJdkInternalClass(Class<?> clazz) {
-        String pkg = clazz.getPackage() != null ? clazz.getPackage().getName() : "";
-        return pkg.startsWith("java.")
-                || pkg.startsWith("javax.")
-                || pkg.startsWith("jdk.")
-                || pkg.startsWith("sun.")
-                || clazz.getName().startsWith("com.sun.")
-                || clazz.getName().contains("$");
+        @Override
+        public void writeMaskedInt(StrategyBinding binding, int value, StringBuilder out) {
+            try {
+                if (!appendMaskedInt(out, binding, MaskStrategies.getRegistry(), value, escaping)) {
+                    out.append(value);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
     }
 }
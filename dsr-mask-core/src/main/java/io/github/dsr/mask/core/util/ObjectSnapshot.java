@@ -0,0 +1,190 @@
+package io.github.dsr.mask.core.util;
+
+import io.github.dsr.mask.core.plan.ClassMaskPlan;
+import io.github.dsr.mask.core.plan.FieldMaskPlan;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 对象图快照
+ * <p>
+ * 按 {@link ObjectMasker} 的输出规则复制对象图：集合、Map、数组的元素以及普通对象的字段值，
+ * 不调用脱敏策略，也不生成字符串，开销远小于直接脱敏。快照创建后不再修改，可以交给其它线程由
+ * {@link ObjectMasker} 输出，结果与在创建快照时直接脱敏原对象相同，原对象之后的修改不影响输出。
+ * 字符串、包装类型以及只输出标识的 JDK 对象不复制，直接引用
+ *
+ * @author haiji
+ */
+final class ObjectSnapshot {
+
+    enum Kind {
+        COLLECTION, MAP, ARRAY, OBJECT, ERROR
+    }
+
+    final Kind kind;
+
+    /**
+     * 原对象的类型
+     */
+    final Class<?> type;
+
+    /**
+     * 原对象的 identityHashCode，用于输出循环引用
+     */
+    final int identityHash;
+
+    /**
+     * 普通对象的脱敏计划
+     */
+    final ClassMaskPlan plan;
+
+    /**
+     * 集合 / 数组为元素，Map 为交替存放的键和值，普通对象为与 {@link ClassMaskPlan#getFields()} 对应的字段值
+     */
+    Object[] values;
+
+    /**
+     * 读取失败时的原因
+     */
+    final String error;
+
+    private ObjectSnapshot(Kind kind, Object origin, ClassMaskPlan plan) {
+        this.kind = kind;
+        this.type = origin.getClass();
+        this.identityHash = System.identityHashCode(origin);
+        this.plan = plan;
+        this.error = null;
+    }
+
+    private ObjectSnapshot(String error) {
+        this.kind = Kind.ERROR;
+        this.type = null;
+        this.identityHash = 0;
+        this.plan = null;
+        this.error = error;
+    }
+
+    /**
+     * 创建快照
+     *
+     * @param obj 对象
+     * @return 快照；不需要复制的对象返回原对象
+     */
+    static Object capture(Object obj) {
+        return isLeaf(obj) ? obj : capture(obj, new IdentityHashMap<>());
+    }
+
+    private static boolean isLeaf(Object obj) {
+        return obj == null || obj instanceof String || obj instanceof ObjectSnapshot
+                || ObjectMasker.isPrimitiveOrWrapper(obj);
+    }
+
+    private static Object capture(Object obj, Map<Object, ObjectSnapshot> seen) {
+        if (isLeaf(obj)) {
+            return obj;
+        }
+        // 同一个对象只复制一次，循环引用在输出时按快照识别
+        ObjectSnapshot existing = seen.get(obj);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            if (obj instanceof Collection<?> collection) {
+                ObjectSnapshot snapshot = new ObjectSnapshot(Kind.COLLECTION, obj, null);
+                seen.put(obj, snapshot);
+                Object[] items = collection.toArray();
+                for (int i = 0; i < items.length; i++) {
+                    items[i] = capture(items[i], seen);
+                }
+                snapshot.values = items;
+                return snapshot;
+            }
+            if (obj instanceof Map<?, ?> map) {
+                return captureMap(obj, map, seen);
+            }
+            if (obj.getClass().isArray()) {
+                return captureArray(obj, seen);
+            }
+            ClassMaskPlan plan = ClassMaskPlan.of(obj.getClass());
+            if (plan.isJdkInternal()) {
+                // 只输出类名和标识，不读取状态
+                return obj;
+            }
+            return captureFields(obj, plan, seen);
+        } catch (RuntimeException e) {
+            // 并发修改等
+            return new ObjectSnapshot(e.toString());
+        }
+    }
+
+    private static ObjectSnapshot captureMap(Object obj, Map<?, ?> map, Map<Object, ObjectSnapshot> seen) {
+        ObjectSnapshot snapshot = new ObjectSnapshot(Kind.MAP, obj, null);
+        seen.put(obj, snapshot);
+        Object[] entries = new Object[map.size() * 2];
+        int size = 0;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (size + 2 > entries.length) {
+                entries = Arrays.copyOf(entries, Math.max(4, entries.length * 2));
+            }
+            entries[size++] = capture(entry.getKey(), seen);
+            entries[size++] = capture(entry.getValue(), seen);
+        }
+        snapshot.values = size == entries.length ? entries : Arrays.copyOf(entries, size);
+        return snapshot;
+    }
+
+    private static Object captureArray(Object array, Map<Object, ObjectSnapshot> seen) {
+        int length = Array.getLength(array);
+        if (array.getClass().getComponentType().isPrimitive()) {
+            // 基本类型数组直接复制，输出格式不变
+            Object copy = Array.newInstance(array.getClass().getComponentType(), length);
+            System.arraycopy(array, 0, copy, 0, length);
+            return copy;
+        }
+        ObjectSnapshot snapshot = new ObjectSnapshot(Kind.ARRAY, array, null);
+        seen.put(array, snapshot);
+        Object[] items = new Object[length];
+        for (int i = 0; i < length; i++) {
+            items[i] = capture(Array.get(array, i), seen);
+        }
+        snapshot.values = items;
+        return snapshot;
+    }
+
+    private static ObjectSnapshot captureFields(Object obj, ClassMaskPlan plan, Map<Object, ObjectSnapshot> seen) {
+        ObjectSnapshot snapshot = new ObjectSnapshot(Kind.OBJECT, obj, plan);
+        seen.put(obj, snapshot);
+        FieldMaskPlan[] fields = plan.getFields();
+        Object[] values = new Object[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            FieldMaskPlan field = fields[i];
+            if (field.isTransient()) {
+                continue;
+            }
+            try {
+                Object value = field.get(obj);
+                if (field.isMasked()) {
+                    // 脱敏字段的值原样交给策略，只把可变的字符序列固定下来
+                    values[i] = value instanceof CharSequence && !(value instanceof String) ? value.toString() : value;
+                } else {
+                    values[i] = capture(value, seen);
+                }
+            } catch (RuntimeException e) {
+                values[i] = new ObjectSnapshot(e.getMessage());
+            }
+        }
+        snapshot.values = values;
+        return snapshot;
+    }
+
+    /**
+     * 按原对象输出标识，与 {@code 类名@identityHashCode} 一致
+     */
+    void appendIdentifier(StringBuilder out) {
+        out.append(type.getSimpleName()).append('@').append(identityHash);
+    }
+}
@@ -1,11 +1,16 @@
 package io.github.dsr.mask.core.util;
 
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.util.Map;
 
 /**
  * Spring上下文工具类
  * 用于检测Spring环境并获取Spring容器中的Bean
+ * <p>
+ * 类是否存在、需要调用的 Spring / Servlet 方法只在第一次使用时解析为 {@link MethodHandle} 并缓存，
+ * 之后不再重复 {@code Class.forName} 和反射查找方法。Spring 应用建议由容器在启动时直接把注册表
+ * 交给 {@link MaskStrategies#setRegistry}，不再依赖这里的探测
  */
 public class SpringContextDetector {
 
@@ -15,34 +20,84 @@ public class SpringContextDetector {
      */
     private static final String APPLICATION_CONTEXT_CLASS = "org.springframework.context.ApplicationContext";
     private static final String BEAN_FACTORY_CLASS = "org.springframework.beans.factory.BeanFactory";
+    private static final String LISTABLE_BEAN_FACTORY_CLASS = "org.springframework.beans.factory.ListableBeanFactory";
     private static final String WEB_APPLICATION_CONTEXT_CLASS = "org.springframework.web.context.WebApplicationContext";
 
     private static volatile Object applicationContext;
-    private static volatile Class<?> contextLoaderClass;
-    private static volatile Class<?> webApplicationContextUtilsClass;
+
+    /**
+     * 解析一次后缓存的类与方法句柄，类或方法不存在时为 null
+     */
+    private static final class Handles {
+
+        static final boolean SPRING_PRESENT = isPresent(APPLICATION_CONTEXT_CLASS);
+
+        static final boolean SPRING_WEB_PRESENT = isPresent(WEB_APPLICATION_CONTEXT_CLASS);
+
+        static final MethodHandle GET_WEB_APPLICATION_CONTEXT = find(
+                "org.springframework.web.context.support.WebApplicationContextUtils", "getWebApplicationContext",
+                "jakarta.servlet.ServletContext");
+
+        static final MethodHandle GET_CURRENT_WEB_APPLICATION_CONTEXT = find(
+                "org.springframework.web.context.ContextLoader", "getCurrentWebApplicationContext");
+
+        static final MethodHandle GET_CONTEXT_FROM_HOLDER = find(
+                "com.example.mask.spring.SpringContextHolder", "getApplicationContext");
+
+        static final MethodHandle GET_REQUEST_ATTRIBUTES = find(
+                "org.springframework.web.context.request.RequestContextHolder", "getRequestAttributes");
+
+        static final MethodHandle GET_REQUEST = find(
+                "org.springframework.web.context.request.ServletRequestAttributes", "getRequest");
+
+        static final MethodHandle GET_SERVLET_CONTEXT = find(
+                "jakarta.servlet.http.HttpServletRequest", "getServletContext");
+
+        static final MethodHandle GET_BEAN = find(BEAN_FACTORY_CLASS, "getBean", "java.lang.Class");
+
+        static final MethodHandle GET_NAMED_BEAN = find(BEAN_FACTORY_CLASS, "getBean",
+                "java.lang.String", "java.lang.Class");
+
+        static final MethodHandle CONTAINS_BEAN = find(BEAN_FACTORY_CLASS, "containsBean", "java.lang.String");
+
+        static final MethodHandle GET_BEANS_OF_TYPE = find(LISTABLE_BEAN_FACTORY_CLASS, "getBeansOfType",
+                "java.lang.Class");
+
+        private static boolean isPresent(String className) {
+            try {
+                Class.forName(className);
+                return true;
+            } catch (ClassNotFoundException | LinkageError e) {
+                return false;
+            }
+        }
+
+        private static MethodHandle find(String className, String methodName, String... parameterTypes) {
+            try {
+                Class<?> owner = Class.forName(className);
+                Class<?>[] parameters = new Class<?>[parameterTypes.length];
+                for (int i = 0; i < parameterTypes.length; i++) {
+                    parameters[i] = Class.forName(parameterTypes[i]);
+                }
+                return MethodHandles.publicLookup().unreflect(owner.getMethod(methodName, parameters));
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return null;
+            }
+        }
+    }
 
     /**
      * 检测是否在Spring环境中
      */
     public static boolean isSpringEnvironment() {
-        try {
-            Class.forName(APPLICATION_CONTEXT_CLASS);
-            return true;
-        } catch (ClassNotFoundException e) {
-            return false;
-        }
+        return Handles.SPRING_PRESENT;
     }
 
     /**
      * 检测是否在Spring Web环境中
      */
     public static boolean isSpringWebEnvironment() {
-        try {
-            Class.forName(WEB_APPLICATION_CONTEXT_CLASS);
-            return true;
-        } catch (ClassNotFoundException e) {
-            return false;
-        }
+        return Handles.SPRING_WEB_PRESENT;
     }
 
     /**
@@ -52,6 +107,9 @@ public class SpringContextDetector {
         if (applicationContext != null) {
             return applicationContext;
         }
+        if (!isSpringEnvironment()) {
+            return null;
+        }
 
         synchronized (SpringContextDetector.class) {
             if (applicationContext != null) {
@@ -60,7 +118,7 @@ public class SpringContextDetector {
 
             try {
                 applicationContext = findApplicationContext();
-            } catch (Exception e) {
+            } catch (Throwable e) {
                 // 忽略异常
             }
 
@@ -68,75 +126,52 @@ public class SpringContextDetector {
         }
     }
 
-    private static Object findApplicationContext() throws Exception {
+    private static Object findApplicationContext() throws Throwable {
         // 方法1: 尝试通过WebApplicationContextUtils获取（Web环境）
-        if (isSpringWebEnvironment()) {
+        if (isSpringWebEnvironment() && Handles.GET_WEB_APPLICATION_CONTEXT != null) {
             try {
-                if (webApplicationContextUtilsClass == null) {
-                    webApplicationContextUtilsClass = Class.forName("org.springframework.web.context.support.WebApplicationContextUtils");
-                }
-
-                // 获取ServletContext
-                Class<?> servletContextClass = Class.forName("jakarta.servlet.ServletContext");
-                Method getServletContextMethod = null;
-
-                // 尝试获取ServletContext
                 Object servletContext = getServletContext();
                 if (servletContext != null) {
-                    Method getWebApplicationContextMethod = webApplicationContextUtilsClass.getMethod("getWebApplicationContext", servletContextClass);
-                    return getWebApplicationContextMethod.invoke(null, servletContext);
+                    return Handles.GET_WEB_APPLICATION_CONTEXT.invoke(servletContext);
                 }
-            } catch (Exception e) {
+            } catch (Throwable e) {
                 // 忽略，尝试其他方法
             }
         }
 
         // 方法2: 尝试通过ContextLoader获取
-        try {
-            if (contextLoaderClass == null) {
-                contextLoaderClass = Class.forName("org.springframework.web.context.ContextLoader");
-            }
-
-            Method getCurrentWebApplicationContextMethod = contextLoaderClass.getMethod("getCurrentWebApplicationContext");
-            Object context = getCurrentWebApplicationContextMethod.invoke(null);
-            if (context != null) {
-                return context;
+        if (Handles.GET_CURRENT_WEB_APPLICATION_CONTEXT != null) {
+            try {
+                Object context = Handles.GET_CURRENT_WEB_APPLICATION_CONTEXT.invoke();
+                if (context != null) {
+                    return context;
+                }
+            } catch (Throwable e) {
+                // 忽略，尝试其他方法
             }
-        } catch (Exception e) {
-            // 忽略，尝试其他方法
         }
 
         // 方法3: 如果有SpringContextHolder这样的工具类
-        try {
-            Class<?> springContextHolderClass = Class.forName("com.example.mask.spring.SpringContextHolder");
-            Method getApplicationContextMethod = springContextHolderClass.getMethod("getApplicationContext");
-            return getApplicationContextMethod.invoke(null);
-        } catch (ClassNotFoundException e) {
-            // 忽略，没有SpringContextHolder
-        } catch (Exception e) {
-            // 忽略异常
+        if (Handles.GET_CONTEXT_FROM_HOLDER != null) {
+            return Handles.GET_CONTEXT_FROM_HOLDER.invoke();
         }
 
         return null;
     }
 
-    private static Object getServletContext() throws Exception {
+    private static Object getServletContext() {
+        if (Handles.GET_REQUEST_ATTRIBUTES == null || Handles.GET_REQUEST == null
+                || Handles.GET_SERVLET_CONTEXT == null) {
+            return null;
+        }
         try {
             // 尝试通过RequestContextHolder获取
-            Class<?> requestContextHolderClass = Class.forName("org.springframework.web.context.request.RequestContextHolder");
-            Method getRequestAttributesMethod = requestContextHolderClass.getMethod("getRequestAttributes");
-            Object requestAttributes = getRequestAttributesMethod.invoke(null);
-
+            Object requestAttributes = Handles.GET_REQUEST_ATTRIBUTES.invoke();
             if (requestAttributes != null) {
-                Class<?> servletRequestAttributesClass = Class.forName("org.springframework.web.context.request.ServletRequestAttributes");
-                Method getRequestMethod = servletRequestAttributesClass.getMethod("getRequest");
-                Object request = getRequestMethod.invoke(requestAttributes);
-
-                Class<?> httpServletRequestClass = Class.forName("jakarta.servlet.http.HttpServletRequest");
-                Method getServletContextMethod = httpServletRequestClass.getMethod("getServletContext");
-                return getServletContextMethod.invoke(request);
+                Object request = Handles.GET_REQUEST.invoke(requestAttributes);
+                return Handles.GET_SERVLET_CONTEXT.invoke(request);
             }
-        } catch (Exception e) {
+        } catch (Throwable e) {
             // 忽略
         }
         return null;
@@ -148,14 +183,13 @@ public class SpringContextDetector {
     @SuppressWarnings("unchecked")
     public static <T> T getBean(Class<T> beanType) {
         Object context = getApplicationContext();
-        if (context == null) {
+        if (context == null || Handles.GET_BEAN == null) {
             return null;
         }
 
         try {
-            Method getBeanMethod = context.getClass().getMethod("getBean", Class.class);
-            return (T) getBeanMethod.invoke(context, beanType);
-        } catch (Exception e) {
+            return (T) Handles.GET_BEAN.invoke(context, beanType);
+        } catch (Throwable e) {
             return null;
         }
     }
@@ -166,14 +200,13 @@ public class SpringContextDetector {
     @SuppressWarnings("unchecked")
     public static <T> Map<String, T> getBeansOfType(Class<T> beanType) {
         Object context = getApplicationContext();
-        if (context == null) {
+        if (context == null || Handles.GET_BEANS_OF_TYPE == null) {
             return null;
         }
 
         try {
-            Method getBeansOfTypeMethod = context.getClass().getMethod("getBeansOfType", Class.class);
-            return (Map<String, T>) getBeansOfTypeMethod.invoke(context, beanType);
-        } catch (Exception e) {
+            return (Map<String, T>) Handles.GET_BEANS_OF_TYPE.invoke(context, beanType);
+        } catch (Throwable e) {
             return null;
         }
     }
@@ -184,14 +217,13 @@ public class SpringContextDetector {
     @SuppressWarnings("unchecked")
     public static <T> T getBean(String beanName, Class<T> beanType) {
         Object context = getApplicationContext();
-        if (context == null) {
+        if (context == null || Handles.GET_NAMED_BEAN == null) {
             return null;
         }
 
         try {
-            Method getBeanMethod = context.getClass().getMethod("getBean", String.class, Class.class);
-            return (T) getBeanMethod.invoke(context, beanName, beanType);
-        } catch (Exception e) {
+            return (T) Handles.GET_NAMED_BEAN.invoke(context, beanName, beanType);
+        } catch (Throwable e) {
             return null;
         }
     }
@@ -209,14 +241,13 @@ public class SpringContextDetector {
      */
     public static boolean containsBean(String beanName) {
         Object context = getApplicationContext();
-        if (context == null) {
+        if (context == null || Handles.CONTAINS_BEAN == null) {
             return false;
         }
 
         try {
-            Method containsBeanMethod = context.getClass().getMethod("containsBean", String.class);
-            return (Boolean) containsBeanMethod.invoke(context, beanName);
-        } catch (Exception e) {
+            return (boolean) Handles.CONTAINS_BEAN.invoke(context, beanName);
+        } catch (Throwable e) {
             return false;
         }
     }
@@ -227,4 +258,4 @@ public class SpringContextDetector {
     public static void setApplicationContext(Object context) {
         applicationContext = context;
     }
-}
\ No newline at end of file
+}
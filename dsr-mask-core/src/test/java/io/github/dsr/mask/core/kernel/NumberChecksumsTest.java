@@ -0,0 +1,111 @@
+package io.github.dsr.mask.core.kernel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Luhn 与 GB 11643 校验的已知正确 / 错误号码
+ *
+ * @author haiji
+ */
+class NumberChecksumsTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "4111111111111111", "5555555555554444", "378282246310005", "79927398713", "6212262502009182455"
+    })
+    void luhnAcceptsValidNumbers(String number) {
+        assertTrue(NumberChecksums.isLuhnValid(number, 0, number.length()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "4111111111111112", "79927398710", "6222020202020202", "411111111111111a", "4", ""
+    })
+    void luhnRejectsInvalidNumbers(String number) {
+        assertFalse(NumberChecksums.isLuhnValid(number, 0, number.length()));
+    }
+
+    @Test
+    void luhnChecksOnlyTheGivenRange() {
+        String text = "card:4111111111111111;";
+        assertTrue(NumberChecksums.isLuhnValid(text, 5, 21));
+        assertFalse(NumberChecksums.isLuhnValid(text, 4, 21));
+    }
+
+    @Test
+    void luhnStepMatchesRightToLeftReference() {
+        Random random = new Random(11643);
+        for (int n = 0; n < 10_000; n++) {
+            int length = 2 + random.nextInt(18);
+            int[] digits = new int[length];
+            int state = NumberChecksums.LUHN_INIT;
+            for (int i = 0; i < length; i++) {
+                digits[i] = random.nextInt(10);
+                state = NumberChecksums.luhnStep(state, i, digits[i]);
+            }
+            assertEquals(referenceLuhn(digits), NumberChecksums.isLuhnValid(state, length));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "11010519491231002X", "11010519491231002x", "44030419900307123X", "110101200002290018",
+            "310115198001010016"
+    })
+    void residentIdAcceptsValidNumbers(String id) {
+        assertTrue(NumberChecksums.isResidentIdValid(id, 0, id.length()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // 校验位错误
+            "110105194912310021", "440304199003071230",
+            // 出生日期非法：2 月 30 日、2001 年不是闰年、年份早于 1900
+            "110101200002300014", "110101200102290015", "110101189901010011",
+            // 位数或字符错误
+            "11010519491231002", "1101051949123100A2"
+    })
+    void residentIdRejectsInvalidNumbers(String id) {
+        assertFalse(NumberChecksums.isResidentIdValid(id, 0, id.length()));
+    }
+
+    @Test
+    void shortResidentIdChecksBirthDateOnly() {
+        assertTrue(NumberChecksums.isResidentIdValid("110105491231002", 0, 15));
+        assertFalse(NumberChecksums.isResidentIdValid("110105491331002", 0, 15));
+        assertFalse(NumberChecksums.isResidentIdValid("11010549123100X", 0, 15));
+    }
+
+    @Test
+    void residentIdStepMatchesRangeCheck() {
+        String id = "44030419900307123X";
+        int sum = NumberChecksums.ID_INIT;
+        for (int i = 0; i < 17; i++) {
+            sum = NumberChecksums.residentIdStep(sum, i, id.charAt(i) - '0');
+        }
+        // 第 18 位之后不再累加
+        assertEquals(sum, NumberChecksums.residentIdStep(sum, 17, 9));
+        assertTrue(NumberChecksums.isResidentIdValid(sum, 'X'));
+        assertFalse(NumberChecksums.isResidentIdValid(sum, '0'));
+    }
+
+    private static boolean referenceLuhn(int[] digits) {
+        int total = 0;
+        for (int i = 0; i < digits.length; i++) {
+            int digit = digits[digits.length - 1 - i];
+            if ((i & 1) == 1) {
+                digit = digit * 2 > 9 ? digit * 2 - 9 : digit * 2;
+            }
+            total += digit;
+        }
+        return total % 10 == 0;
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.dsr.mask.core.plan;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 键名规则字典树的匹配与合并
+ *
+ * @author haiji
+ */
+class KeyNameRulesTest {
+
+    @Test
+    void exactPatternsIgnoreCaseAndSeparators() {
+        KeyNameRules rules = KeyNameRules.parse("phone|mobile=PHONE");
+        assertEquals(2, rules.size());
+        assertEquals("PHONE", type(rules, "phone"));
+        assertEquals("PHONE", type(rules, "MOBILE"));
+        assertEquals("PHONE", type(rules, "pho_ne"));
+        assertEquals("PHONE", type(rules, "Pho-NE"));
+        assertNull(rules.find("phones"));
+        assertNull(rules.find("phon"));
+        assertNull(rules.find("telephone"));
+    }
+
+    @Test
+    void prefixAndSuffixPatterns() {
+        KeyNameRules rules = KeyNameRules.parse("card*=BANK:4,4;*IdCard=ID_CAR");
+        assertEquals("BANK", type(rules, "cardNo"));
+        assertEquals("BANK", type(rules, "CARD_NUMBER"));
+        assertEquals("BANK", type(rules, "card"));
+        assertArrayEquals(new String[]{"4", "4"}, rules.find("cardNo").getArgs());
+        assertEquals("ID_CAR", type(rules, "userIdCard"));
+        assertEquals("ID_CAR", type(rules, "user_id_card"));
+        assertEquals("ID_CAR", type(rules, "idcard"));
+        assertNull(rules.find("discard"));
+        assertNull(rules.find("idCardNo"));
+    }
+
+    @Test
+    void exactMatchWinsOverPrefixAndSuffix() {
+        KeyNameRules rules = KeyNameRules.parse("user*=NAME;*name=NAME_SUFFIX;username=EMAIL");
+        assertEquals("EMAIL", type(rules, "userName"));
+        assertEquals("NAME", type(rules, "userId"));
+        assertEquals("NAME_SUFFIX", type(rules, "nickName"));
+    }
+
+    @Test
+    void longestPatternWinsAndSuffixBreaksTies() {
+        KeyNameRules rules = KeyNameRules.parse("acc*=A;account*=B;*no=C;*cardno=D;bank*=E;*cardNo1=F");
+        // 前缀 account(7) 长于后缀 no(2)
+        assertEquals("B", type(rules, "accountNo"));
+        // 后缀 cardno(6) 长于前缀 acc(3)
+        assertEquals("D", type(rules, "accCardNo"));
+        // 后缀 cardno(6) 短于前缀 account(7)
+        assertEquals("B", type(rules, "accountCardNo"));
+        // 后缀 cardno1(7) 长于前缀 bank(4)
+        assertEquals("F", type(rules, "bankCardNo1"));
+        // 长度相同时后缀优先
+        KeyNameRules tie = KeyNameRules.parse("abc*=PREFIX;*xyz=SUFFIX");
+        assertEquals("SUFFIX", type(tie, "abcxyz"));
+    }
+
+    @Test
+    void laterPatternReplacesEarlier() {
+        Map<String, String> config = new LinkedHashMap<>();
+        config.put("phone", "PHONE");
+        config.put("PHONE", "EMAIL");
+        assertEquals("EMAIL", type(KeyNameRules.of(config), "phone"));
+    }
+
+    @Test
+    void unsupportedPatternsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> KeyNameRules.parse("*card*=BANK"));
+        assertThrows(IllegalArgumentException.class, () -> KeyNameRules.parse("ca*rd=BANK"));
+        assertThrows(IllegalArgumentException.class, () -> KeyNameRules.parse("*=BANK"));
+        assertThrows(IllegalArgumentException.class, () -> KeyNameRules.parse("phone"));
+        assertThrows(IllegalArgumentException.class, () -> KeyNameRules.parse("phone="));
+    }
+
+    @Test
+    void emptyRulesMatchNothing() {
+        assertSame(KeyNameRules.EMPTY, KeyNameRules.parse("  "));
+        assertSame(KeyNameRules.EMPTY, KeyNameRules.of(Map.of()));
+        assertTrue(KeyNameRules.EMPTY.isEmpty());
+        assertNull(KeyNameRules.EMPTY.find("phone"));
+        assertNull(KeyNameRules.parse("phone=PHONE").find(null));
+    }
+
+    @Test
+    void mergeKeepsBothAndReportsConflicts() {
+        KeyNameRules first = KeyNameRules.parse("phone|mobile=PHONE;card*=BANK:4,4");
+        KeyNameRules second = KeyNameRules.parse("MOBILE=EMAIL;*IdCard=ID_CAR;card*=BANK:4,4");
+        List<String> conflicts = new ArrayList<>();
+        KeyNameRules merged = first.merge(second, conflicts);
+
+        assertEquals("PHONE", type(merged, "phone"));
+        assertEquals("EMAIL", type(merged, "mobile"));
+        assertEquals("BANK", type(merged, "cardNo"));
+        assertEquals("ID_CAR", type(merged, "userIdCard"));
+        assertEquals(List.of("MOBILE: PHONE -> EMAIL"), conflicts);
+        assertSame(first, first.merge(KeyNameRules.EMPTY, conflicts));
+        assertSame(second, KeyNameRules.EMPTY.merge(second, conflicts));
+    }
+
+    @Test
+    void matchesManyPatterns() {
+        StringBuilder spec = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            spec.append("field").append(i).append("=S").append(i).append(';');
+            spec.append('*').append("tail").append(i).append("=T").append(i).append(';');
+        }
+        KeyNameRules rules = KeyNameRules.parse(spec.toString());
+        assertEquals(1000, rules.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals("S" + i, type(rules, "field" + i));
+            assertEquals("T" + i, type(rules, "my_tail" + i));
+        }
+        assertNull(rules.find("field500"));
+    }
+
+    private static String type(KeyNameRules rules, String key) {
+        StrategyBinding binding = rules.find(key);
+        return binding != null ? binding.getStrategyType() : null;
+    }
+}
@@ -1,5 +1,7 @@
 package io.github.logger.mask.log4j;
 
+import io.github.dsr.mask.core.util.ObjectMasker;
+
 /**
  * 日志消息格式化
  * @author haiji
@@ -43,4 +45,42 @@ public class Log4jFormatMessage {
 
         return result.toString();
     }
+
+    /**
+     * 脱敏并格式化日志消息，直接追加到输出缓冲区
+     * <p>
+     * 占位符按模板顺序填充，参数通过 {@link ObjectMasker#maskTo(Object, StringBuilder)} 写入，
+     * 不会再在已填充的参数中查找占位符；未使用的参数以空格分隔追加到末尾
+     *
+     * @param pattern   日志消息模板
+     * @param arguments 日志参数
+     * @param out       输出缓冲区
+     */
+    public static void formatMaskedTo(String pattern, Object[] arguments, StringBuilder out) {
+        int start = out.length();
+        int from = 0;
+        int argIndex = 0;
+
+        while (argIndex < arguments.length) {
+            int placeholderIndex = pattern.indexOf("{}", from);
+            if (placeholderIndex == -1) {
+                break;
+            }
+
+            out.append(pattern, from, placeholderIndex);
+            ObjectMasker.maskTo(arguments[argIndex], out);
+            from = placeholderIndex + 2;
+            argIndex++;
+        }
+        out.append(pattern, from, pattern.length());
+
+        // 如果还有未使用的参数，添加到末尾
+        while (argIndex < arguments.length) {
+            if (out.length() > start && out.charAt(out.length() - 1) != ' ') {
+                out.append(' ');
+            }
+            ObjectMasker.maskTo(arguments[argIndex], out);
+            argIndex++;
+        }
+    }
 }
@@ -1,5 +1,8 @@
 package io.github.logger.mask.log4j.plugin;
 
+import io.github.dsr.mask.core.kernel.FreeTextMasker;
+import io.github.dsr.mask.core.plan.KeyNameRules;
+import io.github.dsr.mask.core.util.MaskStrategies;
 import io.github.dsr.mask.core.util.ObjectMasker;
 import io.github.logger.mask.log4j.Log4jFormatMessage;
 import org.apache.logging.log4j.LogManager;
@@ -12,10 +15,15 @@ import org.apache.logging.log4j.core.pattern.ConverterKeys;
 import org.apache.logging.log4j.core.pattern.LogEventPatternConverter;
 import org.apache.logging.log4j.core.pattern.PatternConverter;
 import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.message.ReusableParameterizedMessage;
 
 
 /**
  * 脱敏日志消息转换器
+ * <p>
+ * 使用 {@code %mask{freetext}} 时，没有参数的消息按自由文本识别手机号、身份证号、银行卡号和邮箱并脱敏；
+ * 使用 {@code %mask{keys=phone|mobile=PHONE;*IdCard=ID_CAR}} 时，参数中 Map 的值按键名规则脱敏
  * @author haiji
  */
 @Plugin(name = "MaskingConverter", category = PatternConverter.CATEGORY)
@@ -24,60 +32,86 @@ public class MaskingConverter extends LogEventPatternConverter {
 
     private static final Logger LOGGER = LogManager.getLogger(MaskingConverter.class);
 
+    private static final String FREE_TEXT_OPTION = "freetext";
+
+    private static final String KEY_RULES_OPTION = "keys=";
+
+    /**
+     * 没有参数的消息是否按自由文本脱敏
+     */
+    private final boolean freeText;
+
     protected MaskingConverter(String name, String style) {
+        this(name, style, false);
+    }
+
+    protected MaskingConverter(String name, String style, boolean freeText) {
         super(name, style);
+        this.freeText = freeText;
     }
 
     /**
-     * 脱敏日志消息
+     * 脱敏日志消息，参数直接脱敏写入 toAppendTo
      * @param event
      * @param toAppendTo
      */
     @Override
     public void format(LogEvent event, StringBuilder toAppendTo) {
+        int start = toAppendTo.length();
         try {
             Message message = event.getMessage();
-            if (message == null || message.getFormattedMessage() == null) {
+            if (message == null) {
                 return;
             }
 
-            String formattedMessage = message.getFormattedMessage();
             Object[] parameters = message.getParameters();
 
             // 如果没有参数，直接脱敏整个消息
             if (parameters == null || parameters.length == 0) {
-                String maskedMessage = ObjectMasker.maskObject(formattedMessage);
-                toAppendTo.append(maskedMessage);
+                String formattedMessage = message.getFormattedMessage();
+                if (formattedMessage == null) {
+                    return;
+                }
+                if (freeText) {
+                    FreeTextMasker.maskTo(formattedMessage, toAppendTo);
+                } else {
+                    ObjectMasker.maskTo(formattedMessage, toAppendTo);
+                }
                 return;
             }
 
-            // 脱敏所有参数
-            Object[] maskedParameters = new Object[parameters.length];
-            for (int i = 0; i < parameters.length; i++) {
-                maskedParameters[i] = ObjectMasker.maskObject(parameters[i]);
+            // 关键：使用原始消息格式，参数脱敏后直接写入
+            String format = message.getFormat();
+            if (format != null && isParameterized(message)) {
+                try {
+                    Log4jFormatMessage.formatMaskedTo(format, parameters, toAppendTo);
+                    return;
+                } catch (Exception e) {
+                    toAppendTo.setLength(start);
+                }
             }
-            // 关键：使用原始消息格式和脱敏参数重新格式化
-            try {
-                // 使用原始格式和脱敏后的参数重新格式化
-                String result = Log4jFormatMessage.formatMessage(((MutableLogEvent) message).getFormat(), maskedParameters);
-                toAppendTo.append(result);
-            } catch (Exception e) {
-                // 备用方案：手动替换占位符
-                String result = formattedMessage;
-                for (Object param : maskedParameters) {
-                    int index = result.indexOf("{}");
-                    if (index != -1) {
-                        result = result.substring(0, index) + param +
-                                result.substring(index + 2);
-                    } else {
-                        break;
-                    }
+
+            String formattedMessage = message.getFormattedMessage();
+            if (formattedMessage == null) {
+                return;
+            }
+
+            // 备用方案：手动替换占位符
+            String result = formattedMessage;
+            for (Object param : parameters) {
+                int index = result.indexOf("{}");
+                if (index != -1) {
+                    result = result.substring(0, index) + ObjectMasker.maskObject(param) +
+                            result.substring(index + 2);
+                } else {
+                    break;
                 }
-                toAppendTo.append(result);
             }
+            toAppendTo.append(result);
 
         } catch (Exception e) {
             LOGGER.error("Failed to mask log message", e);
+            toAppendTo.setLength(start);
             try {
                 toAppendTo.append(event.getMessage().getFormattedMessage());
             } catch (Exception ex) {
@@ -86,14 +120,47 @@ public class MaskingConverter extends LogEventPatternConverter {
         }
     }
 
+    /**
+     * 是否为 {} 占位符格式的消息
+     */
+    private static boolean isParameterized(Message message) {
+        return message instanceof ParameterizedMessage
+                || message instanceof ReusableParameterizedMessage
+                || message instanceof MutableLogEvent;
+    }
+
 
     /**
      * 关键：必须添加这个静态工厂方法
      * @param config
-     * @param options
+     * @param options 转换器选项，支持 {@code freetext}，以及 Map 键名规则 {@code keys=phone|mobile=PHONE;*IdCard=ID_CAR}
+     *                （全局生效，格式见 {@link KeyNameRules#parse(String)}）
      * @return
      */
     public static MaskingConverter newInstance(final Configuration config, final String[] options) {
-        return new MaskingConverter("mask", null);
+        boolean freeText = false;
+        if (options != null) {
+            for (String option : options) {
+                if (option == null) {
+                    continue;
+                }
+                String trimmed = option.trim();
+                if (FREE_TEXT_OPTION.equalsIgnoreCase(trimmed)) {
+                    freeText = true;
+                } else if (trimmed.regionMatches(true, 0, KEY_RULES_OPTION, 0, KEY_RULES_OPTION.length())) {
+                    try {
+                        // 与其它配置的规则合并，同一个模式配置了不同的策略时以后配置的为准
+                        String spec = trimmed.substring(KEY_RULES_OPTION.length());
+                        KeyNameRules rules = MaskStrategies.parseKeyRules(spec);
+                        for (String conflict : MaskStrategies.mergeKeyRules(rules)) {
+                            LOGGER.warn("Conflicting mask key rules, the later one wins: {}", conflict);
+                        }
+                    } catch (IllegalArgumentException e) {
+                        LOGGER.error("Invalid mask key rules: {}", e.getMessage());
+                    }
+                }
+            }
+        }
+        return new MaskingConverter("mask", null, freeText);
     }
 }
\ No newline at end of file
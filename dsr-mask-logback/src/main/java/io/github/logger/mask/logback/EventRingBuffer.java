@@ -0,0 +1,143 @@
+package io.github.logger.mask.logback;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 有界多生产者 / 多消费者环形队列
+ * <p>
+ * 每个槽位带一个序号：序号等于写入位置时可写，等于写入位置 + 1 时可读，读取后推进一圈。
+ * 生产者和消费者各自通过 CAS 抢占位置，不加锁、入队不分配对象。
+ * 消费者一次取走一段连续的可读元素，并得到这段元素的起始位置，用于按入队顺序输出
+ *
+ * @param <E> 元素类型
+ * @author haiji
+ */
+final class EventRingBuffer<E> {
+
+    private final Object[] items;
+
+    private final AtomicLongArray sequences;
+
+    private final int mask;
+
+    private final AtomicLong head = new AtomicLong();
+
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity 容量，向上取整为 2 的幂
+     */
+    EventRingBuffer(int capacity) {
+        int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.items = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 入队
+     *
+     * @param item 元素
+     * @return 队列已满时返回 false
+     */
+    boolean offer(E item) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items[index] = item;
+                    // 序号的 volatile 写发布元素
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * 取走从队首开始的一段连续元素
+     *
+     * @param batch 接收元素的批次
+     * @return 队列为空（或队首元素尚未写完）时返回 false
+     */
+    @SuppressWarnings("unchecked")
+    boolean drainTo(Batch<E> batch) {
+        int max = batch.items.length;
+        while (true) {
+            long position = head.get();
+            int count = 0;
+            while (count < max && sequences.get((int) (position + count) & mask) == position + count + 1) {
+                count++;
+            }
+            if (count == 0) {
+                return false;
+            }
+            if (!head.compareAndSet(position, position + count)) {
+                continue;
+            }
+            for (int i = 0; i < count; i++) {
+                int index = (int) (position + i) & mask;
+                batch.items[i] = (E) items[index];
+                items[index] = null;
+                // 槽位推进一圈，交还给生产者
+                sequences.set(index, position + i + items.length);
+            }
+            batch.start = position;
+            batch.size = count;
+            return true;
+        }
+    }
+
+    int capacity() {
+        return items.length;
+    }
+
+    /**
+     * 当前元素数量，并发修改时为近似值
+     */
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, items.length));
+    }
+
+    boolean isEmpty() {
+        return tail.get() == head.get();
+    }
+
+    /**
+     * 消费者复用的批次
+     */
+    static final class Batch<E> {
+
+        final E[] items;
+
+        /**
+         * 第一个元素的入队位置
+         */
+        long start;
+
+        int size;
+
+        Batch(E[] items) {
+            this.items = items;
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                items[i] = null;
+            }
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.logger.mask.logback;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Context;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 同一个 {@code LoggerContext} 内共享的脱敏事件缓存
+ * <p>
+ * 一个事件通常会依次交给多个 appender（控制台、文件、Socket），每个 appender 的
+ * {@link SafeMaskingPatternLayout} 取到的是同一个 {@link MaskedLoggingEvent}，
+ * 消息格式化和参数脱敏在其中只计算一次，脱敏开销不随 appender 数量增加。
+ * <p>
+ * 按原始事件的 identityHashCode 直接映射到固定数量的槽位，冲突时覆盖；命中按对象引用判断，
+ * 不会把不同的事件误认为同一个。最多保留 {@value #SIZE} 个最近的事件，不加锁。
+ * <p>
+ * 槽位只弱引用脱敏事件：事件交给各个 appender 期间由调用方强引用，输出完成后随时可以回收，
+ * 缓存不会长期持有未脱敏的参数对象；两次输出之间恰好发生 GC 时重新包装，结果不变
+ *
+ * @author haiji
+ */
+final class MaskedEventCache {
+
+    /**
+     * 在 {@link Context#putObject(String, Object)} 中的键
+     */
+    static final String CONTEXT_KEY = MaskedEventCache.class.getName();
+
+    private static final int SIZE = 64;
+
+    private final AtomicReferenceArray<WeakReference<MaskedLoggingEvent>> slots = new AtomicReferenceArray<>(SIZE);
+
+    private MaskedEventCache() {
+    }
+
+    /**
+     * 获取上下文中共享的缓存，不存在时创建
+     *
+     * @param context logback 上下文，为 null 时返回 null
+     * @return 缓存
+     */
+    static MaskedEventCache of(Context context) {
+        if (context == null) {
+            return null;
+        }
+        synchronized (context) {
+            Object cache = context.getObject(CONTEXT_KEY);
+            if (cache instanceof MaskedEventCache shared) {
+                return shared;
+            }
+            MaskedEventCache created = new MaskedEventCache();
+            context.putObject(CONTEXT_KEY, created);
+            return created;
+        }
+    }
+
+    /**
+     * 获取事件的脱敏包装，已经被其它 layout 包装过时直接复用；
+     * 事件本身已经是脱敏事件（来自 {@link MaskingAsyncAppender}）时原样返回
+     *
+     * @param cache        缓存，为 null 时每次新建
+     * @param event        原始日志事件
+     * @param maskFreeText 没有参数的消息是否按自由文本脱敏
+     * @return 脱敏事件
+     */
+    static MaskedLoggingEvent wrap(MaskedEventCache cache, ILoggingEvent event, boolean maskFreeText) {
+        if (event instanceof MaskedLoggingEvent masked) {
+            return masked;
+        }
+        if (cache == null) {
+            return new MaskedLoggingEvent(event, maskFreeText);
+        }
+        int slot = ((System.identityHashCode(event) << 1) | (maskFreeText ? 1 : 0)) & (SIZE - 1);
+        WeakReference<MaskedLoggingEvent> reference = cache.slots.get(slot);
+        MaskedLoggingEvent cached = reference != null ? reference.get() : null;
+        if (cached != null && cached.getOriginalEvent() == event && cached.isMaskFreeText() == maskFreeText) {
+            return cached;
+        }
+        MaskedLoggingEvent created = new MaskedLoggingEvent(event, maskFreeText);
+        cache.slots.lazySet(slot, new WeakReference<>(created));
+        return created;
+    }
+}
@@ -4,29 +4,123 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.classic.spi.IThrowableProxy;
 import ch.qos.logback.classic.spi.LoggerContextVO;
+import io.github.dsr.mask.core.kernel.FreeTextMasker;
+import io.github.dsr.mask.core.util.MaskStrategies;
+import io.github.dsr.mask.core.util.ObjectMasker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Marker;
 import org.slf4j.event.KeyValuePair;
-import org.slf4j.helpers.FormattingTuple;
-import org.slf4j.helpers.MessageFormatter;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * 线程安全的日志事件包装器，用于安全地脱敏参数
+ * <p>
+ * 所有脱敏都延迟到对应的访问方法被调用时：布局中没有 {@code %msg} 时参数不会被脱敏。
+ * 格式化消息时只有被占位符引用的参数才会脱敏并直接写入消息缓冲区，末尾多余的参数（如异常）不会被遍历；
+ * {@link #getArgumentArray()} 只在被调用时才生成脱敏后的参数，其中的 {@link Throwable} 原样保留。
+ * 开启自由文本脱敏时，没有参数的消息由 {@link FreeTextMasker} 识别并脱敏。
+ * MDC 和键值对（SLF4J 2 的 {@code addKeyValue}）的值按键名规则脱敏，键值对中的对象按 {@link ObjectMasker} 输出。
+ * 结果通过 volatile 字段无锁发布，并发调用时可能重复计算，但结果相同
  */
 public class MaskedLoggingEvent implements ILoggingEvent {
     private static final Logger log =
             LoggerFactory.getLogger(MaskedLoggingEvent.class);
     private final ILoggingEvent originalEvent;
-    private final Object[] maskedArgs;
-    private String cachedFormattedMessage;
+    /**
+     * 原始参数，或调用方已经脱敏的参数
+     */
+    private final Object[] arguments;
+    private final boolean argumentsMasked;
+    private final boolean maskFreeText;
+    private volatile Object[] maskedArgs;
+    private volatile String cachedFormattedMessage;
+    /**
+     * 是否已经通过 {@link #appendFormattedMessage(StringBuilder)} 直接格式化过一次
+     */
+    private volatile boolean formattedInPlace;
+    private volatile Map<String, String> maskedMdc;
+    private volatile List<KeyValuePair> maskedKeyValuePairs;
+
+    /**
+     * 使用原始参数，格式化时再脱敏
+     *
+     * @param originalEvent 原始日志事件
+     */
+    public MaskedLoggingEvent(ILoggingEvent originalEvent) {
+        this(originalEvent, false);
+    }
 
+    /**
+     * 使用原始参数，格式化时再脱敏
+     *
+     * @param originalEvent 原始日志事件
+     * @param maskFreeText  没有参数的消息是否按自由文本脱敏
+     */
+    public MaskedLoggingEvent(ILoggingEvent originalEvent, boolean maskFreeText) {
+        this(originalEvent, originalEvent.getArgumentArray(), false, maskFreeText);
+    }
+
+    /**
+     * 使用调用方已经脱敏的参数
+     *
+     * @param originalEvent 原始日志事件
+     * @param maskedArgs    已脱敏的参数
+     */
     public MaskedLoggingEvent(ILoggingEvent originalEvent, Object[] maskedArgs) {
+        this(originalEvent, maskedArgs, true, false);
+    }
+
+    private MaskedLoggingEvent(ILoggingEvent originalEvent, Object[] arguments, boolean argumentsMasked,
+                               boolean maskFreeText) {
         this.originalEvent = originalEvent;
-        this.maskedArgs = maskedArgs;
+        this.arguments = arguments;
+        this.argumentsMasked = argumentsMasked;
+        this.maskedArgs = argumentsMasked ? arguments : null;
+        this.maskFreeText = maskFreeText;
+    }
+
+    /**
+     * 在调用线程中复制参数，脱敏留到格式化时在其它线程进行，供 {@link MaskingAsyncAppender} 使用
+     * <p>
+     * 参数通过 {@link ObjectMasker#snapshot(Object)} 复制，业务代码之后修改参数不影响输出；
+     * {@link Throwable} 不复制，交给 ThrowableProxy 输出
+     *
+     * @param originalEvent 原始日志事件
+     * @param maskFreeText  没有参数的消息是否按自由文本脱敏
+     * @return 脱敏事件
+     */
+    static MaskedLoggingEvent snapshot(ILoggingEvent originalEvent, boolean maskFreeText) {
+        Object[] arguments = originalEvent.getArgumentArray();
+        if (arguments != null) {
+            Object[] copied = new Object[arguments.length];
+            for (int i = 0; i < arguments.length; i++) {
+                Object argument = arguments[i];
+                copied[i] = argument instanceof Throwable ? argument : ObjectMasker.snapshot(argument);
+            }
+            arguments = copied;
+        }
+        return new MaskedLoggingEvent(originalEvent, arguments, false, maskFreeText);
+    }
+
+    ILoggingEvent getOriginalEvent() {
+        return originalEvent;
+    }
+
+    boolean isMaskFreeText() {
+        return maskFreeText;
+    }
+
+    /**
+     * 原始参数（或快照），供结构化输出参数的 {@link MaskingJsonEncoder} 使用；调用方已经脱敏时为脱敏结果
+     */
+    Object[] getArguments() {
+        return arguments;
     }
 
     @Override
@@ -36,7 +130,18 @@ public class MaskedLoggingEvent implements ILoggingEvent {
 
     @Override
     public Object[] getArgumentArray() {
-        return maskedArgs;
+        Object[] result = maskedArgs;
+        if (result == null && arguments != null) {
+            result = new Object[arguments.length];
+            for (int i = 0; i < arguments.length; i++) {
+                Object argument = arguments[i];
+                // 异常交给 ThrowableProxy 输出，不展开成字符串
+                result[i] = argument == null || argument instanceof Throwable
+                        ? argument : ObjectMasker.maskObject(argument);
+            }
+            maskedArgs = result;
+        }
+        return result;
     }
 
     @Override
@@ -89,12 +194,17 @@ public class MaskedLoggingEvent implements ILoggingEvent {
 
     @Override
     public Map<String, String> getMDCPropertyMap() {
-        return originalEvent.getMDCPropertyMap();
+        Map<String, String> result = maskedMdc;
+        if (result == null) {
+            result = maskMdc(originalEvent.getMDCPropertyMap());
+            maskedMdc = result;
+        }
+        return result;
     }
 
     @Override
     public Map<String, String> getMdc() {
-        return originalEvent.getMdc();
+        return getMDCPropertyMap();
     }
 
     @Override
@@ -120,7 +230,62 @@ public class MaskedLoggingEvent implements ILoggingEvent {
      */
     @Override
     public List<KeyValuePair> getKeyValuePairs() {
-        return originalEvent.getKeyValuePairs();
+        List<KeyValuePair> result = maskedKeyValuePairs;
+        if (result == null) {
+            result = maskKeyValuePairs(originalEvent.getKeyValuePairs());
+            maskedKeyValuePairs = result;
+        }
+        return result;
+    }
+
+    /**
+     * 键名命中规则的 MDC 值替换为脱敏结果，没有命中时返回原 Map
+     */
+    private static Map<String, String> maskMdc(Map<String, String> mdc) {
+        if (mdc == null || mdc.isEmpty() || MaskStrategies.getKeyRules().isEmpty()) {
+            return mdc;
+        }
+        Map<String, String> masked = null;
+        for (Map.Entry<String, String> entry : mdc.entrySet()) {
+            String value = ObjectMasker.maskByKey(entry.getKey(), entry.getValue());
+            if (value != null) {
+                if (masked == null) {
+                    masked = new HashMap<>(mdc);
+                }
+                masked.put(entry.getKey(), value);
+            }
+        }
+        return masked != null ? Collections.unmodifiableMap(masked) : mdc;
+    }
+
+    /**
+     * 键名命中规则的值替换为脱敏结果，其它对象按 {@link ObjectMasker} 输出，字符串和包装类型原样保留；
+     * 没有需要替换的值时返回原列表
+     */
+    private static List<KeyValuePair> maskKeyValuePairs(List<KeyValuePair> pairs) {
+        if (pairs == null || pairs.isEmpty()) {
+            return pairs;
+        }
+        List<KeyValuePair> masked = null;
+        for (int i = 0; i < pairs.size(); i++) {
+            KeyValuePair pair = pairs.get(i);
+            Object value = ObjectMasker.maskByKey(pair.key, pair.value);
+            if (value == null) {
+                value = isPlainValue(pair.value) ? pair.value : ObjectMasker.maskObject(pair.value);
+            }
+            if (value != pair.value && masked == null) {
+                masked = new ArrayList<>(pairs.subList(0, i));
+            }
+            if (masked != null) {
+                masked.add(value == pair.value ? pair : new KeyValuePair(pair.key, value));
+            }
+        }
+        return masked != null ? Collections.unmodifiableList(masked) : pairs;
+    }
+
+    private static boolean isPlainValue(Object value) {
+        return value == null || value instanceof CharSequence || value instanceof Number
+                || value instanceof Boolean || value instanceof Character || value instanceof Enum<?>;
     }
 
     /**
@@ -133,60 +298,85 @@ public class MaskedLoggingEvent implements ILoggingEvent {
 
     @Override
     public String getFormattedMessage() {
-        if (cachedFormattedMessage == null) {
-            synchronized (this) {
-                if (cachedFormattedMessage == null) {
-                    cachedFormattedMessage = formatMessageWithFallback();
-                }
+        String message = cachedFormattedMessage;
+        if (message == null) {
+            // 不加锁：String 不可变，重复计算的结果相同
+            message = formatMessageWithFallback();
+            cachedFormattedMessage = message;
+        }
+        return message;
+    }
+
+    /**
+     * 把脱敏后的消息追加到缓冲区，供 {@link MaskingEncoder} 使用
+     * <p>
+     * 第一次调用时参数直接脱敏写入 {@code out}，不生成消息字符串；同一事件再次被格式化时
+     * （多个 appender 共享事件）改为生成并缓存字符串，参数最多脱敏两次
+     *
+     * @param out 输出缓冲区
+     */
+    void appendFormattedMessage(StringBuilder out) {
+        String message = cachedFormattedMessage;
+        String messagePattern = originalEvent.getMessage();
+        if (message != null || formattedInPlace || messagePattern == null
+                || arguments == null || arguments.length == 0) {
+            out.append(message != null ? message : getFormattedMessage());
+            return;
+        }
+        formattedInPlace = true;
+        int start = out.length();
+        try {
+            MaskingMessageFormatter.Template template = MaskingMessageFormatter.template(messagePattern);
+            if (template.isLiteral()) {
+                out.append(messagePattern);
+            } else {
+                MaskingMessageFormatter.formatTo(template, arguments, argumentsMasked, out);
             }
+        } catch (Exception e) {
+            out.setLength(start);
+            out.append(getFormattedMessage());
         }
-        return cachedFormattedMessage;
     }
 
     private String formatMessageWithFallback() {
         String messagePattern = originalEvent.getMessage();
 
         // 快速路径：没有参数或参数为空
-        if (messagePattern == null || maskedArgs == null || maskedArgs.length == 0) {
-            return originalEvent.getFormattedMessage();
+        if (messagePattern == null || arguments == null || arguments.length == 0) {
+            String formattedMessage = originalEvent.getFormattedMessage();
+            return maskFreeText ? FreeTextMasker.mask(formattedMessage) : formattedMessage;
         }
 
         try {
-            // 尝试1：使用MessageFormatter格式化
-            return tryFormatWithMessageFormatter(messagePattern, maskedArgs);
+            // 尝试1：流式格式化，参数直接脱敏写入消息
+            return formatWithMaskedArguments(messagePattern);
         } catch (Exception e1) {
             log.debug("MessageFormatter格式化失败，尝试String.format", e1);
 
+            Object[] args = getArgumentArray();
             try {
                 // 尝试2：使用String.format格式化（兼容%格式）
-                return tryFormatWithStringFormat(messagePattern, maskedArgs);
+                return tryFormatWithStringFormat(messagePattern, args);
             } catch (Exception e2) {
                 log.debug("String.format格式化失败", e2);
 
                 // 尝试3：简单拼接（最后的回退方案）
-                return fallbackToSimpleFormat(messagePattern, maskedArgs);
+                return fallbackToSimpleFormat(messagePattern, args);
             }
         }
     }
 
-    private String tryFormatWithMessageFormatter(String pattern, Object[] args) {
-        int placeholderCount = countPlaceholders(pattern);
+    private String formatWithMaskedArguments(String pattern) {
+        MaskingMessageFormatter.Template template = MaskingMessageFormatter.template(pattern);
 
-        if (placeholderCount == 0) {
+        if (template.isLiteral()) {
             return pattern;
         }
 
-        // 调整参数数量以匹配占位符
-        Object[] adjustedArgs = adjustArguments(args, placeholderCount);
-
-        FormattingTuple result = MessageFormatter.arrayFormat(pattern, adjustedArgs);
-
-        // 处理异常
-        if (result.getThrowable() != null) {
-            throw new RuntimeException("格式化失败", result.getThrowable());
-        }
-
-        return result.getMessage();
+        // 占位符多于参数时以 null 填充，多余的参数不输出也不脱敏
+        StringBuilder sb = new StringBuilder(pattern.length() + 64 * template.getPlaceholderCount());
+        MaskingMessageFormatter.formatTo(template, arguments, argumentsMasked, sb);
+        return sb.toString();
     }
 
     private String tryFormatWithStringFormat(String pattern, Object[] args) {
@@ -214,39 +404,4 @@ public class MaskedLoggingEvent implements ILoggingEvent {
         return result;
     }
 
-    private Object[] adjustArguments(Object[] originalArgs, int targetCount) {
-        if (originalArgs.length == targetCount) {
-            return originalArgs;
-        }
-
-        Object[] adjustedArgs = new Object[targetCount];
-
-        if (originalArgs.length > targetCount) {
-            // 截断多余参数
-            System.arraycopy(originalArgs, 0, adjustedArgs, 0, targetCount);
-        } else {
-            // 用null填充不足的参数
-            System.arraycopy(originalArgs, 0, adjustedArgs, 0, originalArgs.length);
-            for (int i = originalArgs.length; i < targetCount; i++) {
-                adjustedArgs[i] = null;
-            }
-        }
-
-        return adjustedArgs;
-    }
-
-    private int countPlaceholders(String message) {
-        if (message == null) {
-            return 0;
-        }
-
-        int count = 0;
-        int index = 0;
-        while ((index = message.indexOf("{}", index)) != -1) {
-            count++;
-            index += 2;
-        }
-        return count;
-    }
-
 }
\ No newline at end of file
@@ -0,0 +1,495 @@
+package io.github.logger.mask.logback;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 异步脱敏 appender
+ * <p>
+ * 业务线程只复制日志参数（{@link io.github.dsr.mask.core.util.ObjectMasker#snapshot(Object)}，
+ * 不调用策略、不生成字符串）并放入有界环形队列；多个后台线程按批取出事件，并行完成参数脱敏和消息格式化，
+ * 再按入队顺序交给挂载的 appender 输出。挂载的 appender 使用 {@link SafeMaskingPatternLayout}
+ * 或 {@link MaskingEncoder} 时直接复用已脱敏的消息，不会重复脱敏。
+ * <p>
+ * 队列满时默认阻塞业务线程，{@code neverBlock} 为 true 时丢弃；剩余容量低于 {@code discardingThreshold}
+ * 时丢弃 INFO 及以下级别的事件，与 logback 的 {@code AsyncAppender} 一致。
+ * 队列深度、丢弃数量等指标通过 getter 暴露
+ * <pre>{@code
+ * <appender name="ASYNC" class="io.github.logger.mask.logback.MaskingAsyncAppender">
+ *     <queueSize>1024</queueSize>
+ *     <workerCount>2</workerCount>
+ *     <appender-ref ref="FILE"/>
+ * </appender>
+ * }</pre>
+ *
+ * @author haiji
+ */
+public class MaskingAsyncAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    public static final int DEFAULT_QUEUE_SIZE = 1024;
+
+    public static final int DEFAULT_WORKER_COUNT = 2;
+
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    public static final int DEFAULT_MAX_FLUSH_TIME = 1000;
+
+    private static final int UNDEFINED = -1;
+
+    /**
+     * 队列满时阻塞的业务线程每次等待的时间
+     */
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * 空闲线程等待新事件的最长时间，唤醒信号丢失时的兜底
+     */
+    private static final long IDLE_WAIT_MILLIS = 100;
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+
+    private int workerCount = DEFAULT_WORKER_COUNT;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private int discardingThreshold = UNDEFINED;
+
+    private int maxFlushTime = DEFAULT_MAX_FLUSH_TIME;
+
+    private boolean neverBlock;
+
+    private boolean includeCallerData;
+
+    private boolean maskFreeText;
+
+    private EventRingBuffer<MaskedLoggingEvent> buffer;
+
+    private Thread[] workers;
+
+    private volatile boolean running;
+
+    /**
+     * 空闲线程的等待与唤醒
+     */
+    private final ReentrantLock idleLock = new ReentrantLock();
+
+    private final Condition notEmpty = idleLock.newCondition();
+
+    private final AtomicInteger idleWorkers = new AtomicInteger();
+
+    /**
+     * 按入队顺序输出：只有起始位置等于 {@code nextToEmit} 的批次可以输出
+     */
+    private final Object emitLock = new Object();
+
+    private long nextToEmit;
+
+    private final LongAdder droppedCount = new LongAdder();
+
+    private final LongAdder processedCount = new LongAdder();
+
+    private final LongAccumulator maxQueueDepth = new LongAccumulator(Math::max, 0);
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (appenderCount() == 0) {
+            addError("No attached appenders found.");
+            return;
+        }
+        if (queueSize < 1 || workerCount < 1 || batchSize < 1) {
+            addError("Invalid queueSize " + queueSize + ", workerCount " + workerCount
+                    + " or batchSize " + batchSize);
+            return;
+        }
+        buffer = new EventRingBuffer<>(queueSize);
+        if (discardingThreshold == UNDEFINED) {
+            discardingThreshold = buffer.capacity() / 5;
+        }
+        nextToEmit = 0;
+        running = true;
+        workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "MaskingAsyncAppender-Worker-" + getName() + "-" + i);
+            worker.setDaemon(true);
+            workers[i] = worker;
+        }
+        super.start();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        addInfo("Setting discardingThreshold to " + discardingThreshold);
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        // 不再接收新事件，工作线程输出完队列中剩余的事件后退出
+        super.stop();
+        running = false;
+        signalAll();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxFlushTime);
+        try {
+            for (Thread worker : workers) {
+                if (maxFlushTime <= 0) {
+                    worker.join();
+                } else {
+                    TimeUnit.NANOSECONDS.timedJoin(worker, deadline - System.nanoTime());
+                }
+            }
+            int left = buffer.size();
+            if (left > 0) {
+                addWarn("Max flush time (" + maxFlushTime + " ms) exceeded. " + left
+                        + " queued events were possibly discarded.");
+            } else {
+                addInfo("Queue flush finished successfully within timeout.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            addError("Failed to join worker threads. " + buffer.size() + " queued events may be discarded.", e);
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (buffer.capacity() - buffer.size() < discardingThreshold && isDiscardable(event)) {
+            droppedCount.increment();
+            return;
+        }
+        MaskedLoggingEvent masked = preprocess(event);
+        if (!buffer.offer(masked) && (neverBlock || !offerBlocking(masked))) {
+            droppedCount.increment();
+            return;
+        }
+        maxQueueDepth.accumulate(buffer.size());
+        if (idleWorkers.get() > 0) {
+            signalOne();
+        }
+    }
+
+    /**
+     * 在业务线程中固定事件中依赖调用上下文的部分：线程名、MDC、调用位置以及参数快照
+     */
+    private MaskedLoggingEvent preprocess(ILoggingEvent event) {
+        event.getThreadName();
+        event.getMDCPropertyMap();
+        if (includeCallerData) {
+            event.getCallerData();
+        }
+        return MaskedLoggingEvent.snapshot(event, maskFreeText);
+    }
+
+    private static boolean isDiscardable(ILoggingEvent event) {
+        return event.getLevel().toInt() <= Level.INFO_INT;
+    }
+
+    private boolean offerBlocking(MaskedLoggingEvent event) {
+        while (isStarted()) {
+            signalOne();
+            LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+            if (buffer.offer(event)) {
+                return true;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private void work() {
+        EventRingBuffer.Batch<MaskedLoggingEvent> batch =
+                new EventRingBuffer.Batch<>(new MaskedLoggingEvent[batchSize]);
+        while (true) {
+            if (buffer.drainTo(batch)) {
+                process(batch);
+            } else if (running) {
+                awaitEvents();
+            } else if (buffer.isEmpty()) {
+                return;
+            } else {
+                // 生产者已占位但尚未写入
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * 并行脱敏，按入队顺序输出
+     */
+    private void process(EventRingBuffer.Batch<MaskedLoggingEvent> batch) {
+        try {
+            // 单个事件的任何异常（包括 Error）只记录一条错误，不影响同批其它事件和输出顺序
+            for (int i = 0; i < batch.size; i++) {
+                try {
+                    batch.items[i].getFormattedMessage();
+                } catch (Throwable e) {
+                    addError("Failed to mask logging event", e);
+                }
+            }
+            awaitTurn(batch.start);
+            for (int i = 0; i < batch.size; i++) {
+                try {
+                    appenders.appendLoopOnAppenders(batch.items[i]);
+                } catch (Throwable e) {
+                    addError("Failed to append logging event", e);
+                }
+            }
+            processedCount.add(batch.size);
+        } finally {
+            // 即使输出失败也要推进，避免后续批次一直等待；推进前必须轮到本批次，否则会越过前面尚未输出的批次
+            awaitTurn(batch.start);
+            synchronized (emitLock) {
+                nextToEmit = batch.start + batch.size;
+                emitLock.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    private void awaitTurn(long start) {
+        boolean interrupted = false;
+        synchronized (emitLock) {
+            while (nextToEmit != start) {
+                try {
+                    emitLock.wait();
+                } catch (InterruptedException e) {
+                    // 不能跳过顺序，等待结束后恢复中断状态
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitEvents() {
+        idleLock.lock();
+        try {
+            idleWorkers.incrementAndGet();
+            try {
+                // 先登记再检查队列，与生产者的先入队再检查登记配合，不会错过信号
+                if (running && buffer.isEmpty()) {
+                    notEmpty.await(IDLE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                }
+            } finally {
+                idleWorkers.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            idleLock.unlock();
+        }
+    }
+
+    private void signalOne() {
+        idleLock.lock();
+        try {
+            notEmpty.signal();
+        } finally {
+            idleLock.unlock();
+        }
+    }
+
+    private void signalAll() {
+        idleLock.lock();
+        try {
+            notEmpty.signalAll();
+        } finally {
+            idleLock.unlock();
+        }
+    }
+
+    private int appenderCount() {
+        int count = 0;
+        for (Iterator<Appender<ILoggingEvent>> it = appenders.iteratorForAppenders(); it.hasNext(); it.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    // ----- 指标 -----
+
+    /**
+     * 队列容量（向上取整为 2 的幂）
+     */
+    public int getQueueSize() {
+        return buffer != null ? buffer.capacity() : queueSize;
+    }
+
+    /**
+     * 队列中等待处理的事件数量
+     */
+    public int getNumberOfElementsInQueue() {
+        return buffer != null ? buffer.size() : 0;
+    }
+
+    public int getRemainingCapacity() {
+        return getQueueSize() - getNumberOfElementsInQueue();
+    }
+
+    /**
+     * 启动以来观察到的最大队列深度
+     */
+    public long getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * 因队列满或低于丢弃阈值而丢弃的事件数量
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * 已交给挂载 appender 的事件数量
+     */
+    public long getProcessedCount() {
+        return processedCount.sum();
+    }
+
+    // ----- 配置 -----
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    public void setWorkerCount(int workerCount) {
+        this.workerCount = workerCount;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * 工作线程每次最多取出的事件数量
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getDiscardingThreshold() {
+        return discardingThreshold;
+    }
+
+    /**
+     * 剩余容量低于该值时丢弃 INFO 及以下级别的事件，为 0 时不丢弃，默认容量的 1/5
+     */
+    public void setDiscardingThreshold(int discardingThreshold) {
+        this.discardingThreshold = discardingThreshold;
+    }
+
+    public int getMaxFlushTime() {
+        return maxFlushTime;
+    }
+
+    /**
+     * 停止时等待队列输出完毕的最长时间（毫秒），为 0 时一直等待
+     */
+    public void setMaxFlushTime(int maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    public boolean isNeverBlock() {
+        return neverBlock;
+    }
+
+    /**
+     * 队列满时丢弃事件而不是阻塞业务线程
+     */
+    public void setNeverBlock(boolean neverBlock) {
+        this.neverBlock = neverBlock;
+    }
+
+    public boolean isIncludeCallerData() {
+        return includeCallerData;
+    }
+
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    public boolean isMaskFreeText() {
+        return maskFreeText;
+    }
+
+    /**
+     * 没有参数的消息是否按自由文本脱敏，见 {@link SafeMaskingPatternLayout#setMaskFreeText(boolean)}
+     */
+    public void setMaskFreeText(boolean maskFreeText) {
+        this.maskFreeText = maskFreeText;
+    }
+
+    /**
+     * 设置 Map 键名规则，见 {@link SafeMaskingPatternLayout#setKeyRules(String)}
+     */
+    public void setKeyRules(String keyRules) {
+        SafeMaskingPatternLayout.mergeKeyRules(keyRules, this);
+    }
+
+    // ----- AppenderAttachable -----
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> newAppender) {
+        addInfo("Attaching appender named [" + newAppender.getName() + "] to MaskingAsyncAppender.");
+        appenders.addAppender(newAppender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
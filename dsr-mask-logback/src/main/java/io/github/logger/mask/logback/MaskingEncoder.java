@@ -0,0 +1,195 @@
+package io.github.logger.mask.logback;
+
+import ch.qos.logback.classic.pattern.MessageConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.EncoderBase;
+import ch.qos.logback.core.pattern.Converter;
+import ch.qos.logback.core.pattern.PostCompileProcessor;
+
+import java.util.Arrays;
+
+/**
+ * 直接输出 UTF-8 字节的脱敏编码器
+ * <p>
+ * 输出与 {@code LayoutWrappingEncoder} + {@link SafeMaskingPatternLayout} 相同，但不生成中间字符串：
+ * 各转换器依次写入线程内复用的字符缓冲区，{@code %msg} 由脱敏后的参数直接写入，
+ * 最后编码为 UTF-8 写入线程内复用的字节缓冲区。logback 的编码器接口以 byte[] 返回结果，
+ * 每个事件只分配一次精确长度的数组。支持 {@code maskFreeText} 和 {@code keyRules}，
+ * 与同一上下文中的 {@link SafeMaskingPatternLayout} 共享脱敏事件
+ * <pre>{@code
+ * <encoder class="io.github.logger.mask.logback.MaskingEncoder">
+ *     <pattern>%d{yyyy-MM-dd HH:mm:ss.SSS} [%thread] %-5level %logger{50} - %msg%n</pattern>
+ * </encoder>
+ * }</pre>
+ *
+ * @author haiji
+ */
+public class MaskingEncoder extends EncoderBase<ILoggingEvent> {
+
+    /**
+     * 超过该容量的缓冲区用完后丢弃，避免个别超长日志长期占用内存
+     */
+    private static final int MAX_BUFFER_CAPACITY = 64 * 1024;
+
+    /**
+     * 线程内复用的缓冲区，使用期间从 ThreadLocal 中取出，重入时（如转换器内部输出日志）重新分配
+     */
+    private static final ThreadLocal<StringBuilder> CHARS = new ThreadLocal<>();
+
+    private static final ThreadLocal<byte[]> BYTES = new ThreadLocal<>();
+
+    private final ConverterLayout layout = new ConverterLayout();
+
+    private String pattern;
+
+    @Override
+    public void start() {
+        if (pattern == null || pattern.isEmpty()) {
+            addError("No pattern set for MaskingEncoder");
+            return;
+        }
+        layout.setContext(getContext());
+        layout.setPattern(pattern);
+        layout.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        layout.stop();
+        super.stop();
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        StringBuilder chars = CHARS.get();
+        if (chars == null) {
+            chars = new StringBuilder(256);
+        } else {
+            CHARS.set(null);
+        }
+        try {
+            try {
+                writeConverters(event, chars);
+            } catch (RuntimeException e) {
+                addError("Error during masking encode", e);
+                chars.setLength(0);
+                chars.append(layout.doLayout(event));
+            }
+            return toUtf8(chars);
+        } finally {
+            if (chars.capacity() <= MAX_BUFFER_CAPACITY) {
+                chars.setLength(0);
+                CHARS.set(chars);
+            }
+        }
+    }
+
+    private void writeConverters(ILoggingEvent event, StringBuilder out) {
+        MaskedLoggingEvent masked = MaskedEventCache.wrap(layout.getEventCache(), event, layout.isMaskFreeText());
+        for (Converter<ILoggingEvent> c = layout.head; c != null; c = c.getNext()) {
+            // 没有宽度限制的 %msg 直接写入脱敏参数，不生成消息字符串
+            if (c.getClass() == MessageConverter.class && ((MessageConverter) c).getFormattingInfo() == null) {
+                masked.appendFormattedMessage(out);
+            } else {
+                c.write(out, masked);
+            }
+        }
+    }
+
+    /**
+     * 编码为 UTF-8，不成对的代理字符输出 {@code ?}，与 {@link String#getBytes} 一致
+     */
+    static byte[] toUtf8(CharSequence chars) {
+        int length = chars.length();
+        byte[] bytes = BYTES.get();
+        if (bytes == null || bytes.length < length * 3) {
+            bytes = new byte[Math.max(256, length * 3)];
+        } else {
+            BYTES.set(null);
+        }
+        int p = 0;
+        for (int i = 0; i < length; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                bytes[p++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[p++] = (byte) (0xC0 | (c >> 6));
+                bytes[p++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                char low;
+                if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(low = chars.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, low);
+                    bytes[p++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[p++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[p++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[p++] = (byte) (0x80 | (codePoint & 0x3F));
+                    i++;
+                } else {
+                    bytes[p++] = '?';
+                }
+            } else {
+                bytes[p++] = (byte) (0xE0 | (c >> 12));
+                bytes[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[p++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        byte[] result = Arrays.copyOf(bytes, p);
+        if (bytes.length <= MAX_BUFFER_CAPACITY * 3) {
+            BYTES.set(bytes);
+        }
+        return result;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+
+    public boolean isMaskFreeText() {
+        return layout.isMaskFreeText();
+    }
+
+    public void setMaskFreeText(boolean maskFreeText) {
+        layout.setMaskFreeText(maskFreeText);
+    }
+
+    /**
+     * 设置 Map 键名规则，见 {@link SafeMaskingPatternLayout#setKeyRules(String)}
+     */
+    public void setKeyRules(String keyRules) {
+        SafeMaskingPatternLayout.mergeKeyRules(keyRules, this);
+    }
+
+    /**
+     * 编译后保留转换器链的 layout：在 PatternLayout 默认的后处理（补充异常输出）之后记录链头
+     */
+    private static final class ConverterLayout extends SafeMaskingPatternLayout {
+
+        private Converter<ILoggingEvent> head;
+
+        ConverterLayout() {
+            PostCompileProcessor<ILoggingEvent> defaultProcessor = postCompileProcessor;
+            postCompileProcessor = (context, compiled) -> {
+                if (defaultProcessor != null) {
+                    defaultProcessor.process(context, compiled);
+                }
+                head = compiled;
+            };
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package io.github.logger.mask.logback;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+import io.github.dsr.mask.core.kernel.FreeTextMasker;
+import io.github.dsr.mask.core.util.JsonMasker;
+import org.slf4j.event.KeyValuePair;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 输出脱敏后 JSON 的编码器，每个事件一行
+ * <p>
+ * 消息按 {@link SafeMaskingPatternLayout} 的规则脱敏；参数不再转为字符串，而是由 {@link JsonMasker}
+ * 按 {@code @Mask} 计划和键名规则脱敏后输出为嵌套的 JSON 对象；MDC 和键值对（SLF4J 2 的 {@code addKeyValue}）
+ * 的值按键名规则脱敏。所有字段在一次遍历中直接写入线程内复用的缓冲区，再编码为 UTF-8，
+ * 日志采集端可以直接解析，不需要先在 Java 中拼成字符串再在采集端解析。输出格式：
+ * <pre>{@code
+ * {"timestamp":"2024-01-01T08:00:00.123Z","level":"INFO","thread":"main","logger":"com.example.UserService",
+ *  "message":"用户: User{...}","arguments":[{"name":"张*","phone":"138****5678"}],
+ *  "mdc":{"userPhone":"138****5678"},"kv":{"orderId":1001},"exception":"..."}
+ * }</pre>
+ * 配置：
+ * <pre>{@code
+ * <encoder class="io.github.logger.mask.logback.MaskingJsonEncoder">
+ *     <keyRules>*phone|mobile=PHONE;*IdCard=ID_CAR</keyRules>
+ * </encoder>
+ * }</pre>
+ *
+ * @author haiji
+ */
+public class MaskingJsonEncoder extends EncoderBase<ILoggingEvent> {
+
+    private static final int MAX_BUFFER_CAPACITY = 64 * 1024;
+
+    /**
+     * 线程内复用的缓冲区，使用期间从 ThreadLocal 中取出，重入时重新分配
+     */
+    private static final ThreadLocal<StringBuilder> CHARS = new ThreadLocal<>();
+
+    private boolean maskFreeText;
+
+    private boolean includeArguments = true;
+
+    private boolean includeMdc = true;
+
+    private boolean includeKeyValuePairs = true;
+
+    private MaskedEventCache eventCache;
+
+    @Override
+    public void start() {
+        eventCache = MaskedEventCache.of(getContext());
+        super.start();
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        StringBuilder chars = CHARS.get();
+        if (chars == null) {
+            chars = new StringBuilder(512);
+        } else {
+            CHARS.set(null);
+        }
+        try {
+            writeEvent(MaskedEventCache.wrap(eventCache, event, maskFreeText), chars);
+            chars.append('\n');
+            return MaskingEncoder.toUtf8(chars);
+        } finally {
+            if (chars.capacity() <= MAX_BUFFER_CAPACITY) {
+                chars.setLength(0);
+                CHARS.set(chars);
+            }
+        }
+    }
+
+    private void writeEvent(MaskedLoggingEvent event, StringBuilder out) {
+        ILoggingEvent original = event.getOriginalEvent();
+        out.append("{\"timestamp\":\"");
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(event.getTimeStamp()), out);
+        out.append("\",\"level\":\"").append(event.getLevel()).append('"');
+        out.append(",\"thread\":");
+        JsonMasker.writeString(event.getThreadName(), out);
+        out.append(",\"logger\":");
+        JsonMasker.writeString(event.getLoggerName(), out);
+        out.append(",\"message\":");
+        int start = out.length();
+        try {
+            JsonMasker.writeString(event.getFormattedMessage(), out);
+        } catch (RuntimeException e) {
+            addError("Error during masking message", e);
+            out.setLength(start);
+            JsonMasker.writeString("[ERROR: " + e.getMessage() + "]", out);
+        }
+
+        if (includeArguments) {
+            writeArguments(event.getArguments(), out);
+        }
+        if (includeMdc) {
+            Map<String, String> mdc = original.getMDCPropertyMap();
+            if (mdc != null && !mdc.isEmpty()) {
+                out.append(",\"mdc\":{");
+                boolean first = true;
+                for (Map.Entry<String, String> entry : mdc.entrySet()) {
+                    if (!first) {
+                        out.append(',');
+                    }
+                    JsonMasker.writeField(entry.getKey(), entry.getValue(), out);
+                    first = false;
+                }
+                out.append('}');
+            }
+        }
+        if (includeKeyValuePairs) {
+            List<KeyValuePair> pairs = original.getKeyValuePairs();
+            if (pairs != null && !pairs.isEmpty()) {
+                out.append(",\"kv\":{");
+                for (int i = 0; i < pairs.size(); i++) {
+                    if (i > 0) {
+                        out.append(',');
+                    }
+                    KeyValuePair pair = pairs.get(i);
+                    JsonMasker.writeField(pair.key, pair.value, out);
+                }
+                out.append('}');
+            }
+        }
+
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            String stackTrace = ThrowableProxyUtil.asString(throwable);
+            out.append(",\"exception\":");
+            JsonMasker.writeString(maskFreeText ? FreeTextMasker.mask(stackTrace) : stackTrace, out);
+        }
+        out.append('}');
+    }
+
+    /**
+     * 每个参数输出为一个 JSON 值，异常交给 {@code exception} 字段
+     */
+    private void writeArguments(Object[] arguments, StringBuilder out) {
+        if (arguments == null || arguments.length == 0) {
+            return;
+        }
+        out.append(",\"arguments\":[");
+        boolean first = true;
+        for (Object argument : arguments) {
+            if (argument instanceof Throwable) {
+                continue;
+            }
+            if (!first) {
+                out.append(',');
+            }
+            int start = out.length();
+            try {
+                JsonMasker.writeTo(argument, out);
+            } catch (RuntimeException e) {
+                addError("Error during masking argument", e);
+                out.setLength(start);
+                JsonMasker.writeString("[ERROR: " + e.getMessage() + "]", out);
+            }
+            first = false;
+        }
+        out.append(']');
+    }
+
+    public boolean isMaskFreeText() {
+        return maskFreeText;
+    }
+
+    /**
+     * 没有参数的消息以及异常堆栈是否按自由文本脱敏，见 {@link SafeMaskingPatternLayout#setMaskFreeText(boolean)}
+     */
+    public void setMaskFreeText(boolean maskFreeText) {
+        this.maskFreeText = maskFreeText;
+    }
+
+    /**
+     * 设置键名规则，同时作用于 MDC、键值对和参数中的 Map，见 {@link SafeMaskingPatternLayout#setKeyRules(String)}
+     */
+    public void setKeyRules(String keyRules) {
+        SafeMaskingPatternLayout.mergeKeyRules(keyRules, this);
+    }
+
+    public boolean isIncludeArguments() {
+        return includeArguments;
+    }
+
+    public void setIncludeArguments(boolean includeArguments) {
+        this.includeArguments = includeArguments;
+    }
+
+    public boolean isIncludeMdc() {
+        return includeMdc;
+    }
+
+    public void setIncludeMdc(boolean includeMdc) {
+        this.includeMdc = includeMdc;
+    }
+
+    public boolean isIncludeKeyValuePairs() {
+        return includeKeyValuePairs;
+    }
+
+    public void setIncludeKeyValuePairs(boolean includeKeyValuePairs) {
+        this.includeKeyValuePairs = includeKeyValuePairs;
+    }
+}
@@ -0,0 +1,162 @@
+package io.github.logger.mask.logback;
+
+import io.github.dsr.mask.core.util.ObjectMasker;
+
+import java.util.Arrays;
+
+/**
+ * 流式日志消息格式化
+ * <p>
+ * 占位符与转义规则与 {@link org.slf4j.helpers.MessageFormatter} 一致（{@code \{}} 输出字面量，
+ * {@code \\{}} 输出反斜杠和参数），参数通过 {@link ObjectMasker#maskTo(Object, StringBuilder)}
+ * 直接写入目标缓冲区，不再为每个参数生成中间字符串。
+ * 消息模板解析一次后缓存，只有被占位符引用的参数才会脱敏
+ *
+ * @author haiji
+ */
+final class MaskingMessageFormatter {
+
+    private static final String DELIMITER = "{}";
+
+    private static final char ESCAPE_CHAR = '\\';
+
+    /**
+     * 解析结果缓存，按模板对象的 identityHashCode 直接映射，冲突时覆盖。
+     * 日志模板通常是字符串常量，同一个对象反复出现；条目不可变，读写不加锁
+     */
+    private static final int CACHE_SIZE = 1024;
+
+    private static final Template[] CACHE = new Template[CACHE_SIZE];
+
+    private MaskingMessageFormatter() {
+    }
+
+    /**
+     * 解析后的消息模板：依次输出 {@code pattern[literals[2k], literals[2k + 1])}，
+     * {@code placeholder[k]} 为 true 时在其后填充下一个参数
+     */
+    static final class Template {
+
+        private final String pattern;
+
+        private final int[] literals;
+
+        private final boolean[] placeholder;
+
+        /**
+         * 填充参数的占位符数量，不含转义的 {@code \{}}
+         */
+        private final int placeholderCount;
+
+        private Template(String pattern, int[] literals, boolean[] placeholder, int placeholderCount) {
+            this.pattern = pattern;
+            this.literals = literals;
+            this.placeholder = placeholder;
+            this.placeholderCount = placeholderCount;
+        }
+
+        int getPlaceholderCount() {
+            return placeholderCount;
+        }
+
+        /**
+         * 模板中没有 {@code {}}，格式化结果就是模板本身
+         */
+        boolean isLiteral() {
+            return placeholder.length == 1;
+        }
+    }
+
+    /**
+     * 获取解析后的消息模板
+     *
+     * @param pattern 消息模板
+     * @return 解析结果
+     */
+    static Template template(String pattern) {
+        int slot = System.identityHashCode(pattern) & (CACHE_SIZE - 1);
+        Template cached = CACHE[slot];
+        if (cached != null && cached.pattern == pattern) {
+            return cached;
+        }
+        Template parsed = parse(pattern);
+        CACHE[slot] = parsed;
+        return parsed;
+    }
+
+    private static Template parse(String pattern) {
+        int[] literals = new int[8];
+        boolean[] placeholder = new boolean[4];
+        int segments = 0;
+        int placeholders = 0;
+        int from = 0;
+        int searchFrom = 0;
+        int index;
+        while ((index = pattern.indexOf(DELIMITER, searchFrom)) != -1) {
+            if (segments + 2 > placeholder.length) {
+                literals = Arrays.copyOf(literals, literals.length * 2);
+                placeholder = Arrays.copyOf(placeholder, placeholder.length * 2);
+            }
+            boolean argument = true;
+            int end = index;
+            if (isEscapedDelimiter(pattern, index)) {
+                // 去掉一个转义符；转义符本身被转义时仍然填充参数
+                end = index - 1;
+                argument = isDoubleEscaped(pattern, index);
+            }
+            literals[segments * 2] = from;
+            literals[segments * 2 + 1] = end;
+            placeholder[segments++] = argument;
+            if (argument) {
+                placeholders++;
+                from = index + DELIMITER.length();
+                searchFrom = from;
+            } else {
+                // 占位符被转义，'{' 作为字面量保留，且不消耗参数
+                from = index;
+                searchFrom = index + 1;
+            }
+        }
+        literals[segments * 2] = from;
+        literals[segments * 2 + 1] = pattern.length();
+        segments++;
+        return new Template(pattern, Arrays.copyOf(literals, segments * 2), Arrays.copyOf(placeholder, segments),
+                placeholders);
+    }
+
+    /**
+     * 格式化消息并追加到缓冲区，占位符多于参数时以 null 填充，多余的参数不输出也不脱敏
+     *
+     * @param template   消息模板
+     * @param args       参数
+     * @param argsMasked 参数是否已经脱敏（已脱敏时原样输出）
+     * @param out        输出缓冲区
+     */
+    static void formatTo(Template template, Object[] args, boolean argsMasked, StringBuilder out) {
+        String pattern = template.pattern;
+        int[] literals = template.literals;
+        boolean[] placeholder = template.placeholder;
+        int argIndex = 0;
+        for (int i = 0; i < placeholder.length; i++) {
+            out.append(pattern, literals[i * 2], literals[i * 2 + 1]);
+            if (!placeholder[i]) {
+                continue;
+            }
+            Object arg = args != null && argIndex < args.length ? args[argIndex] : null;
+            argIndex++;
+            if (argsMasked) {
+                out.append(arg);
+            } else {
+                ObjectMasker.maskTo(arg, out);
+            }
+        }
+    }
+
+    private static boolean isEscapedDelimiter(String pattern, int delimiterIndex) {
+        return delimiterIndex > 0 && pattern.charAt(delimiterIndex - 1) == ESCAPE_CHAR;
+    }
+
+    private static boolean isDoubleEscaped(String pattern, int delimiterIndex) {
+        return delimiterIndex >= 2 && pattern.charAt(delimiterIndex - 2) == ESCAPE_CHAR;
+    }
+}
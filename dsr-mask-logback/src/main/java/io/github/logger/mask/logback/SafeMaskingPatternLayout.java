@@ -2,12 +2,19 @@ package io.github.logger.mask.logback;
 
 import ch.qos.logback.classic.PatternLayout;
 import ch.qos.logback.classic.spi.ILoggingEvent;
-import io.github.dsr.mask.core.util.ObjectMasker;
+import ch.qos.logback.core.spi.ContextAware;
+import io.github.dsr.mask.core.plan.KeyNameRules;
+import io.github.dsr.mask.core.util.MaskStrategies;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * 安全的脱敏PatternLayout，不修改原始日志事件
+ * <p>
+ * 配置 {@code <maskFreeText>true</maskFreeText>} 后，没有参数的消息（如已经拼接好的字符串）
+ * 按自由文本识别手机号、身份证号、银行卡号和邮箱并脱敏。
+ * 配置 {@code <keyRules>phone|mobile=PHONE;*IdCard=ID_CAR</keyRules>} 后，参数中 Map 的值按键名规则脱敏，
+ * 格式见 {@link KeyNameRules#parse(String)}
  * @author haiji
  */
 public class SafeMaskingPatternLayout extends PatternLayout {
@@ -16,19 +23,32 @@ public class SafeMaskingPatternLayout extends PatternLayout {
             LoggerFactory.getLogger(SafeMaskingPatternLayout.class);
 
     /**
-     * 重写doLayout方法，对参数进行深度脱敏，并使用脱敏后的参数进行布局
+     * 没有参数的消息是否按自由文本脱敏
+     */
+    private boolean maskFreeText;
+
+    /**
+     * 同一上下文中所有脱敏 layout 共享的事件缓存，启动时获取
+     */
+    private MaskedEventCache eventCache;
+
+    @Override
+    public void start() {
+        eventCache = MaskedEventCache.of(getContext());
+        super.start();
+    }
+
+    /**
+     * 重写doLayout方法，使用脱敏包装事件进行布局，参数在格式化消息时直接脱敏写入
      * @param event 日志事件
      * @return 布局结果
      */
     @Override
     public String doLayout(ILoggingEvent event) {
         try {
-            // 首先对参数进行深度脱敏
-            Object[] maskedArgs = createMaskedArgs(event.getArgumentArray());
-            // 创建脱敏后的事件
-            MaskedLoggingEvent secureEvent = new MaskedLoggingEvent(event, maskedArgs);
+            // 脱敏后的事件在各 appender 之间共享，参数在格式化消息时才进行深度脱敏，且只脱敏一次
+            MaskedLoggingEvent secureEvent = MaskedEventCache.wrap(eventCache, event, maskFreeText);
             // 使用脱敏后的事件进行布局
-            // 最后对整个消息进行二次脱敏（防止遗漏）
             return super.doLayout(secureEvent);
         } catch (Exception e) {
             log.error("Error during secure logging layout", e);
@@ -36,24 +56,40 @@ public class SafeMaskingPatternLayout extends PatternLayout {
         }
     }
 
+    MaskedEventCache getEventCache() {
+        return eventCache;
+    }
+
+    public boolean isMaskFreeText() {
+        return maskFreeText;
+    }
+
+    public void setMaskFreeText(boolean maskFreeText) {
+        this.maskFreeText = maskFreeText;
+    }
+
     /**
-     * 创建脱敏后的参数数组
-     * @param originalArgs 原始参数数组
-     * @return 脱敏后的参数数组
+     * 设置 Map 键名规则，规则是全局的，对所有脱敏输出生效
+     * <p>
+     * 与其它组件配置的规则合并而不是覆盖，同一个模式配置了不同的策略时以后配置的为准并输出警告；
+     * 已注册策略的参数在配置时校验
+     *
+     * @param keyRules 如 {@code phone|mobile=PHONE;*IdCard=ID_CAR}
      */
-    private Object[] createMaskedArgs(Object[] originalArgs) {
-        if (originalArgs == null || originalArgs.length == 0) {
-            return originalArgs;
-        }
-
-        Object[] maskedArgs = new Object[originalArgs.length];
-        System.arraycopy(originalArgs, 0, maskedArgs, 0, originalArgs.length);
+    public void setKeyRules(String keyRules) {
+        mergeKeyRules(keyRules, this);
+    }
 
-        for (int i = 0; i < maskedArgs.length; i++) {
-            if (maskedArgs[i] != null) {
-                maskedArgs[i] = ObjectMasker.maskObject(maskedArgs[i]);
+    /**
+     * 解析并合并键名规则，错误和冲突输出到组件的状态
+     */
+    static void mergeKeyRules(String keyRules, ContextAware owner) {
+        try {
+            for (String conflict : MaskStrategies.mergeKeyRules(MaskStrategies.parseKeyRules(keyRules))) {
+                owner.addWarn("Conflicting keyRules, the later one wins: " + conflict);
             }
+        } catch (IllegalArgumentException e) {
+            owner.addError("Invalid keyRules: " + e.getMessage());
         }
-        return maskedArgs;
     }
-}
\ No newline at end of file
+}
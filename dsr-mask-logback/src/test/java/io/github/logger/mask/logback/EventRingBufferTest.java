@@ -0,0 +1,128 @@
+package io.github.logger.mask.logback;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 环形队列的容量、满队列以及多生产者 / 多消费者下的顺序
+ *
+ * @author haiji
+ */
+class EventRingBufferTest {
+
+    @Test
+    void capacityRoundsUpToPowerOfTwo() {
+        assertEquals(1, new EventRingBuffer<>(0).capacity());
+        assertEquals(1, new EventRingBuffer<>(1).capacity());
+        assertEquals(8, new EventRingBuffer<>(5).capacity());
+        assertEquals(1024, new EventRingBuffer<>(1024).capacity());
+    }
+
+    @Test
+    void offerFailsWhenFullAndRecoversAfterDrain() {
+        EventRingBuffer<Integer> buffer = new EventRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        EventRingBuffer.Batch<Integer> batch = new EventRingBuffer.Batch<>(new Integer[3]);
+        assertTrue(buffer.drainTo(batch));
+        assertEquals(0, batch.start);
+        assertEquals(3, batch.size);
+        assertArrayEquals(new Integer[]{0, 1, 2}, batch.items);
+        batch.clear();
+
+        // 取走的槽位交还给生产者，队列绕回后继续按顺序编号
+        assertTrue(buffer.offer(4));
+        assertTrue(buffer.offer(5));
+        assertTrue(buffer.offer(6));
+        assertFalse(buffer.offer(7));
+        assertTrue(buffer.drainTo(batch));
+        assertEquals(3, batch.start);
+        assertArrayEquals(new Integer[]{3, 4, 5}, batch.items);
+        batch.clear();
+        assertTrue(buffer.drainTo(batch));
+        assertEquals(6, batch.start);
+        assertEquals(1, batch.size);
+        assertFalse(buffer.drainTo(batch));
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    void batchesCoverEnqueueOrderUnderConcurrency() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20_000;
+        int total = producers * perProducer;
+        EventRingBuffer<Integer> buffer = new EventRingBuffer<>(128);
+        ConcurrentLinkedQueue<Drained> drained = new ConcurrentLinkedQueue<>();
+        AtomicInteger consumed = new AtomicInteger();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    Integer item = producer << 20 | i;
+                    while (!buffer.offer(item)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        for (int c = 0; c < 3; c++) {
+            threads.add(new Thread(() -> {
+                EventRingBuffer.Batch<Integer> batch = new EventRingBuffer.Batch<>(new Integer[16]);
+                while (consumed.get() < total) {
+                    if (buffer.drainTo(batch)) {
+                        drained.add(new Drained(batch.start, Arrays.copyOf(batch.items, batch.size)));
+                        consumed.addAndGet(batch.size);
+                        batch.clear();
+                    } else {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+            assertFalse(thread.isAlive(), "ring buffer stalled");
+        }
+
+        // 按起始位置排序后各批次首尾相接，拼起来就是入队顺序：每个生产者的元素连续递增
+        List<Drained> batches = new ArrayList<>(drained);
+        batches.sort(Comparator.comparingLong(Drained::start));
+        long expectedStart = 0;
+        int[] next = new int[producers];
+        for (Drained batch : batches) {
+            assertEquals(expectedStart, batch.start());
+            expectedStart += batch.items().length;
+            for (Integer item : batch.items()) {
+                int producer = item >>> 20;
+                assertEquals(next[producer]++, item & 0xFFFFF);
+            }
+        }
+        assertEquals(total, expectedStart);
+        for (int count : next) {
+            assertEquals(perProducer, count);
+        }
+        assertTrue(buffer.isEmpty());
+    }
+
+    private record Drained(long start, Integer[] items) {
+    }
+}
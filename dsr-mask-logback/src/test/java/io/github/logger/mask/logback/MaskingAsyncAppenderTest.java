@@ -0,0 +1,296 @@
+package io.github.logger.mask.logback;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 异步 appender 在多生产者、输出异常和队列满时的行为
+ *
+ * @author haiji
+ */
+class MaskingAsyncAppenderTest {
+
+    private LoggerContext context;
+
+    private Logger logger;
+
+    private MaskingAsyncAppender async;
+
+    private RecordingAppender recording;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        logger = context.getLogger("test");
+        recording = new RecordingAppender();
+        recording.setContext(context);
+        recording.setName("recording");
+        recording.start();
+        async = new MaskingAsyncAppender();
+        async.setContext(context);
+        async.setName("async");
+        async.setDiscardingThreshold(0);
+        async.setMaxFlushTime(0);
+        async.addAppender(recording);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        async.stop();
+        context.stop();
+    }
+
+    @Test
+    void emitsInEnqueueOrderWithMultipleProducers() throws InterruptedException {
+        async.setQueueSize(64);
+        async.setWorkerCount(4);
+        async.setBatchSize(8);
+        async.start();
+
+        int producers = 4;
+        int perProducer = 2_000;
+        // 生产者交替入队，入队顺序另行记录，与输出顺序逐条比较
+        List<String> enqueued = new ArrayList<>();
+        Object enqueueLock = new Object();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    synchronized (enqueueLock) {
+                        async.doAppend(event(Level.INFO, "p{} i{}", producer, i));
+                        enqueued.add("p" + producer + " i" + i);
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        async.stop();
+
+        assertEquals(enqueued, recording.messages());
+        assertEquals(producers * perProducer, async.getProcessedCount());
+        assertEquals(0, async.getDroppedCount());
+    }
+
+    @Test
+    void keepsPerProducerOrderWithoutCoordination() throws InterruptedException {
+        async.setQueueSize(32);
+        async.setWorkerCount(3);
+        async.setBatchSize(4);
+        async.start();
+
+        int producers = 6;
+        int perProducer = 1_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    async.doAppend(event(Level.INFO, "p{} i{}", producer, i));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        async.stop();
+
+        List<String> messages = recording.messages();
+        assertEquals(producers * perProducer, messages.size());
+        int[] next = new int[producers];
+        for (String message : messages) {
+            int split = message.indexOf(' ');
+            int producer = Integer.parseInt(message.substring(1, split));
+            assertEquals("i" + next[producer]++, message.substring(split + 1));
+        }
+    }
+
+    @Test
+    void failingAppenderDoesNotStallLaterEvents() {
+        recording.failWhen(message -> message.endsWith("0"));
+        async.setWorkerCount(2);
+        async.setBatchSize(3);
+        async.start();
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            async.doAppend(event(Level.INFO, "event {}", i));
+            if (i % 10 != 0) {
+                expected.add("event " + i);
+            }
+        }
+        async.stop();
+
+        assertEquals(expected, recording.messages());
+        assertEquals(100, async.getProcessedCount());
+        assertTrue(context.getStatusManager().getCopyOfStatusList().stream()
+                .anyMatch(status -> status.getMessage().startsWith("Failed to append logging event")));
+    }
+
+    @Test
+    void dropsWhenFullAndNeverBlock() throws InterruptedException {
+        blockFirstEvent();
+        async.setQueueSize(4);
+        async.setWorkerCount(1);
+        async.setBatchSize(1);
+        async.setNeverBlock(true);
+        async.start();
+
+        async.doAppend(event(Level.INFO, "event {}", 0));
+        recording.awaitBlocked();
+        for (int i = 1; i <= 10; i++) {
+            async.doAppend(event(Level.INFO, "event {}", i));
+        }
+        assertEquals(4, async.getNumberOfElementsInQueue());
+        assertEquals(0, async.getRemainingCapacity());
+        assertEquals(6, async.getDroppedCount());
+
+        release.countDown();
+        async.stop();
+        assertEquals(List.of("event 0", "event 1", "event 2", "event 3", "event 4"), recording.messages());
+        assertEquals(5, async.getProcessedCount());
+    }
+
+    @Test
+    void blocksProducerWhenFull() throws InterruptedException {
+        blockFirstEvent();
+        async.setQueueSize(4);
+        async.setWorkerCount(1);
+        async.setBatchSize(1);
+        async.start();
+
+        async.doAppend(event(Level.INFO, "event {}", 0));
+        recording.awaitBlocked();
+        Thread producer = new Thread(() -> {
+            for (int i = 1; i <= 6; i++) {
+                async.doAppend(event(Level.INFO, "event {}", i));
+            }
+        });
+        producer.start();
+        producer.join(300);
+        assertTrue(producer.isAlive(), "producer should block while the queue is full");
+        assertEquals(4, async.getNumberOfElementsInQueue());
+
+        release.countDown();
+        producer.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(producer.isAlive());
+        async.stop();
+        assertEquals(List.of("event 0", "event 1", "event 2", "event 3", "event 4", "event 5", "event 6"),
+                recording.messages());
+        assertEquals(0, async.getDroppedCount());
+    }
+
+    @Test
+    void discardsInfoBelowThreshold() throws InterruptedException {
+        blockFirstEvent();
+        async.setQueueSize(4);
+        async.setWorkerCount(1);
+        async.setBatchSize(1);
+        async.setDiscardingThreshold(2);
+        async.start();
+
+        async.doAppend(event(Level.INFO, "event {}", 0));
+        recording.awaitBlocked();
+        async.doAppend(event(Level.INFO, "event {}", 1));
+        async.doAppend(event(Level.INFO, "event {}", 2));
+        // 剩余容量不低于阈值时照常入队；入队 3 条后剩余 1，INFO 被丢弃，WARN 保留
+        async.doAppend(event(Level.INFO, "event {}", 3));
+        async.doAppend(event(Level.INFO, "event {}", 4));
+        async.doAppend(event(Level.WARN, "event {}", 5));
+        assertEquals(1, async.getDroppedCount());
+
+        release.countDown();
+        async.stop();
+        assertEquals(List.of("event 0", "event 1", "event 2", "event 3", "event 5"), recording.messages());
+    }
+
+    private void blockFirstEvent() {
+        recording.blockUntil(release);
+    }
+
+    private ILoggingEvent event(Level level, String message, Object... args) {
+        return new LoggingEvent(Logger.class.getName(), logger, level, message, null, args);
+    }
+
+    /**
+     * 记录格式化后的消息，可以按条件抛出异常，或者在第一条事件上阻塞。
+     * 异常不经过 {@link AppenderBase#doAppend} 的捕获，直接抛给工作线程
+     */
+    private static final class RecordingAppender extends AppenderBase<ILoggingEvent> {
+
+        private final List<String> messages = new ArrayList<>();
+
+        private final CountDownLatch blocked = new CountDownLatch(1);
+
+        private volatile Predicate<String> failure = message -> false;
+
+        private volatile CountDownLatch release;
+
+        void failWhen(Predicate<String> failure) {
+            this.failure = failure;
+        }
+
+        void blockUntil(CountDownLatch release) {
+            this.release = release;
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            assertTrue(blocked.await(10, TimeUnit.SECONDS), "worker did not pick up the first event");
+        }
+
+        @Override
+        public synchronized void doAppend(ILoggingEvent event) {
+            append(event);
+        }
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            CountDownLatch gate = release;
+            if (gate != null && blocked.getCount() > 0) {
+                blocked.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            String message = event.getFormattedMessage();
+            if (failure.test(message)) {
+                throw new IllegalStateException("rejected " + message);
+            }
+            messages.add(message);
+        }
+
+        List<String> messages() {
+            synchronized (this) {
+                return new ArrayList<>(messages);
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package io.github.dsr.mask.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * {@code @Mask} 注解处理器
+ * <p>
+ * 为每个声明了 {@code @Mask} 字段的类生成 {@code GeneratedMasker} 实现，运行期由
+ * {@code ObjectMasker} 与响应处理器优先使用，不再反射读取字段。
+ * 无法直接访问的字段（private 且没有 getter / setter）所在的类不会生成，运行期自动回退到反射。
+ * <p>
+ * 处理结束时写入以下资源，增量编译时与已有内容合并：
+ * <ul>
+ *     <li>{@value #INDEX_RESOURCE}：所有声明了 {@code @Mask} 字段的类（含回退到反射的类），每行一个二进制类名，
+ *     供启动时 {@code MaskWarmup} 预先编译脱敏计划</li>
+ *     <li>{@value #SERVICES_RESOURCE}：生成的脱敏器，native image 中由 {@code ServiceLoader} 加载</li>
+ *     <li>{@value #REFLECT_CONFIG_RESOURCE}：native image 反射配置，注册上述类的字段与生成类的构造器</li>
+ * </ul>
+ *
+ * @author haiji
+ */
+@SupportedAnnotationTypes(MaskProcessor.MASK_ANNOTATION)
+public class MaskProcessor extends AbstractProcessor {
+
+    static final String MASK_ANNOTATION = "io.github.dsr.mask.core.annotation.Mask";
+
+    /**
+     * 脱敏类索引，与 {@code MaskWarmup.INDEX_RESOURCE} 一致
+     */
+    static final String INDEX_RESOURCE = "META-INF/dsr-mask/masked-classes";
+
+    static final String SERVICES_RESOURCE = "META-INF/services/io.github.dsr.mask.core.generated.GeneratedMasker";
+
+    static final String REFLECT_CONFIG_RESOURCE = "META-INF/native-image/dsr-mask/generated/reflect-config.json";
+
+    /**
+     * 已生成的类，避免多轮处理时重复生成
+     */
+    private final Set<String> generated = new HashSet<>();
+
+    /**
+     * 写入索引的二进制类名
+     */
+    private final Set<String> indexed = new TreeSet<>();
+
+    /**
+     * 本次编译生成的脱敏器类名
+     */
+    private final Set<String> generatedMaskers = new TreeSet<>();
+
+    /**
+     * 索引的来源类，供增量编译工具追踪
+     */
+    private final List<Element> indexOrigins = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            Set<TypeElement> types = new LinkedHashSet<>();
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.FIELD
+                        && element.getEnclosingElement() instanceof TypeElement type) {
+                    types.add(type);
+                }
+            }
+            for (TypeElement type : types) {
+                if (indexed.add(processingEnv.getElementUtils().getBinaryName(type).toString())) {
+                    indexOrigins.add(type);
+                }
+                generate(type);
+            }
+        }
+        if (roundEnv.processingOver() && !indexed.isEmpty()) {
+            writeResources();
+        }
+        // 不独占注解，其它处理器仍可处理 @Mask
+        return false;
+    }
+
+    private void writeResources() {
+        Set<String> classes = merge(INDEX_RESOURCE, indexed);
+        Set<String> maskers = merge(SERVICES_RESOURCE, generatedMaskers);
+        writeResource(INDEX_RESOURCE, String.join("\n", classes) + "\n");
+        if (!maskers.isEmpty()) {
+            writeResource(SERVICES_RESOURCE, String.join("\n", maskers) + "\n");
+        }
+        writeResource(REFLECT_CONFIG_RESOURCE, reflectConfig(classes, maskers));
+    }
+
+    /**
+     * 与上一次编译留下的同名资源合并
+     */
+    private Set<String> merge(String resource, Set<String> current) {
+        Set<String> entries = new TreeSet<>(current);
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", resource);
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        entries.add(line.trim());
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 没有已有资源
+        }
+        return entries;
+    }
+
+    /**
+     * 被脱敏类注册全部字段（反射路径读写字段），生成类注册无参构造器
+     */
+    private static String reflectConfig(Set<String> classes, Set<String> maskers) {
+        StringBuilder json = new StringBuilder("[\n");
+        boolean first = true;
+        for (String name : classes) {
+            json.append(first ? "" : ",\n")
+                    .append("  {\"name\": \"").append(name).append("\", \"allDeclaredFields\": true}");
+            first = false;
+        }
+        for (String name : maskers) {
+            json.append(first ? "" : ",\n")
+                    .append("  {\"name\": \"").append(name)
+                    .append("\", \"methods\": [{\"name\": \"<init>\", \"parameterTypes\": []}]}");
+            first = false;
+        }
+        return json.append("\n]\n").toString();
+    }
+
+    private void writeResource(String resource, String content) {
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", resource,
+                    indexOrigins.toArray(new Element[0]));
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                writer.write(content);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "dsr-mask: failed to write " + resource + ": " + e.getMessage());
+        }
+    }
+
+    private void generate(TypeElement type) {
+        String qualifiedName = type.getQualifiedName().toString();
+        if (!generated.add(qualifiedName)) {
+            return;
+        }
+
+        MaskerModel model = MaskerModel.of(type, processingEnv);
+        if (model.getUnsupportedReason() != null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "dsr-mask: " + qualifiedName + " uses reflection at runtime: " + model.getUnsupportedReason(), type);
+            return;
+        }
+
+        try {
+            MaskerSourceWriter.write(model, processingEnv.getFiler(), type);
+            String packageName = model.getPackageName();
+            generatedMaskers.add(packageName.isEmpty() ? model.getGeneratedSimpleName()
+                    : packageName + "." + model.getGeneratedSimpleName());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "dsr-mask: failed to generate masker for " + qualifiedName + ": " + e.getMessage(), type);
+        }
+    }
+}
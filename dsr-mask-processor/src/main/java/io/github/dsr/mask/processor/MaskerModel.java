@@ -0,0 +1,319 @@
+package io.github.dsr.mask.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 生成脱敏器所需的类模型
+ * <p>
+ * 字段按源码声明顺序收集（与运行期 {@code getDeclaredFields} 的顺序一致），并确定每个字段的读写表达式
+ *
+ * @author haiji
+ */
+final class MaskerModel {
+
+    private static final String SUFFIX = "_DsrMasker";
+
+    private final String packageName;
+
+    private final String generatedSimpleName;
+
+    /**
+     * 源码中引用被脱敏类型的写法（擦除泛型）
+     */
+    private final String typeReference;
+
+    private final List<FieldModel> fields;
+
+    private final String unsupportedReason;
+
+    private MaskerModel(String packageName, String generatedSimpleName, String typeReference,
+                        List<FieldModel> fields, String unsupportedReason) {
+        this.packageName = packageName;
+        this.generatedSimpleName = generatedSimpleName;
+        this.typeReference = typeReference;
+        this.fields = fields;
+        this.unsupportedReason = unsupportedReason;
+    }
+
+    static MaskerModel of(TypeElement type, ProcessingEnvironment env) {
+        Elements elements = env.getElementUtils();
+        Types types = env.getTypeUtils();
+
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(type).toString();
+        String flatName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                .replace('$', '_');
+        String typeReference = types.erasure(type.asType()).toString();
+
+        String reason = checkType(type);
+        if (reason != null) {
+            return unsupported(reason);
+        }
+
+        TypeMirror stringType = elements.getTypeElement(String.class.getName()).asType();
+        List<FieldModel> fields = new ArrayList<>();
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() != ElementKind.FIELD || member.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            VariableElement field = (VariableElement) member;
+            FieldModel model = FieldModel.of(field, type, types, stringType);
+            if (model.unsupportedReason != null) {
+                return unsupported(model.unsupportedReason);
+            }
+            fields.add(model);
+        }
+        return new MaskerModel(packageName, flatName + SUFFIX, typeReference, fields, null);
+    }
+
+    private static MaskerModel unsupported(String reason) {
+        return new MaskerModel(null, null, null, Collections.emptyList(), reason);
+    }
+
+    private static String checkType(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS) {
+            return "only classes are supported";
+        }
+        if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) {
+            return "local and anonymous classes are not supported";
+        }
+        for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+            if (current.getModifiers().contains(Modifier.PRIVATE)) {
+                return current.getSimpleName() + " is private";
+            }
+        }
+        return null;
+    }
+
+    String getPackageName() {
+        return packageName;
+    }
+
+    String getGeneratedSimpleName() {
+        return generatedSimpleName;
+    }
+
+    String getTypeReference() {
+        return typeReference;
+    }
+
+    List<FieldModel> getFields() {
+        return fields;
+    }
+
+    String getUnsupportedReason() {
+        return unsupportedReason;
+    }
+
+    boolean hasMaskedFields() {
+        for (FieldModel field : fields) {
+            if (field.masked) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 字段模型
+     */
+    static final class FieldModel {
+
+        final String name;
+
+        final boolean primitive;
+
+        final boolean transientField;
+
+        final boolean masked;
+
+        final String strategy;
+
+        final List<String> args;
+
+        /**
+         * 读取表达式，如 {@code source.name} 或 {@code source.getName()}；
+         * 不能直接访问的未脱敏字段为 null，运行期按反射读取，不调用 getter
+         */
+        final String readExpression;
+
+        /**
+         * 脱敏后写回的语句模板（{@code %s} 为新值），仅字符串类型的脱敏字段存在
+         */
+        final String writeTemplate;
+
+        /**
+         * 输出脱敏值的 Renderer 方法，{@code long}、{@code int} 字段使用不装箱的专用方法
+         */
+        final String renderMethod;
+
+        final String unsupportedReason;
+
+        private FieldModel(String name, boolean primitive, boolean transientField, boolean masked,
+                           String strategy, List<String> args, String readExpression, String writeTemplate,
+                           String renderMethod, String unsupportedReason) {
+            this.name = name;
+            this.primitive = primitive;
+            this.transientField = transientField;
+            this.masked = masked;
+            this.strategy = strategy;
+            this.args = args;
+            this.readExpression = readExpression;
+            this.writeTemplate = writeTemplate;
+            this.renderMethod = renderMethod;
+            this.unsupportedReason = unsupportedReason;
+        }
+
+        static FieldModel of(VariableElement field, TypeElement owner, Types types, TypeMirror stringType) {
+            String name = field.getSimpleName().toString();
+            TypeMirror fieldType = field.asType();
+            boolean primitive = fieldType.getKind().isPrimitive();
+            boolean transientField = field.getModifiers().contains(Modifier.TRANSIENT);
+            boolean directAccess = !field.getModifiers().contains(Modifier.PRIVATE);
+
+            AnnotationMirror mask = findMask(field);
+            String strategy = null;
+            List<String> args = Collections.emptyList();
+            if (mask != null) {
+                strategy = readStrategy(mask);
+                args = readArgs(mask);
+            }
+
+            String readExpression = null;
+            if (directAccess) {
+                readExpression = "source." + name;
+            } else if (mask != null) {
+                // 只有脱敏字段使用 getter，其它字段调用 getter 可能触发延迟加载等副作用
+                readExpression = findGetter(owner, name, fieldType, types);
+                if (readExpression == null) {
+                    return unsupported(name + " is private and has no getter");
+                }
+            }
+
+            String writeTemplate = null;
+            if (mask != null && !primitive) {
+                if (types.isSameType(fieldType, stringType)) {
+                    if (directAccess && !field.getModifiers().contains(Modifier.FINAL)) {
+                        writeTemplate = "source." + name + " = %s;";
+                    } else {
+                        writeTemplate = findSetter(owner, name, stringType, types);
+                    }
+                    if (writeTemplate == null) {
+                        return unsupported(name + " is not writable and has no setter");
+                    }
+                } else if (types.isAssignable(stringType, fieldType)) {
+                    // 声明类型可能在运行期持有字符串，保持与反射路径一致
+                    return unsupported(name + " is declared as " + fieldType + ", not String");
+                }
+            }
+
+            String renderMethod = switch (fieldType.getKind()) {
+                case LONG -> "writeMaskedLong";
+                case INT, SHORT, BYTE -> "writeMaskedInt";
+                default -> "writeMasked";
+            };
+            return new FieldModel(name, primitive, transientField, mask != null, strategy, args,
+                    readExpression, writeTemplate, renderMethod, null);
+        }
+
+        private static FieldModel unsupported(String reason) {
+            return new FieldModel(null, false, false, false, null, null, null, null, null, reason);
+        }
+
+        private static AnnotationMirror findMask(VariableElement field) {
+            for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+                TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+                if (annotationType.getQualifiedName().contentEquals(MaskProcessor.MASK_ANNOTATION)) {
+                    return mirror;
+                }
+            }
+            return null;
+        }
+
+        private static String readStrategy(AnnotationMirror mask) {
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : mask.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("strategy")) {
+                    return (String) entry.getValue().getValue();
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<String> readArgs(AnnotationMirror mask) {
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : mask.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("args")) {
+                    List<String> args = new ArrayList<>();
+                    for (AnnotationValue value : (List<? extends AnnotationValue>) entry.getValue().getValue()) {
+                        args.add((String) value.getValue());
+                    }
+                    return args;
+                }
+            }
+            return Collections.emptyList();
+        }
+
+        private static String findGetter(TypeElement owner, String name, TypeMirror fieldType, Types types) {
+            String capitalized = capitalize(name);
+            List<String> candidates = fieldType.getKind() == TypeKind.BOOLEAN
+                    ? List.of("is" + capitalized, "get" + capitalized)
+                    : List.of("get" + capitalized);
+            for (Element member : owner.getEnclosedElements()) {
+                if (member.getKind() != ElementKind.METHOD || !isCallable(member)) {
+                    continue;
+                }
+                ExecutableElement method = (ExecutableElement) member;
+                if (method.getParameters().isEmpty()
+                        && candidates.contains(method.getSimpleName().toString())
+                        && types.isSameType(method.getReturnType(), fieldType)) {
+                    return "source." + method.getSimpleName() + "()";
+                }
+            }
+            return null;
+        }
+
+        private static String findSetter(TypeElement owner, String name, TypeMirror stringType, Types types) {
+            String setterName = "set" + capitalize(name);
+            for (Element member : owner.getEnclosedElements()) {
+                if (member.getKind() != ElementKind.METHOD || !isCallable(member)) {
+                    continue;
+                }
+                ExecutableElement method = (ExecutableElement) member;
+                if (method.getSimpleName().contentEquals(setterName)
+                        && method.getParameters().size() == 1
+                        && types.isSameType(method.getParameters().get(0).asType(), stringType)) {
+                    return "source." + setterName + "(%s);";
+                }
+            }
+            return null;
+        }
+
+        private static boolean isCallable(Element method) {
+            return !method.getModifiers().contains(Modifier.PRIVATE)
+                    && !method.getModifiers().contains(Modifier.STATIC);
+        }
+
+        private static String capitalize(String name) {
+            return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package io.github.dsr.mask.processor;
+
+import io.github.dsr.mask.processor.MaskerModel.FieldModel;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * 根据 {@link MaskerModel} 输出 {@code GeneratedMasker} 的源码
+ *
+ * @author haiji
+ */
+final class MaskerSourceWriter {
+
+    private static final String GENERATED_MASKER = "io.github.dsr.mask.core.generated.GeneratedMasker";
+
+    private static final String STRATEGY_BINDING = "io.github.dsr.mask.core.plan.StrategyBinding";
+
+    private MaskerSourceWriter() {
+    }
+
+    static void write(MaskerModel model, Filer filer, Element originatingElement) throws IOException {
+        String packageName = model.getPackageName();
+        String simpleName = model.getGeneratedSimpleName();
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+        JavaFileObject file = filer.createSourceFile(qualifiedName, originatingElement);
+        try (Writer writer = file.openWriter(); PrintWriter out = new PrintWriter(writer)) {
+            writeSource(model, out);
+        }
+    }
+
+    private static void writeSource(MaskerModel model, PrintWriter out) {
+        String type = model.getTypeReference();
+        List<FieldModel> fields = model.getFields();
+
+        if (!model.getPackageName().isEmpty()) {
+            out.println("package " + model.getPackageName() + ";");
+            out.println();
+        }
+        out.println("@javax.annotation.processing.Generated(\"" + MaskProcessor.class.getName() + "\")");
+        out.println("@SuppressWarnings({\"rawtypes\", \"unchecked\"})");
+        out.println("public final class " + model.getGeneratedSimpleName()
+                + " implements " + GENERATED_MASKER + "<" + type + "> {");
+        out.println();
+
+        for (int i = 0; i < fields.size(); i++) {
+            FieldModel field = fields.get(i);
+            if (field.masked) {
+                out.println("    private static final " + STRATEGY_BINDING + " " + bindingName(i)
+                        + " = new " + STRATEGY_BINDING + "(" + literal(field.strategy) + ", " + argsLiteral(field.args) + ");");
+            }
+        }
+        out.println();
+
+        out.println("    @Override");
+        out.println("    public Class<" + type + "> type() {");
+        out.println("        return " + type + ".class;");
+        out.println("    }");
+        out.println();
+
+        out.println("    @Override");
+        out.println("    public boolean hasMaskedFields() {");
+        out.println("        return " + model.hasMaskedFields() + ";");
+        out.println("    }");
+        out.println();
+
+        out.println("    @Override");
+        out.println("    public " + STRATEGY_BINDING + "[] bindings() {");
+        StringBuilder bindings = new StringBuilder();
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).masked) {
+                bindings.append(bindings.length() == 0 ? "" : ", ").append(bindingName(i));
+            }
+        }
+        out.println("        return new " + STRATEGY_BINDING + "[]{" + bindings + "};");
+        out.println("    }");
+        out.println();
+
+        writeFieldsMethod(type, fields, out);
+        out.println();
+        maskFieldsMethod(type, fields, out);
+        out.println("}");
+    }
+
+    private static void writeFieldsMethod(String type, List<FieldModel> fields, PrintWriter out) {
+        out.println("    @Override");
+        out.println("    public void writeFields(" + type + " source, StringBuilder out, "
+                + GENERATED_MASKER + ".Renderer renderer) {");
+        out.println("        int mark;");
+        boolean first = true;
+        for (int i = 0; i < fields.size(); i++) {
+            FieldModel field = fields.get(i);
+            if (field.transientField) {
+                continue;
+            }
+            String label = (first ? "" : ", ") + field.name + "=";
+            out.println("        out.append(" + literal(label) + ");");
+            // 每个字段单独处理异常，与反射路径一致输出 [ERROR: ...]，不中断整个对象
+            out.println("        mark = out.length();");
+            out.println("        try {");
+            if (field.readExpression == null) {
+                out.println("            renderer.writeField(source, " + type + ".class, " + literal(field.name) + ", out);");
+            } else if (field.masked) {
+                out.println("            renderer." + field.renderMethod + "(" + bindingName(i) + ", " + field.readExpression + ", out);");
+            } else if (field.primitive) {
+                out.println("            out.append(" + field.readExpression + ");");
+            } else {
+                out.println("            renderer.write(" + field.readExpression + ", out);");
+            }
+            out.println("        } catch (RuntimeException e) {");
+            out.println("            out.setLength(mark);");
+            out.println("            renderer.writeError(e, out);");
+            out.println("        }");
+            first = false;
+        }
+        out.println("    }");
+    }
+
+    private static void maskFieldsMethod(String type, List<FieldModel> fields, PrintWriter out) {
+        out.println("    @Override");
+        out.println("    public void maskFields(" + type + " source, "
+                + GENERATED_MASKER + ".Visitor visitor) {");
+        for (int i = 0; i < fields.size(); i++) {
+            FieldModel field = fields.get(i);
+            if (field.primitive) {
+                continue;
+            }
+            if (field.writeTemplate != null) {
+                String value = "value" + i;
+                String masked = "masked" + i;
+                out.println("        String " + value + " = " + field.readExpression + ";");
+                out.println("        String " + masked + " = visitor.mask(" + bindingName(i) + ", " + value + ");");
+                out.println("        if (" + masked + " != " + value + ") {");
+                out.println("            " + String.format(field.writeTemplate, masked));
+                out.println("        }");
+            } else if (field.readExpression == null) {
+                out.println("        visitor.visitField(source, " + type + ".class, " + literal(field.name) + ");");
+            } else {
+                out.println("        visitor.visit(" + field.readExpression + ");");
+            }
+        }
+        out.println("    }");
+    }
+
+    private static String bindingName(int index) {
+        return "BINDING_" + index;
+    }
+
+    private static String argsLiteral(List<String> args) {
+        if (args.isEmpty()) {
+            return "new String[0]";
+        }
+        StringBuilder sb = new StringBuilder("new String[]{");
+        for (int i = 0; i < args.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(literal(args.get(i)));
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * 输出 Java 字符串字面量
+     */
+    private static String literal(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20 || c > 0x7e) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -2,14 +2,18 @@ package io.github.dsr.mask.response.advice;
 
 import io.github.dsr.mask.core.process.ResponseProcess;
 import io.github.dsr.mask.core.annotation.MaskResponse;
+import io.github.dsr.mask.response.config.ResponseMaskMode;
+import io.github.dsr.mask.response.jackson.MaskedBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -27,9 +31,17 @@ public class MaskResponseBodyAdvice implements ResponseBodyAdvice<Object> {
 
     private final ResponseProcess processor;
 
-    @Autowired
+    private final ResponseMaskMode mode;
+
     public MaskResponseBodyAdvice(ResponseProcess processor) {
+        this(processor, null);
+    }
+
+    @Autowired
+    public MaskResponseBodyAdvice(ResponseProcess processor,
+                                  @Value("${dsr.mask.response.mode:process}") String mode) {
         this.processor = processor;
+        this.mode = ResponseMaskMode.of(mode);
     }
 
     /**
@@ -79,11 +91,21 @@ public class MaskResponseBodyAdvice implements ResponseBodyAdvice<Object> {
                 return processor.processStringBody(str);
             }
 
+            // 序列化时脱敏，不修改响应对象
+            if (mode == ResponseMaskMode.SERIALIZER) {
+                if (body instanceof MappingJacksonValue container) {
+                    container.setValue(new MaskedBody(container.getValue()));
+                    return container;
+                }
+                return new MaskedBody(body);
+            }
+
             return processor.processResponseBody(body);
 
         } catch (Exception e) {
+            // 不回退到未脱敏的响应体，交给全局异常处理
             log.error("response mask process error", e);
-            return body;
+            throw new IllegalStateException("Failed to mask response body", e);
         }
     }
 }
@@ -0,0 +1,45 @@
+package io.github.dsr.mask.response.aot;
+
+import io.github.dsr.mask.core.generated.GeneratedMaskers;
+import io.github.dsr.mask.core.util.MaskWarmup;
+import io.github.dsr.mask.response.jackson.MaskedBody;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Spring AOT 运行时提示
+ * <p>
+ * 构建原生镜像时读取编译期生成的脱敏类索引，为每个 {@code @Mask} 类注册字段反射，
+ * 并为存在的生成脱敏器注册无参构造器，使未经 {@code dsr-mask-processor} 处理的类在原生镜像中仍可走反射计划。
+ * Jackson 按 {@code @JsonSerialize(using = ...)} 反射创建的序列化器同样注册构造器
+ *
+ * @author haiji
+ */
+public class MaskRuntimeHints implements RuntimeHintsRegistrar {
+
+    /**
+     * {@link MaskedBody} 上 {@code @JsonSerialize(using = ...)} 指定的序列化器，包内可见，按类名注册
+     */
+    private static final String MASKED_BODY_SERIALIZER = MaskedBody.class.getName() + "$Serializer";
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        ClassLoader loader = classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader();
+        hints.resources().registerPattern(MaskWarmup.INDEX_RESOURCE);
+        hints.resources().registerPattern("META-INF/services/io.github.dsr.mask.core.generated.GeneratedMasker");
+        hints.reflection().registerType(TypeReference.of(MaskedBody.class));
+        hints.reflection().registerType(TypeReference.of(MASKED_BODY_SERIALIZER),
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        for (String className : MaskWarmup.readIndex(loader)) {
+            hints.reflection().registerType(TypeReference.of(className), MemberCategory.DECLARED_FIELDS);
+            String generated = GeneratedMaskers.generatedClassName(className);
+            if (ClassUtils.isPresent(generated, loader)) {
+                hints.reflection().registerType(TypeReference.of(generated),
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            }
+        }
+    }
+}
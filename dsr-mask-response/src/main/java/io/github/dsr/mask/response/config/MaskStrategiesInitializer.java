@@ -0,0 +1,79 @@
+package io.github.dsr.mask.response.config;
+
+import io.github.dsr.mask.core.registry.MaskStrategyRegistry;
+import io.github.dsr.mask.core.util.MaskStrategies;
+import io.github.dsr.mask.core.util.MaskWarmup;
+import io.github.dsr.mask.response.process.KeyMaskRules;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 在所有单例创建完成后初始化 {@link MaskStrategies}
+ * <p>
+ * 容器中有 {@link MaskStrategyRegistry} 时直接交给 {@link MaskStrategies#setRegistry}（多个时优先
+ * {@code @Primary}，其次第一个），没有时使用默认注册表。初始化在应用开始处理请求之前完成，
+ * 第一次输出日志时不再探测 Spring 容器。随后校验响应键名规则的策略和参数，配置错误时启动失败，
+ * 不会等到运行期才发现。开启预热时随后在后台执行 {@link MaskWarmup}
+ *
+ * @author haiji
+ */
+public class MaskStrategiesInitializer implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(MaskStrategiesInitializer.class);
+
+    private final ObjectProvider<MaskStrategyRegistry> registries;
+
+    /**
+     * 每个策略绑定的预热调用次数，小于 0 时不预热
+     */
+    private final int warmUpIterations;
+
+    private KeyMaskRules keyRules;
+
+    public MaskStrategiesInitializer(ObjectProvider<MaskStrategyRegistry> registries, int warmUpIterations) {
+        this.registries = registries;
+        this.warmUpIterations = warmUpIterations;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        MaskStrategyRegistry registry = registries.getIfUnique();
+        if (registry == null) {
+            registry = registries.orderedStream().findFirst().orElse(null);
+        }
+        if (registry != null) {
+            MaskStrategies.setRegistry(registry);
+        } else {
+            MaskStrategies.bootstrap();
+        }
+        if (keyRules != null) {
+            keyRules.validate(MaskStrategies.getRegistry());
+        }
+
+        if (warmUpIterations >= 0) {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            MaskWarmup.warmUp(classLoader != null ? classLoader : getClass().getClassLoader(),
+                            ForkJoinPool.commonPool(), warmUpIterations)
+                    .whenComplete((report, error) -> {
+                        if (error != null) {
+                            log.warn("dsr-mask warm-up failed", error);
+                        } else if (!report.getFailures().isEmpty()) {
+                            log.warn("dsr-mask warm-up: {}, failures: {}", report, report.getFailures());
+                        } else {
+                            log.debug("dsr-mask warm-up: {}", report);
+                        }
+                    });
+        }
+    }
+
+    /**
+     * 需要在启动时校验的响应键名规则
+     */
+    public void setKeyRules(KeyMaskRules keyRules) {
+        this.keyRules = keyRules;
+    }
+}
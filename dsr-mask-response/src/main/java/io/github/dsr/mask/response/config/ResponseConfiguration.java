@@ -1,19 +1,91 @@
 package io.github.dsr.mask.response.config;
 
 import io.github.dsr.mask.core.process.ResponseProcess;
+import io.github.dsr.mask.core.registry.MaskStrategyRegistry;
+import io.github.dsr.mask.core.util.MaskStrategies;
+import io.github.dsr.mask.core.util.MaskWarmup;
+import io.github.dsr.mask.response.aot.MaskRuntimeHints;
+import io.github.dsr.mask.response.jackson.MaskModule;
 import io.github.dsr.mask.response.process.DefaultResponseProcess;
+import io.github.dsr.mask.response.process.KeyMaskRules;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
 
 @Configuration
+@ImportRuntimeHints(MaskRuntimeHints.class)
 public class ResponseConfiguration {
 
+    private static final Logger log = LoggerFactory.getLogger(ResponseConfiguration.class);
+
+
+    /**
+     * 响应的键名规则：dsr.mask.response.keys.<键名>=<策略>[:参数]，或 dsr.mask.response.keys[phone|*Phone]=PHONE；
+     * 策略和参数在注册表初始化后由 {@link MaskStrategiesInitializer} 校验
+     */
+    @Bean
+    @ConditionalOnMissingBean(KeyMaskRules.class)
+    public KeyMaskRules dsrMaskResponseKeyRules(Environment environment) {
+        Map<String, String> keys = Binder.get(environment)
+                .bind("dsr.mask.response.keys", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of());
+        return KeyMaskRules.of(keys);
+    }
 
     @Bean
     @ConditionalOnMissingBean(ResponseProcess.class)
-    public ResponseProcess defaultResponseProcess() {
-        return new DefaultResponseProcess();
+    public ResponseProcess defaultResponseProcess(KeyMaskRules rules, Environment environment) {
+        DefaultResponseProcess process = new DefaultResponseProcess();
+        process.setKeyRules(rules);
+        // 同一套规则合并到日志中的 Map 规则，dsr.mask.response.match-field-names=true 时还匹配未标注 @Mask 的字段名
+        if (!rules.isEmpty()) {
+            for (String conflict : MaskStrategies.mergeKeyRules(rules.getNameRules())) {
+                log.warn("Conflicting dsr.mask.response.keys with logging key rules, the response one wins: {}",
+                        conflict);
+            }
+            if (environment.getProperty("dsr.mask.response.match-field-names", Boolean.class, false)) {
+                MaskStrategies.setMatchFieldNames(true);
+            }
+        }
+        return process;
+    }
+
+    /**
+     * 启动时初始化脱敏策略注册表，避免第一次输出日志时在锁内探测 Spring 容器；
+     * 随后在后台按编译期索引预热：dsr.mask.warmup.enabled（默认 true，只编译计划和绑定参数）、
+     * dsr.mask.warmup.iterations（默认 0，大于 0 时用示例数据调用每个脱敏器，会调用自定义策略）
+     */
+    @Bean
+    @ConditionalOnMissingBean(MaskStrategiesInitializer.class)
+    public MaskStrategiesInitializer dsrMaskStrategiesInitializer(ObjectProvider<MaskStrategyRegistry> registries,
+                                                                  ObjectProvider<KeyMaskRules> keyRules,
+                                                                  Environment environment) {
+        boolean warmUp = environment.getProperty("dsr.mask.warmup.enabled", Boolean.class, true);
+        int iterations = environment.getProperty("dsr.mask.warmup.iterations", Integer.class,
+                MaskWarmup.DEFAULT_ITERATIONS);
+        MaskStrategiesInitializer initializer =
+                new MaskStrategiesInitializer(registries, warmUp ? Math.max(0, iterations) : -1);
+        initializer.setKeyRules(keyRules.getIfAvailable());
+        return initializer;
+    }
+
+    /**
+     * 序列化阶段脱敏模块，Spring Boot 会将其注册到默认的 ObjectMapper；
+     * 只对 {@code @MaskResponse} 的响应生效
+     */
+    @Bean
+    @ConditionalOnMissingBean(MaskModule.class)
+    public MaskModule dsrMaskModule() {
+        return new MaskModule();
     }
 
 }
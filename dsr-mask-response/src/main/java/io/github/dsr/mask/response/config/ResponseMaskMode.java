@@ -0,0 +1,35 @@
+package io.github.dsr.mask.response.config;
+
+/**
+ * 返回值脱敏方式，通过 {@code dsr.mask.response.mode} 配置
+ *
+ * @author haiji
+ */
+public enum ResponseMaskMode {
+
+    /**
+     * 序列化前遍历响应对象并就地修改脱敏字段（默认）
+     */
+    PROCESS,
+
+    /**
+     * 由 {@link io.github.dsr.mask.response.jackson.MaskModule} 在序列化时脱敏，不修改响应对象，
+     * 适合返回缓存对象等不能被修改的场景
+     */
+    SERIALIZER;
+
+    /**
+     * 解析配置值，忽略大小写，为空时返回默认值
+     */
+    public static ResponseMaskMode of(String value) {
+        if (value == null || value.isBlank()) {
+            return PROCESS;
+        }
+        for (ResponseMaskMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown dsr.mask.response.mode: " + value);
+    }
+}
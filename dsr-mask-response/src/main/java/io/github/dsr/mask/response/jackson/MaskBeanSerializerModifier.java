@@ -0,0 +1,35 @@
+package io.github.dsr.mask.response.jackson;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import io.github.dsr.mask.core.annotation.Mask;
+import io.github.dsr.mask.core.plan.StrategyBinding;
+
+import java.util.List;
+
+/**
+ * 将标注了 {@link Mask} 的属性替换为 {@link MaskPropertyWriter}
+ * <p>
+ * 只在构建 BeanSerializer 时执行一次，注解与参数随序列化器一起被 Jackson 缓存
+ *
+ * @author haiji
+ */
+class MaskBeanSerializerModifier extends BeanSerializerModifier {
+
+    @Override
+    public List<BeanPropertyWriter> changeProperties(SerializationConfig config,
+                                                     BeanDescription beanDesc,
+                                                     List<BeanPropertyWriter> beanProperties) {
+        for (int i = 0; i < beanProperties.size(); i++) {
+            BeanPropertyWriter writer = beanProperties.get(i);
+            // 字段上的注解会合并到 getter，这里可以直接取到
+            Mask mask = writer.getAnnotation(Mask.class);
+            if (mask != null) {
+                beanProperties.set(i, new MaskPropertyWriter(writer, new StrategyBinding(mask.strategy(), mask.args())));
+            }
+        }
+        return beanProperties;
+    }
+}
@@ -0,0 +1,41 @@
+package io.github.dsr.mask.response.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BasicSerializerFactory;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.SerializerFactory;
+
+/**
+ * 序列化阶段脱敏的 Jackson 模块
+ * <p>
+ * 注册后，{@code @Mask} 属性在 {@link com.fasterxml.jackson.core.JsonGenerator} 写出时按策略脱敏，
+ * 不再预先遍历并修改响应对象。仅对 {@link MaskedBody} 包装的响应生效，其它序列化不受影响。
+ * Spring Boot 会自动把 {@code Module} 类型的 Bean 注册到默认的 {@link ObjectMapper}，
+ * 自定义 ObjectMapper 时需要手动 {@code registerModule(new MaskModule())}
+ *
+ * @author haiji
+ */
+public class MaskModule extends SimpleModule {
+
+    public MaskModule() {
+        super("DsrMaskModule");
+        setSerializerModifier(new MaskBeanSerializerModifier());
+    }
+
+    /**
+     * 判断 ObjectMapper 是否已注册本模块
+     */
+    static boolean isRegistered(ObjectMapper mapper) {
+        SerializerFactory factory = mapper.getSerializerFactory();
+        if (!(factory instanceof BasicSerializerFactory basic)) {
+            return false;
+        }
+        for (BeanSerializerModifier modifier : basic.getFactoryConfig().serializerModifiers()) {
+            if (modifier instanceof MaskBeanSerializerModifier) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
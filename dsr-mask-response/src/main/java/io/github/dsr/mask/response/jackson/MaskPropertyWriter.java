@@ -0,0 +1,94 @@
+package io.github.dsr.mask.response.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.PropertyName;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import io.github.dsr.mask.core.plan.StrategyBinding;
+import io.github.dsr.mask.core.registry.MaskStrategyRegistry;
+import io.github.dsr.mask.core.strategy.BoundMaskStrategy;
+import io.github.dsr.mask.core.util.MaskStrategies;
+
+import java.math.BigDecimal;
+
+/**
+ * 写出时脱敏的属性
+ * <p>
+ * 处理字符串、字符序列、整数和 {@link BigDecimal} 值，数值经过对应的专用脱敏器，不先转换为字符串，
+ * 脱敏后以 JSON 字符串输出。策略未注册或不接受该类型时原样输出。只读取属性值，不修改源对象
+ *
+ * @author haiji
+ */
+class MaskPropertyWriter extends BeanPropertyWriter {
+
+    private final StrategyBinding binding;
+
+    MaskPropertyWriter(BeanPropertyWriter base, StrategyBinding binding) {
+        super(base);
+        this.binding = binding;
+    }
+
+    private MaskPropertyWriter(MaskPropertyWriter base, PropertyName name) {
+        super(base, name);
+        this.binding = base.binding;
+    }
+
+    @Override
+    protected BeanPropertyWriter _new(PropertyName newName) {
+        return new MaskPropertyWriter(this, newName);
+    }
+
+    @Override
+    public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+        String masked = maskedValue(bean, prov);
+        if (masked == null) {
+            super.serializeAsField(bean, gen, prov);
+            return;
+        }
+        gen.writeFieldName(_name);
+        gen.writeString(masked);
+    }
+
+    @Override
+    public void serializeAsElement(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+        String masked = maskedValue(bean, prov);
+        if (masked == null) {
+            super.serializeAsElement(bean, gen, prov);
+            return;
+        }
+        gen.writeString(masked);
+    }
+
+    /**
+     * 计算脱敏后的值
+     *
+     * @return 脱敏后的值，不需要脱敏时返回 null，由父类按原逻辑输出
+     */
+    private String maskedValue(Object bean, SerializerProvider prov) throws Exception {
+        if (!MaskedBody.isActive(prov)) {
+            return null;
+        }
+        Object value = get(bean);
+        MaskStrategyRegistry registry = MaskStrategies.getRegistry();
+        if (value instanceof String text) {
+            if (text.isEmpty()) {
+                return null;
+            }
+            BoundMaskStrategy<Object, String> masker = binding.masker(registry);
+            return masker != null ? masker.mask(text) : null;
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            BoundMaskStrategy.OfLong masker = binding.longMasker(registry);
+            return masker != null ? masker.mask(((Number) value).longValue()) : null;
+        }
+        if (value instanceof BigDecimal decimal) {
+            BoundMaskStrategy.OfDecimal masker = binding.decimalMasker(registry);
+            return masker != null ? masker.mask(decimal) : null;
+        }
+        if (value instanceof CharSequence text && !text.isEmpty()) {
+            BoundMaskStrategy.OfText masker = binding.textMasker(registry);
+            return masker != null ? masker.mask(text) : null;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.dsr.mask.response.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+
+/**
+ * 需要脱敏的响应体
+ * <p>
+ * 序列化时在本次调用的 {@link SerializerProvider} 上设置标记后再输出原对象，
+ * {@link MaskPropertyWriter} 只在标记存在时脱敏，因此同一个 ObjectMapper 的其它序列化不受影响
+ *
+ * @author haiji
+ */
+@JsonSerialize(using = MaskedBody.Serializer.class)
+public final class MaskedBody {
+
+    private static final Object ACTIVE = MaskedBody.class.getName() + ".active";
+
+    private final Object value;
+
+    public MaskedBody(Object value) {
+        this.value = value;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    static boolean isActive(SerializerProvider provider) {
+        return provider.getAttribute(ACTIVE) != null;
+    }
+
+    static class Serializer extends JsonSerializer<MaskedBody> {
+
+        @Override
+        public void serialize(MaskedBody body, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            // 未注册模块时 @Mask 属性会原样输出，直接失败而不是泄露明文
+            if (gen.getCodec() instanceof ObjectMapper mapper && !MaskModule.isRegistered(mapper)) {
+                throw JsonMappingException.from(gen,
+                        "MaskModule is not registered on the ObjectMapper used for masked responses");
+            }
+            provider.setAttribute(ACTIVE, Boolean.TRUE);
+            provider.defaultSerializeValue(body.value, gen);
+        }
+    }
+}
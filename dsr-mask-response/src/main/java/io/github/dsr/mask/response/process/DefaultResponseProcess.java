@@ -1,66 +1,80 @@
 package io.github.dsr.mask.response.process;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.dsr.mask.core.generated.GeneratedMasker;
+import io.github.dsr.mask.core.plan.ClassMaskPlan;
+import io.github.dsr.mask.core.plan.FieldMaskPlan;
+import io.github.dsr.mask.core.plan.StrategyBinding;
 import io.github.dsr.mask.core.util.MaskStrategies;
-import io.github.dsr.mask.core.annotation.Mask;
 import io.github.dsr.mask.core.process.ResponseProcess;
-import io.github.dsr.mask.core.strategy.MaskStrategy;
+import io.github.dsr.mask.core.registry.MaskStrategyRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
 import java.util.*;
 
 public class DefaultResponseProcess implements ResponseProcess {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultResponseProcess.class);
 
+    /**
+     * 脱敏失败时代替原值输出，不回退到明文
+     */
+    static final String MASK_FAILED = "******";
+
 
     @Autowired
     private ObjectMapper objectMapper;
 
     /**
-     *
-     * 缓存字段，避免每次都去反射
-     * key: 类
-     * value: 字段
-     * 缓存的目的是避免每次都去反射
-     * <p>
-     * | 场景       | ConcurrentHashMap | WeakHashMap |
-     * | -------- | ----------------- | ----------- |
-     * | 普通业务系统   | 稳定                | 稳定          |
-     * | DevTools | 泄漏                | 自动回收        |
-     * | 插件卸载     | 泄漏                | 自动回收        |
-     * | 维护成本     | 高                 | 低           |
-     * | 可解释性     | 一般                | 非常好         |
+     * 键名规则，用于 JSON 字符串响应和响应对象中的 Map
      */
-    private static final Map<Class<?>, Field[]> FIELD_CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+    private KeyMaskRules keyRules = KeyMaskRules.EMPTY;
 
+    public void setKeyRules(KeyMaskRules keyRules) {
+        this.keyRules = keyRules != null ? keyRules : KeyMaskRules.EMPTY;
+    }
 
     /**
      * String 类型特殊处理（JSON / 非 JSON）
+     * <p>
+     * JSON 字符串按键名规则流式脱敏，不构建对象树；未配置规则时原样返回。
+     * 看起来是 JSON 但无法解析时整体替换为 {@link #MASK_FAILED}，不返回原始字符串
      */
     @Override
     public Object processStringBody(String body) {
-        if (body == null || body.isEmpty()) {
+        if (body == null || body.isEmpty() || keyRules.isEmpty() || !looksLikeJson(body)) {
             return body;
         }
 
-        String trimmed = body.trim();
-        if ((trimmed.startsWith("{") && trimmed.endsWith("}")) ||
-                (trimmed.startsWith("[") && trimmed.endsWith("]"))) {
-            try {
-                Object parsed = objectMapper.readValue(body, Object.class);
-                processResponseBody(parsed);
-                return objectMapper.writeValueAsString(parsed);
-            } catch (Exception e) {
-                log.warn("JSON字符串解析失败，返回原始字符串: {}", e.getMessage());
-                return body;
-            }
+        try {
+            return JsonStreamMasker.mask(objectMapper.getFactory(), body, keyRules);
+        } catch (Exception e) {
+            log.warn("JSON字符串脱敏失败，不返回原始字符串: {}", e.getMessage());
+            return MASK_FAILED;
         }
-        return body;
+    }
+
+    /**
+     * 首尾非空白字符是否为成对的 {@code {}} 或 {@code []}，不复制字符串
+     */
+    private static boolean looksLikeJson(String body) {
+        int start = 0;
+        int end = body.length() - 1;
+        while (start <= end && Character.isWhitespace(body.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(body.charAt(end))) {
+            end--;
+        }
+        if (start >= end) {
+            return false;
+        }
+        char first = body.charAt(start);
+        char last = body.charAt(end);
+        return (first == '{' && last == '}') || (first == '[' && last == ']');
     }
 
     /**
@@ -71,86 +85,132 @@ public class DefaultResponseProcess implements ResponseProcess {
         if (body == null) {
             return null;
         }
-        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
-        process(body, visited);
+        process(body, new ProcessContext());
         return body;
     }
 
     /**
      * 核心递归处理逻辑
      */
-    private void process(Object obj, Set<Object> visited) {
+    private void process(Object obj, ProcessContext context) {
         if (obj == null || isBasicType(obj)) {
             return;
         }
 
         // 防止循环引用
-        if (!visited.add(obj)) {
+        if (!context.visited.add(obj)) {
             return;
         }
 
         if (obj instanceof Collection<?> collection) {
             for (Object item : collection) {
-                process(item, visited);
+                process(item, context);
             }
             return;
         }
 
         if (obj instanceof Map<?, ?> map) {
-            // 只处理 value，key 没必要
-            for (Object value : map.values()) {
-                process(value, visited);
-            }
+            processMap(map, context);
             return;
         }
 
         if (obj.getClass().isArray()) {
             int len = Array.getLength(obj);
             for (int i = 0; i < len; i++) {
-                process(Array.get(obj, i), visited);
+                process(Array.get(obj, i), context);
             }
             return;
         }
 
         // 普通 Java Bean
-        processFields(obj, obj.getClass(), visited);
+        processFields(obj, ClassMaskPlan.of(obj.getClass()), context);
+    }
+
+    /**
+     * 处理 Map 的值：键名命中键名规则的字符序列与数值替换为脱敏后的字符串，其它值递归处理
+     */
+    @SuppressWarnings("unchecked")
+    private void processMap(Map<?, ?> map, ProcessContext context) {
+        if (keyRules.isEmpty()) {
+            for (Object value : map.values()) {
+                process(value, context);
+            }
+            return;
+        }
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            Object value = entry.getValue();
+            StrategyBinding binding = entry.getKey() instanceof CharSequence key ? keyRules.find(key) : null;
+            String masked = binding != null ? maskValue(binding, value) : null;
+            if (masked == null) {
+                process(value, context);
+                continue;
+            }
+            try {
+                ((Map.Entry<Object, Object>) entry).setValue(masked);
+            } catch (UnsupportedOperationException | ClassCastException e) {
+                log.warn("mask map entry {} fail: {}", entry.getKey(), e.getMessage());
+            }
+        }
     }
 
     /**
-     * 处理对象字段（含父类）
+     * 按值的类型脱敏，见 {@link StrategyBinding#mask(MaskStrategyRegistry, Object)}
+     *
+     * @return 脱敏后的值，值不是字符序列或数值、策略未注册时返回 null，脱敏失败时返回 {@link #MASK_FAILED}
+     */
+    private static String maskValue(StrategyBinding binding, Object value) {
+        if (!(value instanceof CharSequence) && !(value instanceof Number)) {
+            return null;
+        }
+        try {
+            return binding.mask(MaskStrategies.getRegistry(), value);
+        } catch (Exception e) {
+            log.warn("mask {} fail: {}", binding.getStrategyType(), e.getMessage());
+            return MASK_FAILED;
+        }
+    }
+
+    /**
+     * 处理对象字段（含父类），优先使用编译期生成的脱敏器，否则使用 {@link ClassMaskPlan} 的反射字段
      */
-    private void processFields(Object obj, Class<?> clazz, Set<Object> visited) {
-        if (clazz == null || clazz == Object.class) {
+    @SuppressWarnings("unchecked")
+    private void processFields(Object obj, ClassMaskPlan plan, ProcessContext context) {
+        if (plan == null) {
             return;
         }
 
         // 先处理父类字段
-        processFields(obj, clazz.getSuperclass(), visited);
+        processFields(obj, plan.getSuperPlan(), context);
 
-        Field[] fields = FIELD_CACHE.computeIfAbsent(clazz, c -> {
-            Field[] fs = c.getDeclaredFields();
-            for (Field f : fs) {
-                f.setAccessible(true);
+        GeneratedMasker<Object> generated = (GeneratedMasker<Object>) plan.getGeneratedMasker();
+        if (generated != null) {
+            try {
+                generated.maskFields(obj, context);
+                return;
+            } catch (Exception e) {
+                // 生成的脱敏器中途失败时按反射字段重新处理，已脱敏的字段不会被还原
+                log.warn("process {} fail, fallback to reflection: {}", plan.getType().getName(), e.getMessage());
             }
-            return fs;
-        });
+        }
 
-        for (Field field : fields) {
+        for (FieldMaskPlan field : plan.getFields()) {
+            // 基本类型字段既不需要递归，也无法写回脱敏后的字符串
+            if (field.getValueKind().isPrimitive()) {
+                continue;
+            }
             try {
                 Object value = field.get(obj);
-                Mask mask = field.getAnnotation(Mask.class);
 
                 // 先递归处理嵌套对象
                 if (value != null && !isBasicType(value)) {
-                    process(value, visited);
+                    process(value, context);
                 }
 
                 // 再处理脱敏字段
-                if (mask != null && value instanceof String str) {
-                    MaskStrategy strategy =
-                            MaskStrategies.getRegistry().get(mask.strategy());
-                    if (strategy != null) {
-                        field.set(obj, strategy.mask(str, mask.args()));
+                if (field.isMasked() && value instanceof String str) {
+                    String masked = maskField(field, str);
+                    if (masked != str) {
+                        field.set(obj, masked);
                     }
                 }
             } catch (Exception e) {
@@ -159,6 +219,50 @@ public class DefaultResponseProcess implements ResponseProcess {
         }
     }
 
+    /**
+     * 脱敏字段值
+     *
+     * @return 脱敏后的值，策略未注册时返回原值，脱敏失败时返回 {@link #MASK_FAILED}
+     */
+    private static String maskField(FieldMaskPlan field, String value) {
+        try {
+            String masked = field.getBinding().mask(MaskStrategies.getRegistry(), value);
+            return masked != null ? masked : value;
+        } catch (Exception e) {
+            log.warn("mask filed {} fail: {}", field.getName(), e.getMessage());
+            return MASK_FAILED;
+        }
+    }
+
+    /**
+     * 单次响应处理的上下文，记录已访问的对象，同时作为生成脱敏器的回调
+     */
+    private final class ProcessContext implements GeneratedMasker.Visitor {
+
+        private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        @Override
+        public void visit(Object value) {
+            if (value != null && !isBasicType(value)) {
+                process(value, this);
+            }
+        }
+
+        @Override
+        public String mask(StrategyBinding binding, String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                String masked = binding.mask(MaskStrategies.getRegistry(), value);
+                return masked != null ? masked : value;
+            } catch (Exception e) {
+                log.warn("mask {} fail: {}", binding.getStrategyType(), e.getMessage());
+                return MASK_FAILED;
+            }
+        }
+    }
+
     /**
      * 基本类型判断
      */
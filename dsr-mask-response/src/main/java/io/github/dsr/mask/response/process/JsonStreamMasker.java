@@ -0,0 +1,99 @@
+package io.github.dsr.mask.response.process;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import io.github.dsr.mask.core.plan.StrategyBinding;
+import io.github.dsr.mask.core.util.MaskStrategies;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * JSON 字符串的流式脱敏
+ * <p>
+ * 逐个 token 从 {@link JsonParser} 复制到 {@link JsonGenerator}，按键名规则替换字符串和数字值，
+ * 不构建 Map / List 树，除输入输出外内存占用与报文大小无关。数组元素使用数组所在的键名匹配，数字按整数或小数交给对应的专用脱敏器。
+ * 单个值脱敏失败时输出 {@link DefaultResponseProcess#MASK_FAILED}，不输出原值
+ *
+ * @author haiji
+ */
+final class JsonStreamMasker {
+
+    private static final Logger log = LoggerFactory.getLogger(JsonStreamMasker.class);
+
+    private JsonStreamMasker() {
+    }
+
+    /**
+     * 脱敏 JSON 字符串
+     *
+     * @param factory JSON 工厂
+     * @param json    JSON 字符串
+     * @param rules   键名规则
+     * @return 脱敏后的 JSON
+     * @throws IOException JSON 格式错误
+     */
+    static String mask(JsonFactory factory, String json, KeyMaskRules rules) throws IOException {
+        StringWriter out = new StringWriter(json.length());
+        try (JsonParser parser = factory.createParser(json);
+             JsonGenerator generator = factory.createGenerator(out)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.VALUE_STRING || token.isNumeric()) {
+                    StrategyBinding binding = rules.find(currentKey(parser.getParsingContext()));
+                    if (binding != null && writeMasked(binding, tokenValue(parser, token), generator)) {
+                        continue;
+                    }
+                }
+                generator.copyCurrentEventExact(parser);
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * 当前值对应的键名，数组元素（包括嵌套数组）取最外层数组所在的键名
+     */
+    private static String currentKey(JsonStreamContext context) {
+        while (context != null && context.inArray()) {
+            context = context.getParent();
+        }
+        return context != null ? context.getCurrentName() : null;
+    }
+
+    /**
+     * 按 token 类型读取值：整数为 {@code long}（超出范围时为 {@link java.math.BigInteger}），
+     * 小数为 {@link java.math.BigDecimal}，由 {@link StrategyBinding#mask} 按策略的参数类型选择脱敏器
+     */
+    private static Object tokenValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER
+                    ? parser.getBigIntegerValue() : parser.getLongValue();
+        }
+        if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDecimalValue();
+        }
+        return parser.getText();
+    }
+
+    private static boolean writeMasked(StrategyBinding binding, Object value, JsonGenerator generator)
+            throws IOException {
+        String masked;
+        try {
+            masked = binding.mask(MaskStrategies.getRegistry(), value);
+            if (masked == null) {
+                return false;
+            }
+        } catch (RuntimeException e) {
+            log.warn("mask {} fail: {}", binding.getStrategyType(), e.getMessage());
+            masked = DefaultResponseProcess.MASK_FAILED;
+        }
+        generator.writeString(masked);
+        return true;
+    }
+}
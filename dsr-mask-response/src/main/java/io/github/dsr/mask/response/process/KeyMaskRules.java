@@ -0,0 +1,74 @@
+package io.github.dsr.mask.response.process;
+
+import io.github.dsr.mask.core.plan.KeyNameRules;
+import io.github.dsr.mask.core.plan.StrategyBinding;
+import io.github.dsr.mask.core.registry.MaskStrategyRegistry;
+
+import java.util.Map;
+
+/**
+ * 响应的键名脱敏规则，用于 JSON 字符串响应和响应对象中的 Map
+ * <p>
+ * 配置格式：{@code dsr.mask.response.keys.<键名>=<策略>[:参数1,参数2]}，如
+ * {@code dsr.mask.response.keys.mobile=PHONE}、{@code dsr.mask.response.keys.cardNo=BANK:4,4}；
+ * 键名可以用 {@code |} 分隔多个，并支持 {@code *} 前缀 / 后缀匹配，如
+ * {@code dsr.mask.response.keys[phone|mobile|tel]=PHONE}、{@code dsr.mask.response.keys[*IdCard]=ID_CAR}。
+ * 匹配时忽略大小写和下划线，规则编译为字典树，见 {@link KeyNameRules}
+ *
+ * @author haiji
+ */
+public final class KeyMaskRules {
+
+    public static final KeyMaskRules EMPTY = new KeyMaskRules(KeyNameRules.EMPTY);
+
+    private final KeyNameRules rules;
+
+    private KeyMaskRules(KeyNameRules rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * 解析键名规则
+     *
+     * @param config 键名 -> 策略配置
+     * @return 规则
+     * @throws IllegalArgumentException 键名模式或策略配置非法
+     */
+    public static KeyMaskRules of(Map<String, String> config) {
+        if (config == null || config.isEmpty()) {
+            return EMPTY;
+        }
+        return new KeyMaskRules(KeyNameRules.of(config));
+    }
+
+    /**
+     * 查找键名对应的策略
+     *
+     * @param key 键名
+     * @return 策略绑定，未配置时返回 null
+     */
+    public StrategyBinding find(CharSequence key) {
+        return rules.find(key);
+    }
+
+    /**
+     * 严格校验所有规则的策略和参数，见 {@link KeyNameRules#validate(MaskStrategyRegistry)}
+     *
+     * @param registry 当前注册表
+     * @throws IllegalArgumentException 策略未注册或参数非法
+     */
+    public void validate(MaskStrategyRegistry registry) {
+        rules.validate(registry);
+    }
+
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    /**
+     * 编译后的键名规则，可以通过 {@code MaskStrategies.mergeKeyRules} 合并到日志脱敏的规则
+     */
+    public KeyNameRules getNameRules() {
+        return rules;
+    }
+}